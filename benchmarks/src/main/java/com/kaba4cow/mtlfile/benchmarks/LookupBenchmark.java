@@ -0,0 +1,67 @@
+package com.kaba4cow.mtlfile.benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kaba4cow.mtlfile.MTLLibrary;
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * Measures the latency of {@link MTLLibrary#getMaterial(String)} for names spread over the whole library and for names
+ * that are not present.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+
+	private static final int NAMES = 1024;
+
+	@Param({ "SMALL", "TYPICAL", "HUGE" })
+	private MTLCorpus.Size size;
+
+	private MTLLibrary library;
+	private String[] hits;
+	private String[] misses;
+	private int index;
+
+	@Setup
+	public void setup() throws IOException {
+		library = new MTLLibrary(MTLCorpus.generate(size, MTLCorpus.Variant.PLAIN));
+		Random random = new Random(size.materials());
+		hits = new String[NAMES];
+		misses = new String[NAMES];
+		for (int i = 0; i < NAMES; i++) {
+			hits[i] = MTLCorpus.materialName(random.nextInt(size.materials()));
+			misses[i] = MTLCorpus.materialName(size.materials() + random.nextInt(size.materials()));
+		}
+		index = 0;
+	}
+
+	@Benchmark
+	public MTLMaterial hit() {
+		return library.getMaterial(hits[index++ & (NAMES - 1)]);
+	}
+
+	@Benchmark
+	public MTLMaterial miss() {
+		return library.getMaterial(misses[index++ & (NAMES - 1)]);
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.kaba4cow.mtlfile.benchmarks;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * A generator of synthetic MTL data used by the benchmarks. The generated data is deterministic for a given size and
+ * variant, so results are comparable between runs and no external files are needed.
+ */
+public class MTLCorpus {
+
+	/**
+	 * Represents the number of materials in a generated library.
+	 */
+	public enum Size {
+
+		SMALL(10), //
+		TYPICAL(500), //
+		HUGE(100_000); //
+
+		private final int materials;
+
+		private Size(int materials) {
+			this.materials = materials;
+		}
+
+		/**
+		 * Returns the number of materials.
+		 *
+		 * @return the number of materials
+		 */
+		public int materials() {
+			return materials;
+		}
+
+	}
+
+	/**
+	 * Represents the kind of statements dominating a generated library.
+	 */
+	public enum Variant {
+
+		/**
+		 * Colors, scalars and a single diffuse map, the way most exporters write materials.
+		 */
+		PLAIN,
+
+		/**
+		 * Every material has all five maps, most of them with options.
+		 */
+		MAP_HEAVY,
+
+		/**
+		 * Every material is preceded by a block of comments.
+		 */
+		COMMENT_HEAVY;
+
+	}
+
+	private static final long SEED = 0x6d746cL;
+
+	private MTLCorpus() {}
+
+	/**
+	 * Generates MTL data of the specified size and variant.
+	 *
+	 * @param size    the number of materials to generate
+	 * @param variant the kind of statements to generate
+	 *
+	 * @return the generated MTL data
+	 */
+	public static String generate(Size size, Variant variant) {
+		Random random = new Random(SEED);
+		StringBuilder builder = new StringBuilder(size.materials() * 256);
+		builder.append("# Synthetic MTL File\n");
+		builder.append("# Material Count: ").append(size.materials()).append("\n\n");
+		for (int i = 0; i < size.materials(); i++) {
+			if (variant == Variant.COMMENT_HEAVY)
+				for (int j = 0; j < 4; j++)
+					builder.append("# material ").append(i).append(" note ").append(j)
+							.append(": exported from scene layer ").append(random.nextInt(64)).append("\n");
+			builder.append("newmtl ").append(materialName(i)).append("\n");
+			builder.append("Ns ").append(decimal(random.nextFloat() * 1000.0f)).append("\n");
+			appendColor(builder, "Ka", random);
+			appendColor(builder, "Kd", random);
+			appendColor(builder, "Ks", random);
+			builder.append("d ").append(decimal(random.nextFloat())).append("\n");
+			builder.append("illum ").append(random.nextInt(11)).append("\n");
+			if (variant == Variant.MAP_HEAVY) {
+				builder.append("map_Ka -s ").append(decimal(random.nextFloat() * 4.0f)).append(" textures/ambient_")
+						.append(random.nextInt(1000)).append(".png\n");
+				builder.append("map_Kd -s ").append(decimal(random.nextFloat() * 4.0f)).append(" -o ")
+						.append(decimal(random.nextFloat())).append(" textures/diffuse_").append(random.nextInt(1000))
+						.append(".png\n");
+				builder.append("map_Ks textures/specular_").append(random.nextInt(1000)).append(".png\n");
+				builder.append("map_d -t textures/alpha_").append(random.nextInt(1000)).append(".png\n");
+				builder.append("map_Bump -bm ").append(decimal(random.nextFloat())).append(" textures/normal_")
+						.append(random.nextInt(1000)).append(".png\n");
+			} else
+				builder.append("map_Kd textures/diffuse_").append(random.nextInt(1000)).append(".png\n");
+			builder.append("\n");
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Returns the name of the material generated at the specified index.
+	 *
+	 * @param index the index of the material
+	 *
+	 * @return the name of the material
+	 */
+	public static String materialName(int index) {
+		return String.format(Locale.ROOT, "Material_%06d", index);
+	}
+
+	private static void appendColor(StringBuilder builder, String keyword, Random random) {
+		builder.append(keyword)//
+				.append(" ").append(decimal(random.nextFloat()))//
+				.append(" ").append(decimal(random.nextFloat()))//
+				.append(" ").append(decimal(random.nextFloat()))//
+				.append("\n");
+	}
+
+	private static String decimal(float value) {
+		return String.format(Locale.ROOT, "%.6f", value);
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.kaba4cow.mtlfile.benchmarks;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.kaba4cow.mtlfile.MTLNumbers;
+
+/**
+ * Compares {@link MTLNumbers#parseFloat(CharSequence, int, int)} to the substring and {@link Float#parseFloat(String)}
+ * approach it replaced, on color lines formatted the way exporters write them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NumbersBenchmark {
+
+	private static final int LINES = 1024;
+
+	private String[] lines;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(LINES);
+		lines = new String[LINES];
+		for (int i = 0; i < LINES; i++)
+			lines[i] = String.format(Locale.ROOT, "Kd %.6f %.6f %.6f", random.nextFloat(), random.nextFloat(),
+					random.nextFloat());
+	}
+
+	@Benchmark
+	public void substring(Blackhole blackhole) {
+		for (String line : lines) {
+			blackhole.consume(Float.parseFloat(line.substring(3, 11)));
+			blackhole.consume(Float.parseFloat(line.substring(12, 20)));
+			blackhole.consume(Float.parseFloat(line.substring(21, 29)));
+		}
+	}
+
+	@Benchmark
+	public void inPlace(Blackhole blackhole) {
+		for (String line : lines) {
+			blackhole.consume(MTLNumbers.parseFloat(line, 3, 11));
+			blackhole.consume(MTLNumbers.parseFloat(line, 12, 20));
+			blackhole.consume(MTLNumbers.parseFloat(line, 21, 29));
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.kaba4cow.mtlfile.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kaba4cow.mtlfile.MTLLibrary;
+import com.kaba4cow.mtlfile.MTLParser;
+
+/**
+ * Measures the throughput of {@link MTLParser#parse(java.io.Reader, MTLLibrary)} and of scanning the encoded bytes with
+ * {@link MTLParser#parse(ByteBuffer, MTLLibrary)}, sequentially and in parallel. Run with {@code -prof gc} to get the
+ * allocated bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+	@Param({ "SMALL", "TYPICAL", "HUGE" })
+	private MTLCorpus.Size size;
+
+	@Param({ "PLAIN", "MAP_HEAVY", "COMMENT_HEAVY" })
+	private MTLCorpus.Variant variant;
+
+	private String source;
+	private ByteBuffer bytes;
+
+	@Setup
+	public void setup() {
+		source = MTLCorpus.generate(size, variant);
+		bytes = ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Benchmark
+	public MTLLibrary parse() throws IOException {
+		return MTLParser.parse(new StringReader(source), null);
+	}
+
+	@Benchmark
+	public MTLLibrary parseBytes() {
+		return MTLParser.parse(bytes, null);
+	}
+
+	@Benchmark
+	public MTLLibrary parseParallel() {
+		return MTLParser.parseParallel(bytes, null, ForkJoinPool.commonPool());
+	}
+
+}
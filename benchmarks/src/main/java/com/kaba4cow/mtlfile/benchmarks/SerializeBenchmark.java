@@ -0,0 +1,71 @@
+package com.kaba4cow.mtlfile.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kaba4cow.mtlfile.MTLLibrary;
+
+/**
+ * Measures the throughput of {@link MTLLibrary#toMTLString()} and of streaming the library to a {@link Writer} with
+ * {@link MTLLibrary#writeTo(Appendable)}. Run with {@code -prof gc} to get the allocated bytes per
+ * operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializeBenchmark {
+
+	@Param({ "SMALL", "TYPICAL", "HUGE" })
+	private MTLCorpus.Size size;
+
+	@Param({ "PLAIN", "MAP_HEAVY", "COMMENT_HEAVY" })
+	private MTLCorpus.Variant variant;
+
+	private MTLLibrary library;
+	private Writer sink;
+
+	@Setup
+	public void setup() throws IOException {
+		library = new MTLLibrary(MTLCorpus.generate(size, variant));
+		sink = new Writer() {
+
+			@Override
+			public void write(char[] buffer, int offset, int length) {}
+
+			@Override
+			public void flush() {}
+
+			@Override
+			public void close() {}
+
+		};
+	}
+
+	@Benchmark
+	public String toMTLString() {
+		return library.toMTLString();
+	}
+
+	@Benchmark
+	public Writer writeTo() throws IOException {
+		library.writeTo(sink);
+		return sink;
+	}
+
+}
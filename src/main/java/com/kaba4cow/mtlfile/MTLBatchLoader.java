@@ -0,0 +1,163 @@
+package com.kaba4cow.mtlfile;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads many MTL files concurrently. At most {@link #getParallelism()} files are parsed at the same time, and a file failing
+ * to load does not abort the others, its failure is reported in the {@link MTLBatchResult} instead.
+ */
+public class MTLBatchLoader {
+
+	private int parallelism;
+	private Executor executor;
+
+	/**
+	 * Creates a batch loader parsing as many files at the same time as there are available processors, on threads of its
+	 * own.
+	 */
+	public MTLBatchLoader() {
+		this.parallelism = Runtime.getRuntime().availableProcessors();
+		this.executor = null;
+	}
+
+	/**
+	 * Returns the maximum number of files parsed at the same time.
+	 *
+	 * @return the maximum number of files parsed at the same time
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the maximum number of files parsed at the same time.
+	 *
+	 * @param parallelism the maximum number of files parsed at the same time
+	 * 
+	 * @return a reference to this object
+	 * 
+	 * @throws IllegalArgumentException if the parallelism is not positive
+	 */
+	public MTLBatchLoader setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive");
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Returns the executor the files are parsed with.
+	 *
+	 * @return the executor, or {@code null} if the loader uses threads of its own
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Sets the executor the files are parsed with. The loader never submits more tasks to it than its parallelism.
+	 *
+	 * @param executor the executor, or {@code null} to use threads of its own
+	 * 
+	 * @return a reference to this object
+	 */
+	public MTLBatchLoader setExecutor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * Loads the MTL files of a directory whose names match the specified glob pattern, such as {@code *.mtl}.
+	 * Subdirectories are not searched.
+	 *
+	 * @param directory the directory containing the files
+	 * @param glob      the glob pattern the file names must match
+	 * 
+	 * @return the result containing the loaded libraries and the failures
+	 * 
+	 * @throws IOException          if the directory cannot be listed
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for the files to load
+	 * 
+	 * @see java.nio.file.FileSystem#getPathMatcher(String)
+	 */
+	public MTLBatchResult load(Path directory, String glob) throws IOException, InterruptedException {
+		Objects.requireNonNull(directory, "Directory must not be null");
+		Objects.requireNonNull(glob, "Glob must not be null");
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+			for (Path file : stream)
+				if (Files.isRegularFile(file))
+					files.add(file);
+		}
+		Collections.sort(files);
+		return load(files);
+	}
+
+	/**
+	 * Loads the specified MTL files. The libraries and failures of the result are ordered the same way as the files.
+	 *
+	 * @param files the files to load
+	 * 
+	 * @return the result containing the loaded libraries and the failures
+	 * 
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for the files to load
+	 */
+	public MTLBatchResult load(Collection<Path> files) throws InterruptedException {
+		Objects.requireNonNull(files, "Files must not be null");
+		List<Path> queue = new ArrayList<>(new LinkedHashSet<>(files));
+		MTLLibrary[] libraries = new MTLLibrary[queue.size()];
+		Exception[] failures = new Exception[queue.size()];
+		AtomicInteger next = new AtomicInteger();
+		int workers = Math.max(1, Math.min(parallelism, queue.size()));
+		CountDownLatch done = new CountDownLatch(workers);
+		Runnable worker = () -> {
+			try {
+				int index;
+				while ((index = next.getAndIncrement()) < libraries.length)
+					try {
+						libraries[index] = MTLParser.parse(queue.get(index), null);
+					} catch (Exception exception) {
+						failures[index] = exception;
+					}
+			} finally {
+				done.countDown();
+			}
+		};
+		ExecutorService pool = Objects.isNull(executor) ? Executors.newFixedThreadPool(workers, runnable -> {
+			Thread thread = new Thread(runnable, "mtl-batch-loader");
+			thread.setDaemon(true);
+			return thread;
+		}) : null;
+		try {
+			for (int i = 0; i < workers; i++)
+				(Objects.isNull(pool) ? executor : pool).execute(worker);
+			done.await();
+		} finally {
+			next.set(libraries.length);
+			if (Objects.nonNull(pool))
+				pool.shutdown();
+		}
+		MTLBatchResult result = new MTLBatchResult();
+		for (int i = 0; i < libraries.length; i++)
+			if (Objects.nonNull(libraries[i]))
+				result.addLibrary(queue.get(i), libraries[i]);
+			else if (Objects.nonNull(failures[i]))
+				result.addFailure(queue.get(i), failures[i]);
+		return result;
+	}
+
+}
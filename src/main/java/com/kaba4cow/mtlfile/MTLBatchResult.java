@@ -0,0 +1,85 @@
+package com.kaba4cow.mtlfile;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Represents the outcome of loading several MTL files with an {@link MTLBatchLoader}: the library of every file that was
+ * loaded and the exception of every file that failed to load.
+ */
+public class MTLBatchResult {
+
+	private final Map<Path, MTLLibrary> libraries;
+	private final Map<Path, Exception> failures;
+
+	MTLBatchResult() {
+		this.libraries = new LinkedHashMap<>();
+		this.failures = new LinkedHashMap<>();
+	}
+
+	void addLibrary(Path file, MTLLibrary library) {
+		libraries.put(file, library);
+	}
+
+	void addFailure(Path file, Exception failure) {
+		failures.put(file, failure);
+	}
+
+	/**
+	 * Retrieves an unmodifiable map of the loaded libraries by their files.
+	 *
+	 * @return an unmodifiable map of the loaded libraries, in the order the files were passed to the loader
+	 */
+	public Map<Path, MTLLibrary> getLibraries() {
+		return Collections.unmodifiableMap(libraries);
+	}
+
+	/**
+	 * Retrieves the library loaded from the specified file.
+	 *
+	 * @param file the file the library was loaded from
+	 * 
+	 * @return the {@link MTLLibrary} loaded from the file, or {@code null} if the file failed to load or was not part of the
+	 *             batch
+	 */
+	public MTLLibrary getLibrary(Path file) {
+		return libraries.get(file);
+	}
+
+	/**
+	 * Retrieves an unmodifiable map of the exceptions thrown while loading files by their files.
+	 *
+	 * @return an unmodifiable map of the failures, in the order the files were passed to the loader
+	 */
+	public Map<Path, Exception> getFailures() {
+		return Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * Checks if any file failed to load.
+	 *
+	 * @return {@code true} if at least one file failed to load, {@code false} otherwise
+	 */
+	public boolean hasFailures() {
+		return !failures.isEmpty();
+	}
+
+	/**
+	 * Merges the loaded libraries into a single catalog.
+	 *
+	 * @return an {@link MTLCatalog} containing every loaded library
+	 */
+	public MTLCatalog toCatalog() {
+		MTLCatalog catalog = new MTLCatalog();
+		libraries.forEach(catalog::addLibrary);
+		return catalog;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MTLBatchResult [libraries=%s, failures=%s]", libraries.keySet(), failures);
+	}
+
+}
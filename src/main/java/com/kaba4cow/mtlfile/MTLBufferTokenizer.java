@@ -0,0 +1,131 @@
+package com.kaba4cow.mtlfile;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * An {@link MTLTokenizer} scanning the bytes of a {@link ByteBuffer} in place, typically one mapping a file into memory.
+ * Keywords, whitespace, line terminators and numbers are ASCII, so the bytes are looked at directly. Only names, comments
+ * and file paths are decoded to strings, as UTF-8.
+ */
+final class MTLBufferTokenizer extends MTLTokenizer {
+
+	private final ByteBuffer buffer;
+	private final byte[] array;
+	private final int offset;
+	private final int start;
+	private final int limit;
+	private byte[] scratch;
+	private int next;
+
+	/**
+	 * Creates a tokenizer scanning the remaining bytes of the specified {@link ByteBuffer}. The position of the buffer is not
+	 * changed.
+	 *
+	 * @param buffer the buffer containing the MTL data
+	 */
+	MTLBufferTokenizer(ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.array = buffer.hasArray() ? buffer.array() : null;
+		this.offset = buffer.hasArray() ? buffer.arrayOffset() : 0;
+		this.start = buffer.position();
+		this.limit = buffer.limit();
+		this.scratch = null;
+		this.next = buffer.position();
+	}
+
+	/**
+	 * Creates a tokenizer scanning the remaining bytes of the specified {@link ByteBuffer}, numbering its lines after the
+	 * specified number of lines preceding them. The position of the buffer is not changed.
+	 *
+	 * @param buffer the buffer containing the MTL data
+	 * @param line   the number of lines preceding the remaining bytes
+	 */
+	MTLBufferTokenizer(ByteBuffer buffer, int line) {
+		this(buffer);
+		this.line = line;
+	}
+
+	@Override
+	boolean nextLine() {
+		if (next == limit)
+			return false;
+		int index = next;
+		while (index < limit) {
+			char c = charAt(index);
+			if (c == '\n' || c == '\r')
+				break;
+			index++;
+		}
+		position = next;
+		lineEnd = index;
+		startLine();
+		if (index < limit && charAt(index) == '\r' && index + 1 < limit && charAt(index + 1) == '\n')
+			index++;
+		next = index < limit ? index + 1 : limit;
+		return true;
+	}
+
+	@Override
+	long consumed() {
+		return next - start;
+	}
+
+	/**
+	 * Finds the first line starting at or after the specified index that is a {@code newmtl} statement the parser would
+	 * accept, and makes the tokenizer continue right after it. Lines the tokenizer has already passed are not looked at
+	 * again.
+	 *
+	 * @param from the index to start looking at
+	 *
+	 * @return the index the found line starts at, or the limit of the buffer if there is none
+	 */
+	int findMaterial(int from) {
+		int index = from;
+		if (index <= next)
+			index = next;
+		else
+			while (index < limit && !isLineStart(index))
+				index++;
+		next = index;
+		while (nextLine()) {
+			int start = position;
+			if (nextToken() && keyword() == MTLKeyword.NEW_MATERIAL && hasMoreTokens())
+				return start;
+		}
+		return limit;
+	}
+
+	private boolean isLineStart(int index) {
+		char previous = charAt(index - 1);
+		if (previous == '\r')
+			return charAt(index) != '\n';
+		return previous == '\n';
+	}
+
+	@Override
+	String string(int start, int end) {
+		int length = end - start;
+		if (Objects.nonNull(array))
+			return new String(array, offset + start, length, StandardCharsets.UTF_8);
+		if (Objects.isNull(scratch) || scratch.length < length)
+			scratch = new byte[Math.max(length, 256)];
+		for (int i = 0; i < length; i++)
+			scratch[i] = buffer.get(start + i);
+		return new String(scratch, 0, length, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public int length() {
+		return limit;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (Objects.nonNull(array))
+			return (char) (array[offset + index] & 0xFF);
+		return (char) (buffer.get(index) & 0xFF);
+	}
+
+}
@@ -0,0 +1,121 @@
+package com.kaba4cow.mtlfile;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * Represents the materials of several MTL files, identified by the file they come from and their name.
+ */
+public class MTLCatalog {
+
+	private final Map<Path, MTLLibrary> libraries;
+
+	/**
+	 * Creates an empty catalog.
+	 */
+	public MTLCatalog() {
+		this.libraries = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Adds the library of a file to the catalog, replacing the library previously added for the same file.
+	 *
+	 * @param file    the file the library comes from
+	 * @param library the library to add
+	 * 
+	 * @return a reference to this object
+	 */
+	public MTLCatalog addLibrary(Path file, MTLLibrary library) {
+		Objects.requireNonNull(file, "File must not be null");
+		Objects.requireNonNull(library, "Library must not be null");
+		libraries.put(file, library);
+		return this;
+	}
+
+	/**
+	 * Removes the library of a file from the catalog.
+	 *
+	 * @param file the file the library comes from
+	 * 
+	 * @return a reference to this object
+	 */
+	public MTLCatalog removeLibrary(Path file) {
+		libraries.remove(file);
+		return this;
+	}
+
+	/**
+	 * Retrieves the library of a file.
+	 *
+	 * @param file the file the library comes from
+	 * 
+	 * @return the {@link MTLLibrary} of the file, or {@code null} if not found
+	 */
+	public MTLLibrary getLibrary(Path file) {
+		return libraries.get(file);
+	}
+
+	/**
+	 * Retrieves an unmodifiable list of the files in the catalog.
+	 *
+	 * @return an unmodifiable list of the files, in the order their libraries were added
+	 */
+	public List<Path> getFiles() {
+		return Collections.unmodifiableList(new ArrayList<>(libraries.keySet()));
+	}
+
+	/**
+	 * Retrieves a material by the file it comes from and its name.
+	 *
+	 * @param file the file the material comes from
+	 * @param name the name of the material
+	 * 
+	 * @return the {@link MTLMaterial} with the specified name in the library of the file, or {@code null} if not found
+	 */
+	public MTLMaterial getMaterial(Path file, String name) {
+		MTLLibrary library = libraries.get(file);
+		return Objects.isNull(library) ? null : library.getMaterial(name);
+	}
+
+	/**
+	 * Retrieves all materials with the specified name, whatever file they come from.
+	 *
+	 * @param name the name of the materials
+	 * 
+	 * @return a map of the materials with the specified name by the file they come from
+	 */
+	public Map<Path, MTLMaterial> findMaterials(String name) {
+		Map<Path, MTLMaterial> materials = new LinkedHashMap<>();
+		libraries.forEach((file, library) -> {
+			MTLMaterial material = library.getMaterial(name);
+			if (Objects.nonNull(material))
+				materials.put(file, material);
+		});
+		return materials;
+	}
+
+	/**
+	 * Counts the materials of all libraries in the catalog.
+	 *
+	 * @return the number of materials in the catalog
+	 */
+	public int countMaterials() {
+		int count = 0;
+		for (MTLLibrary library : libraries.values())
+			count += library.getMaterials().size();
+		return count;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MTLCatalog [files=%s]", libraries.keySet());
+	}
+
+}
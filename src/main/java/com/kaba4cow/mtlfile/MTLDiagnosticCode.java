@@ -0,0 +1,30 @@
+package com.kaba4cow.mtlfile;
+
+/**
+ * Represents an enumeration of the problems reported by the lenient parse mode of {@link MTLParser}, with their
+ * descriptions.
+ */
+public enum MTLDiagnosticCode {
+
+	INVALID_NUMBER("Value is not a valid number"), //
+	MISSING_VALUE("Statement or option is missing a value"), //
+	INVALID_ILLUMINATION("Illumination model is out of range"), //
+	MISSING_MAP_FILE("Map statement has no file"), //
+	STATEMENT_OUTSIDE_MATERIAL("Material statement appears before any newmtl statement"); //
+
+	private final String description;
+
+	private MTLDiagnosticCode(String description) {
+		this.description = description;
+	}
+
+	/**
+	 * Returns the description of the problem.
+	 * 
+	 * @return the description of the problem
+	 */
+	public String description() {
+		return description;
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.kaba4cow.mtlfile;
+
+import java.util.Arrays;
+
+/**
+ * Collects the problems found by the lenient parse mode of {@link MTLParser}. Every diagnostic is a line, a column and a
+ * {@link MTLDiagnosticCode}, packed together in a single {@code int[]}, so that even dirty files with many problems are
+ * cheap to report. Lines and columns are 1-based; columns count characters when the data is read from a
+ * {@link java.io.Reader} or a string, and bytes when it is read from a file or a {@link java.nio.ByteBuffer}.
+ * <p>
+ * Instances are not safe to use from several threads at once.
+ */
+public final class MTLDiagnostics {
+
+	private static final MTLDiagnosticCode[] CODES = MTLDiagnosticCode.values();
+
+	private int[] entries;
+	private int size;
+
+	/**
+	 * Creates an empty collection of diagnostics.
+	 */
+	public MTLDiagnostics() {
+		this.entries = new int[0];
+		this.size = 0;
+	}
+
+	/**
+	 * Returns the number of diagnostics.
+	 *
+	 * @return the number of diagnostics
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if there are no diagnostics.
+	 *
+	 * @return {@code true} if no problem was found, {@code false} otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the line of a diagnostic.
+	 *
+	 * @param index the index of the diagnostic
+	 *
+	 * @return the 1-based line
+	 *
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public int getLine(int index) {
+		return entries[entry(index)];
+	}
+
+	/**
+	 * Returns the column of a diagnostic.
+	 *
+	 * @param index the index of the diagnostic
+	 *
+	 * @return the 1-based column
+	 *
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public int getColumn(int index) {
+		return entries[entry(index) + 1];
+	}
+
+	/**
+	 * Returns the code of a diagnostic.
+	 *
+	 * @param index the index of the diagnostic
+	 *
+	 * @return the code describing the problem
+	 *
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public MTLDiagnosticCode getCode(int index) {
+		return CODES[entries[entry(index) + 2]];
+	}
+
+	/**
+	 * Counts the diagnostics with the specified code.
+	 *
+	 * @param code the code to count
+	 *
+	 * @return the number of diagnostics with the code
+	 */
+	public int count(MTLDiagnosticCode code) {
+		int count = 0;
+		for (int i = 0; i < size; i++)
+			if (entries[3 * i + 2] == code.ordinal())
+				count++;
+		return count;
+	}
+
+	/**
+	 * Removes all diagnostics.
+	 *
+	 * @return a reference to this object
+	 */
+	public MTLDiagnostics clear() {
+		size = 0;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("MTLDiagnostics [");
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				builder.append(", ");
+			builder.append(getLine(i)).append(':').append(getColumn(i)).append(' ').append(getCode(i));
+		}
+		return builder.append(']').toString();
+	}
+
+	void add(int line, int column, MTLDiagnosticCode code) {
+		if (3 * size == entries.length)
+			entries = Arrays.copyOf(entries, Math.max(3 * 16, 2 * entries.length));
+		entries[3 * size] = line;
+		entries[3 * size + 1] = column;
+		entries[3 * size + 2] = code.ordinal();
+		size++;
+	}
+
+	private int entry(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		return 3 * index;
+	}
+
+}
@@ -1,16 +1,54 @@
 package com.kaba4cow.mtlfile;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
- * Represents a generic element in an MTL file. Each implementing class defines how to convert the element to its MTL string
+ * Represents a generic element in an MTL file. Each implementing class defines how to write the element in its MTL
  * representation.
  */
 public interface MTLElement {
 
+	/**
+	 * Writes the MTL representation of this element to the specified {@link MTLWriter}.
+	 *
+	 * @param writer the writer to write the element to
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeTo(MTLWriter writer) throws IOException;
+
+	/**
+	 * Writes the MTL representation of this element to the specified {@link Appendable}, such as a {@link java.io.Writer} or
+	 * a {@link StringBuilder}, without building it as a string first. To write to an {@link java.io.OutputStream} wrap it
+	 * into an {@link MTLWriter}.
+	 *
+	 * @param target the appendable to write the element to
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	public default void writeTo(Appendable target) throws IOException {
+		MTLWriter writer = MTLWriter.of(target);
+		writeTo(writer);
+		if (writer != target) {
+			writer.flush();
+			writer.report();
+		}
+	}
+
 	/**
 	 * Converts this element to its MTL string representation.
 	 *
 	 * @return the MTL string representation of this element
 	 */
-	public String toMTLString();
+	public default String toMTLString() {
+		StringBuilder builder = new StringBuilder();
+		try {
+			writeTo(builder);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+		return builder.toString();
+	}
 
 }
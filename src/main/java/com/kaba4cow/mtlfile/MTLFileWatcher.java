@@ -0,0 +1,408 @@
+package com.kaba4cow.mtlfile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * Watches directories of MTL files and reloads the files when they change. Changes are detected with a
+ * {@link WatchService}; a burst of writes to a file is collapsed into a single reload performed once the file has not
+ * changed for the {@link #setDebounce(Duration) debounce} period. Files are reloaded with an {@link MTLIncrementalParser},
+ * so only the edited {@code newmtl} blocks are parsed, off the watching thread, and every reload is reported to the
+ * {@link MTLReloadListener listeners} with the materials it added, removed or changed.
+ * <p>
+ * The libraries handed out by the watcher are frozen snapshots, safe to read from any thread; a reload publishes a new
+ * snapshot instead of modifying the previous one. Subdirectories are not watched.
+ */
+public class MTLFileWatcher implements Closeable {
+
+	private final Map<WatchKey, Directory> directories;
+	private final Map<Path, FileState> files;
+	private final List<MTLReloadListener> listeners;
+	private volatile long debounce;
+	private volatile Executor executor;
+	private WatchService service;
+	private ExecutorService pool;
+	private Thread thread;
+	private volatile boolean closed;
+
+	/**
+	 * Creates a watcher with a debounce period of 200 milliseconds reloading files on a thread of its own.
+	 */
+	public MTLFileWatcher() {
+		this.directories = new ConcurrentHashMap<>();
+		this.files = new ConcurrentHashMap<>();
+		this.listeners = new CopyOnWriteArrayList<>();
+		this.debounce = TimeUnit.MILLISECONDS.toNanos(200L);
+		this.executor = null;
+		this.service = null;
+		this.pool = null;
+		this.thread = null;
+		this.closed = false;
+	}
+
+	/**
+	 * Returns the time a file must stay unchanged before it is reloaded.
+	 *
+	 * @return the debounce period
+	 */
+	public Duration getDebounce() {
+		return Duration.ofNanos(debounce);
+	}
+
+	/**
+	 * Sets the time a file must stay unchanged before it is reloaded.
+	 *
+	 * @param debounce the debounce period
+	 *
+	 * @return a reference to this object
+	 *
+	 * @throws IllegalArgumentException if the debounce period is negative
+	 */
+	public MTLFileWatcher setDebounce(Duration debounce) {
+		Objects.requireNonNull(debounce, "Debounce must not be null");
+		if (debounce.isNegative())
+			throw new IllegalArgumentException("Debounce must not be negative");
+		this.debounce = debounce.toNanos();
+		return this;
+	}
+
+	/**
+	 * Returns the executor the files are reloaded with.
+	 *
+	 * @return the executor, or {@code null} if the watcher uses a thread of its own
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Sets the executor the files are reloaded with.
+	 *
+	 * @param executor the executor, or {@code null} to use a thread of its own
+	 *
+	 * @return a reference to this object
+	 */
+	public MTLFileWatcher setExecutor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * Adds a listener to be notified of reloads.
+	 *
+	 * @param listener the listener to add
+	 *
+	 * @return a reference to this object
+	 */
+	public MTLFileWatcher addListener(MTLReloadListener listener) {
+		Objects.requireNonNull(listener, "Listener must not be null");
+		listeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * Removes a listener.
+	 *
+	 * @param listener the listener to remove
+	 *
+	 * @return a reference to this object
+	 */
+	public MTLFileWatcher removeListener(MTLReloadListener listener) {
+		listeners.remove(listener);
+		return this;
+	}
+
+	/**
+	 * Starts watching the MTL files of a directory whose names match the specified glob pattern, such as {@code *.mtl}.
+	 * The files already in the directory are loaded on the calling thread before this method returns, and reported to the
+	 * listeners as loaded.
+	 *
+	 * @param directory the directory containing the files
+	 * @param glob      the glob pattern the file names must match
+	 *
+	 * @return a reference to this object
+	 *
+	 * @throws IOException           if the directory cannot be watched or listed
+	 * @throws IllegalStateException if the watcher is closed
+	 *
+	 * @see java.nio.file.FileSystem#getPathMatcher(String)
+	 */
+	public MTLFileWatcher watch(Path directory, String glob) throws IOException {
+		Objects.requireNonNull(directory, "Directory must not be null");
+		Objects.requireNonNull(glob, "Glob must not be null");
+		Directory watched = new Directory(directory, directory.getFileSystem().getPathMatcher("glob:" + glob));
+		synchronized (this) {
+			if (closed)
+				throw new IllegalStateException("Watcher is closed");
+			if (Objects.isNull(service))
+				service = directory.getFileSystem().newWatchService();
+			WatchKey key = directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+			directories.put(key, watched);
+			if (Objects.isNull(thread)) {
+				thread = new Thread(this::run, "mtl-file-watcher");
+				thread.setDaemon(true);
+				thread.start();
+			}
+		}
+		for (Path file : list(watched))
+			reload(file);
+		return this;
+	}
+
+	/**
+	 * Stops watching a directory and forgets the libraries of its files, without notifying the listeners.
+	 *
+	 * @param directory the directory to stop watching
+	 *
+	 * @return a reference to this object
+	 */
+	public MTLFileWatcher unwatch(Path directory) {
+		Iterator<Map.Entry<WatchKey, Directory>> iterator = directories.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<WatchKey, Directory> entry = iterator.next();
+			if (entry.getValue().path.equals(directory)) {
+				entry.getKey().cancel();
+				iterator.remove();
+			}
+		}
+		files.keySet().removeIf(file -> directory.equals(file.getParent()));
+		return this;
+	}
+
+	/**
+	 * Retrieves the library of a watched file.
+	 *
+	 * @param file the path of the file
+	 *
+	 * @return the frozen library of the file, or {@code null} if the file is not loaded
+	 */
+	public MTLLibrary getLibrary(Path file) {
+		FileState state = files.get(file);
+		return Objects.isNull(state) ? null : state.library;
+	}
+
+	/**
+	 * Retrieves the libraries of all watched files.
+	 *
+	 * @return an unmodifiable map of the frozen libraries by their files
+	 */
+	public Map<Path, MTLLibrary> getLibraries() {
+		Map<Path, MTLLibrary> libraries = new HashMap<>();
+		for (Map.Entry<Path, FileState> entry : files.entrySet()) {
+			MTLLibrary library = entry.getValue().library;
+			if (Objects.nonNull(library))
+				libraries.put(entry.getKey(), library);
+		}
+		return Collections.unmodifiableMap(libraries);
+	}
+
+	/**
+	 * Stops watching all directories. Reloads already in progress complete, pending ones are dropped.
+	 *
+	 * @throws IOException if the watch service cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (closed)
+				return;
+			closed = true;
+			if (Objects.nonNull(pool))
+				pool.shutdown();
+			if (Objects.nonNull(service))
+				service.close();
+		}
+	}
+
+	private void run() {
+		Map<Path, Long> pending = new LinkedHashMap<>();
+		try {
+			while (!closed) {
+				long now = System.nanoTime();
+				long wait = Long.MAX_VALUE;
+				Iterator<Map.Entry<Path, Long>> iterator = pending.entrySet().iterator();
+				while (iterator.hasNext()) {
+					Map.Entry<Path, Long> entry = iterator.next();
+					long remaining = entry.getValue() - now;
+					if (remaining <= 0L) {
+						iterator.remove();
+						schedule(entry.getKey());
+					} else
+						wait = Math.min(wait, remaining);
+				}
+				WatchKey key = wait == Long.MAX_VALUE ? service.take() : service.poll(wait, TimeUnit.NANOSECONDS);
+				if (Objects.isNull(key))
+					continue;
+				Directory directory = directories.get(key);
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (Objects.isNull(directory))
+						continue;
+					long deadline = System.nanoTime() + debounce;
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						try {
+							for (Path file : list(directory))
+								pending.put(file, deadline);
+						} catch (IOException ignored) {}
+						for (Path file : files.keySet())
+							if (directory.path.equals(file.getParent()))
+								pending.put(file, deadline);
+					} else {
+						Path file = directory.path.resolve((Path) event.context());
+						if (directory.matcher.matches(file.getFileName()))
+							pending.put(file, deadline);
+					}
+				}
+				key.reset();
+			}
+		} catch (ClosedWatchServiceException | InterruptedException ignored) {}
+	}
+
+	/**
+	 * Schedules a reload of the specified file. A reload rejected by the executor while the watcher is open is reported to
+	 * the listeners as failed, so the watching thread keeps running.
+	 */
+	private void schedule(Path file) {
+		try {
+			executor().execute(() -> reload(file));
+		} catch (RejectedExecutionException exception) {
+			if (!closed)
+				fail(file, exception);
+		}
+	}
+
+	private synchronized Executor executor() {
+		if (Objects.nonNull(executor))
+			return executor;
+		if (Objects.isNull(pool))
+			pool = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "mtl-file-reloader");
+				thread.setDaemon(true);
+				return thread;
+			});
+		return pool;
+	}
+
+	/**
+	 * Reloads the specified file and notifies the listeners. Reloads of the same file are serialized by its state. Files of
+	 * directories no longer watched are skipped, since their reloads may still be pending when the directory is unwatched.
+	 */
+	private void reload(Path file) {
+		if (!isWatched(file))
+			return;
+		FileState state = files.computeIfAbsent(file, key -> new FileState());
+		synchronized (state) {
+			MTLReloadEvent event;
+			try {
+				if (!Files.isRegularFile(file)) {
+					files.remove(file, state);
+					if (Objects.isNull(state.library))
+						return;
+					List<MTLMaterial> removed = new ArrayList<>(state.library.getMaterials());
+					MTLLibraryChanges changes = new MTLLibraryChanges(new ArrayList<>(), removed, new ArrayList<>(),
+							!state.library.getComments().isEmpty(), 0);
+					state.library = null;
+					event = new MTLReloadEvent(file, null, changes);
+				} else {
+					MTLLibraryChanges changes = state.parser.update(file);
+					if (Objects.nonNull(state.library) && !changes.hasChanges())
+						return;
+					state.library = state.parser.getLibrary().snapshot();
+					event = new MTLReloadEvent(file, state.library, changes);
+				}
+			} catch (IOException | RuntimeException exception) {
+				fail(file, exception);
+				return;
+			}
+			if (!isWatched(file)) {
+				files.remove(file, state);
+				return;
+			}
+			for (MTLReloadListener listener : listeners)
+				try {
+					listener.onReload(event);
+				} catch (RuntimeException ignored) {}
+		}
+	}
+
+	/**
+	 * Notifies the listeners of a failed reload. A listener throwing an exception does not keep the others from being
+	 * notified.
+	 */
+	private void fail(Path file, Exception exception) {
+		for (MTLReloadListener listener : listeners)
+			try {
+				listener.onReloadFailed(file, exception);
+			} catch (RuntimeException ignored) {}
+	}
+
+	private boolean isWatched(Path file) {
+		for (Directory directory : directories.values())
+			if (directory.path.equals(file.getParent()))
+				return true;
+		return false;
+	}
+
+	private static List<Path> list(Directory directory) throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.path,
+				file -> directory.matcher.matches(file.getFileName()) && Files.isRegularFile(file))) {
+			for (Path file : stream)
+				files.add(file);
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	private static final class Directory {
+
+		private final Path path;
+		private final PathMatcher matcher;
+
+		private Directory(Path path, PathMatcher matcher) {
+			this.path = path;
+			this.matcher = matcher;
+		}
+
+	}
+
+	private static final class FileState {
+
+		private final MTLIncrementalParser parser;
+		private volatile MTLLibrary library;
+
+		private FileState() {
+			this.parser = new MTLIncrementalParser();
+			this.library = null;
+		}
+
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.kaba4cow.mtlfile;
+
+import java.util.Objects;
+
+/**
+ * Computes 64-bit content fingerprints of MTL elements. A fingerprint is built by mixing the values of an element into an
+ * {@link #INITIAL initial} hash one after another, then {@link #finish(long) finishing} it. It depends only on the mixed
+ * values, never on identities or on the JVM, so it can be stored or sent along with the data and compared in another run.
+ * <p>
+ * Different contents produce different fingerprints with a very high probability but not with certainty, so equal
+ * fingerprints should be confirmed with {@code equals} where a collision would matter.
+ */
+public final class MTLFingerprint {
+
+	/**
+	 * The hash to start mixing values into.
+	 */
+	public static final long INITIAL = 0x6a09e667f3bcc908L;
+
+	private static final long NULL = 0x510e527fade682d1L;
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private MTLFingerprint() {}
+
+	/**
+	 * Mixes a value into a hash.
+	 *
+	 * @param hash  the hash
+	 * @param value the value to mix
+	 *
+	 * @return the new hash
+	 */
+	public static long mix(long hash, long value) {
+		return Long.rotateLeft(hash ^ value * 0x87c37b91114253d5L, 31) * 0x4cf5ad432745937fL + 0x52dce729L;
+	}
+
+	/**
+	 * Mixes a value into a hash. All NaN values are mixed alike.
+	 *
+	 * @param hash  the hash
+	 * @param value the value to mix
+	 *
+	 * @return the new hash
+	 */
+	public static long mix(long hash, float value) {
+		return mix(hash, (long) Float.floatToIntBits(value));
+	}
+
+	/**
+	 * Mixes a value into a hash.
+	 *
+	 * @param hash  the hash
+	 * @param value the value to mix
+	 *
+	 * @return the new hash
+	 */
+	public static long mix(long hash, boolean value) {
+		return mix(hash, value ? 1L : 0L);
+	}
+
+	/**
+	 * Mixes a string into a hash. A {@code null} string is mixed differently from an empty one.
+	 *
+	 * @param hash  the hash
+	 * @param value the string to mix, may be {@code null}
+	 *
+	 * @return the new hash
+	 */
+	public static long mix(long hash, String value) {
+		if (Objects.isNull(value))
+			return mix(hash, NULL);
+		long chars = FNV_OFFSET;
+		for (int i = 0; i < value.length(); i++)
+			chars = (chars ^ value.charAt(i)) * FNV_PRIME;
+		return mix(mix(hash, chars), value.length());
+	}
+
+	/**
+	 * Finishes a hash so that every bit of it depends on every mixed value.
+	 *
+	 * @param hash the hash
+	 *
+	 * @return the fingerprint
+	 */
+	public static long finish(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	 * Folds a fingerprint into a hash code.
+	 *
+	 * @param fingerprint the fingerprint
+	 *
+	 * @return the hash code
+	 */
+	public static int hashCode(long fingerprint) {
+		return (int) (fingerprint ^ fingerprint >>> 32);
+	}
+
+}
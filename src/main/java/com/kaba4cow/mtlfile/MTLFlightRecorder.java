@@ -0,0 +1,48 @@
+package com.kaba4cow.mtlfile;
+
+/**
+ * Reports the activity of the library to the JDK Flight Recorder, so that loading materials can be correlated with garbage
+ * collections and I/O in existing recordings. The following events are emitted, all in the {@code MTL} category:
+ * <ul>
+ * <li>{@code com.kaba4cow.mtlfile.Parse} for every parse by {@link MTLParser}, with the file, the bytes and lines read and
+ * the number of materials and comments;</li>
+ * <li>{@code com.kaba4cow.mtlfile.Write} for every {@link MTLElement#toMTLString()} and
+ * {@link MTLElement#writeTo(Appendable)} call and every closed {@link MTLWriter}, with the characters and lines written and
+ * the number of materials and comments;</li>
+ * <li>{@code com.kaba4cow.mtlfile.BinaryFormat} for every library read or written by
+ * {@link com.kaba4cow.mtlfile.compact.MTLBinaryFormat}, with the file, the bytes and the number of materials;</li>
+ * <li>{@code com.kaba4cow.mtlfile.CacheLookup} for every library requested from
+ * {@link com.kaba4cow.mtlfile.cache.MTLLibraryCache} or {@link com.kaba4cow.mtlfile.cache.MTLDiskCache}, with the file,
+ * whether it was found in the cache, the number of materials and the estimated size of the library.</li>
+ * </ul>
+ * The events are disabled unless a recording enables them, and cost a single check per operation then. They are recorded
+ * on Java 11 and later, where the multi-release jar provides event classes built against the {@code jdk.jfr} module.
+ * Older JVMs, and class paths not reading the jar as a multi-release one, get no-op event classes instead. On JVMs without
+ * the module the event classes are never used. In both cases nothing is recorded.
+ */
+public final class MTLFlightRecorder {
+
+	private static final boolean AVAILABLE = isPresent();
+
+	private MTLFlightRecorder() {}
+
+	/**
+	 * Checks if the events of the library can be recorded, that is, if the JVM provides the JDK Flight Recorder API and the
+	 * event classes built against it are used.
+	 *
+	 * @return {@code true} if the events can be recorded, {@code false} otherwise
+	 */
+	public static boolean isAvailable() {
+		return AVAILABLE;
+	}
+
+	private static boolean isPresent() {
+		try {
+			Class.forName("jdk.jfr.Event", false, MTLFlightRecorder.class.getClassLoader());
+			return MTLParseEvent.isRecorded();
+		} catch (ClassNotFoundException | LinkageError exception) {
+			return false;
+		}
+	}
+
+}
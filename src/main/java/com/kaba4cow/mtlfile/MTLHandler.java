@@ -0,0 +1,62 @@
+package com.kaba4cow.mtlfile;
+
+import com.kaba4cow.mtlfile.elements.MTLBumpMap;
+import com.kaba4cow.mtlfile.elements.MTLMap;
+
+/**
+ * Receives the statements of MTL data as they are read by {@link MTLParser#read(java.io.Reader, MTLHandler)}, without
+ * building an {@link MTLLibrary}. Material statements are only reported after the first {@code newmtl} statement and
+ * belong to the material reported by the latest {@link #onNewMaterial(String)} call. All methods do nothing by default, so
+ * implementations only override the ones they are interested in.
+ */
+public interface MTLHandler {
+
+	/**
+	 * Called for a comment statement.
+	 *
+	 * @param text the text of the comment
+	 */
+	public default void onComment(String text) {}
+
+	/**
+	 * Called for a {@code newmtl} statement.
+	 *
+	 * @param name the name of the new material
+	 */
+	public default void onNewMaterial(String name) {}
+
+	/**
+	 * Called for a scalar statement of the current material.
+	 *
+	 * @param keyword either {@link MTLKeyword#TRANSPARENCY} or {@link MTLKeyword#SPECULAR_EXPONENT}
+	 * @param value   the value of the statement
+	 */
+	public default void onScalar(MTLKeyword keyword, float value) {}
+
+	/**
+	 * Called for an {@code illum} statement of the current material.
+	 *
+	 * @param illumination the illumination model
+	 */
+	public default void onIllumination(MTLIllumination illumination) {}
+
+	/**
+	 * Called for a color statement of the current material.
+	 *
+	 * @param keyword one of {@link MTLKeyword#AMBIENT_COLOR}, {@link MTLKeyword#DIFFUSE_COLOR} or
+	 *                    {@link MTLKeyword#SPECULAR_COLOR}
+	 * @param r       the R component of the color
+	 * @param g       the G component of the color
+	 * @param b       the B component of the color
+	 */
+	public default void onColor(MTLKeyword keyword, float r, float g, float b) {}
+
+	/**
+	 * Called for a map statement of the current material.
+	 *
+	 * @param keyword one of the map keywords, for {@link MTLKeyword#BUMP_MAP} the map is an {@link MTLBumpMap}
+	 * @param map     the map, owned by the handler from now on
+	 */
+	public default void onMap(MTLKeyword keyword, MTLMap map) {}
+
+}
@@ -0,0 +1,408 @@
+package com.kaba4cow.mtlfile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.kaba4cow.mtlfile.elements.MTLComment;
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * Keeps an {@link MTLLibrary} up to date with MTL data that is edited over time, such as a file reloaded whenever an artist
+ * saves it. The data is split into blocks at {@code newmtl} statements, the same way
+ * {@link MTLParser#parseParallel(Path, MTLLibrary)} splits it. On every update, blocks whose text did not change keep their
+ * materials and comments, only the other blocks are parsed, and the added, removed and changed materials are reported in an
+ * {@link MTLLibraryChanges}.
+ * <p>
+ * The library of the parser should not be modified directly. Since the materials and comments of unchanged blocks are
+ * reused by later updates, they are frozen, see {@link MTLMaterial#freeze()}; use {@link MTLLibrary#snapshot()} to hand
+ * the current state of the library to other threads cheaply. This class is not thread-safe.
+ */
+public class MTLIncrementalParser {
+
+	private final MTLLibrary library;
+	private final List<Block> blocks;
+	private String text;
+
+	/**
+	 * Creates a parser with an empty library.
+	 */
+	public MTLIncrementalParser() {
+		this.library = new MTLLibrary();
+		this.blocks = new ArrayList<>();
+		this.text = "";
+	}
+
+	/**
+	 * Returns the library kept up to date by the parser. The same library is returned after every update.
+	 *
+	 * @return the library
+	 */
+	public MTLLibrary getLibrary() {
+		return library;
+	}
+
+	/**
+	 * Returns the MTL data of the last update.
+	 *
+	 * @return the MTL data
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Replaces the MTL data with the specified one. Only the part of the data between the common beginning and the common
+	 * end of the previous and the new data is scanned, and only the {@code newmtl} blocks in it not found in the previous
+	 * data are parsed.
+	 *
+	 * @param source the new MTL data
+	 *
+	 * @return the changes made to the library
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	public MTLLibraryChanges update(String source) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		if (blocks.isEmpty())
+			return replace(0, 0, source, 0, source.length());
+		int length = Math.min(text.length(), source.length());
+		int prefix = 0;
+		while (prefix < length && text.charAt(prefix) == source.charAt(prefix))
+			prefix++;
+		int suffix = 0;
+		while (suffix < length - prefix
+				&& text.charAt(text.length() - 1 - suffix) == source.charAt(source.length() - 1 - suffix))
+			suffix++;
+		return update(prefix, text.length() - suffix, source.substring(prefix, source.length() - suffix));
+	}
+
+	/**
+	 * Replaces the MTL data with the UTF-8 encoded contents of the specified file. Only the {@code newmtl} blocks not found
+	 * in the previous data are parsed.
+	 *
+	 * @param source the path of the file to read the new MTL data from
+	 *
+	 * @return the changes made to the library
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	public MTLLibraryChanges update(Path source) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		return update(new String(Files.readAllBytes(source), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Replaces the specified range of characters of the MTL data with the specified text. Only the {@code newmtl} blocks
+	 * overlapping the range and the block before them are looked at, the rest of the data is not scanned again. The block
+	 * before is included so that lines losing their {@code newmtl} statement join the right material.
+	 *
+	 * @param start       the start index of the range, inclusive
+	 * @param end         the end index of the range, exclusive
+	 * @param replacement the text to replace the range with
+	 *
+	 * @return the changes made to the library
+	 *
+	 * @throws IOException               if an I/O error occurs
+	 * @throws IndexOutOfBoundsException if the range is not within the MTL data
+	 */
+	public MTLLibraryChanges update(int start, int end, String replacement) throws IOException {
+		Objects.requireNonNull(replacement, "Replacement must not be null");
+		if (start < 0 || end < start || end > text.length())
+			throw new IndexOutOfBoundsException("Range: " + start + ".." + end + ", Length: " + text.length());
+		String source = new StringBuilder(text.length() - (end - start) + replacement.length())//
+				.append(text, 0, start)//
+				.append(replacement)//
+				.append(text, end, text.length())//
+				.toString();
+		if (blocks.isEmpty())
+			return replace(0, 0, source, 0, source.length());
+		int first = Math.max(0, blockAt(start) - 1);
+		int last = blockAt(end) + 1;
+		int regionEnd = last == blocks.size() ? text.length() : blocks.get(last).start;
+		return replace(first, last, source, blocks.get(first).start, regionEnd + replacement.length() - (end - start));
+	}
+
+	/**
+	 * Replaces the blocks in the specified range with the ones found in the specified range of the new MTL data.
+	 */
+	private MTLLibraryChanges replace(int first, int last, String source, int start, int end) throws IOException {
+		Map<Integer, Deque<Block>> previous = new HashMap<>();
+		for (Block block : blocks.subList(first, last))
+			previous.computeIfAbsent(block.hash, key -> new ArrayDeque<>()).add(block);
+		Set<Block> reused = new HashSet<>();
+		List<Block> replacement = new ArrayList<>();
+		List<Integer> pending = new ArrayList<>();
+		for (int blockStart = start; blockStart < end;) {
+			int blockEnd = nextBlock(source, blockStart, end);
+			int hash = hash(source, blockStart, blockEnd);
+			Block block = find(previous.get(hash), source, blockStart, blockEnd);
+			if (Objects.nonNull(block)) {
+				reused.add(block);
+				block = new Block(blockStart, blockEnd - blockStart, hash, block.material, block.comments);
+			} else {
+				block = new Block(blockStart, blockEnd - blockStart, hash, null, Collections.<MTLComment>emptyList());
+				pending.add(replacement.size());
+			}
+			replacement.add(block);
+			blockStart = blockEnd;
+		}
+		for (int i = 0; i < pending.size();) {
+			int run = i + 1;
+			while (run < pending.size() && pending.get(run) == pending.get(run - 1) + 1)
+				run++;
+			parse(source, replacement, pending.get(i), pending.get(run - 1) + 1);
+			i = run;
+		}
+
+		Map<String, Deque<MTLMaterial>> removed = new LinkedHashMap<>();
+		for (Block block : blocks.subList(first, last))
+			if (!reused.contains(block) && Objects.nonNull(block.material))
+				removed.computeIfAbsent(block.material.getName(), key -> new ArrayDeque<>()).add(block.material);
+		List<MTLMaterial> addedMaterials = new ArrayList<>();
+		List<MTLMaterial> changedMaterials = new ArrayList<>();
+		for (int index : pending) {
+			Block block = replacement.get(index);
+			if (Objects.isNull(block.material))
+				continue;
+			Deque<MTLMaterial> candidates = removed.get(block.material.getName());
+			MTLMaterial equal = Objects.isNull(candidates) ? null : findEqual(candidates, block.material);
+			if (Objects.nonNull(equal))
+				replacement.set(index, new Block(block.start, block.length, block.hash, equal, block.comments));
+			else if (Objects.nonNull(candidates) && Objects.nonNull(candidates.poll()))
+				changedMaterials.add(block.material);
+			else
+				addedMaterials.add(block.material);
+		}
+		List<MTLMaterial> removedMaterials = new ArrayList<>();
+		for (Deque<MTLMaterial> materials : removed.values())
+			removedMaterials.addAll(materials);
+
+		int materialStart = 0;
+		for (Block block : blocks.subList(0, first))
+			if (Objects.nonNull(block.material))
+				materialStart++;
+		int materialEnd = materialStart;
+		boolean comments = false;
+		for (Block block : blocks.subList(first, last)) {
+			if (Objects.nonNull(block.material))
+				materialEnd++;
+			comments |= !block.comments.isEmpty();
+		}
+		List<MTLMaterial> materials = new ArrayList<>(replacement.size());
+		for (Block block : replacement) {
+			if (Objects.nonNull(block.material))
+				materials.add(block.material);
+			comments |= !block.comments.isEmpty();
+		}
+
+		int shift = (end - start) - (last == first ? 0 : blocks.get(last - 1).end() - blocks.get(first).start);
+		blocks.subList(first, last).clear();
+		blocks.addAll(first, replacement);
+		for (int i = first + replacement.size(); i < blocks.size(); i++)
+			blocks.get(i).start += shift;
+		text = source;
+		if (!sameElements(materials, library.getMaterials().subList(materialStart, materialEnd)))
+			library.replaceMaterials(materialStart, materialEnd, materials);
+		boolean commentsChanged = comments && updateComments();
+		return new MTLLibraryChanges(addedMaterials, removedMaterials, changedMaterials, commentsChanged, pending.size());
+	}
+
+	/**
+	 * Refills the comments of the library from the blocks if they differ.
+	 *
+	 * @return {@code true} if the comments changed, {@code false} otherwise
+	 */
+	private boolean updateComments() {
+		List<MTLComment> comments = new ArrayList<>();
+		for (Block block : blocks)
+			comments.addAll(block.comments);
+		if (sameElements(comments, library.getComments()))
+			return false;
+		library.clearComments();
+		for (MTLComment comment : comments)
+			library.addComment(comment);
+		return true;
+	}
+
+	/**
+	 * Returns the index of the block containing the specified character, or of the last block if the character is the end
+	 * of the data.
+	 */
+	private int blockAt(int index) {
+		int low = 0;
+		int high = blocks.size() - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (blocks.get(middle).start <= index)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+		return low;
+	}
+
+	private Block find(Deque<Block> candidates, String source, int start, int end) {
+		if (Objects.isNull(candidates))
+			return null;
+		for (Block block : candidates)
+			if (block.length == end - start && source.regionMatches(start, text, block.start, block.length)) {
+				candidates.remove(block);
+				return block;
+			}
+		return null;
+	}
+
+	/**
+	 * Removes and returns the material equal to the specified one from the candidates, or returns {@code null} if there is
+	 * none.
+	 */
+	private static MTLMaterial findEqual(Deque<MTLMaterial> candidates, MTLMaterial material) {
+		for (MTLMaterial candidate : candidates)
+			if (candidate.equals(material)) {
+				candidates.remove(candidate);
+				return candidate;
+			}
+		return null;
+	}
+
+	/**
+	 * Parses the consecutive blocks in the specified range of the replacement at once and fills in their materials and
+	 * comments. Every block but the first of the data starts with a {@code newmtl} statement, so the materials are read in
+	 * the order of the blocks, and every comment belongs to the block of the material read before it.
+	 */
+	private static void parse(String source, List<Block> replacement, int first, int last) throws IOException {
+		Block head = replacement.get(first);
+		boolean headless = !isMaterial(source, head.start, head.end());
+		MTLLibrary chunk = new MTLLibrary();
+		List<Integer> commentBlocks = new ArrayList<>();
+		MTLParser.read(source.substring(head.start, replacement.get(last - 1).end()), new MTLLibraryBuilder(chunk, null) {
+			@Override
+			public void onComment(String text) {
+				super.onComment(text);
+				commentBlocks.add(chunk.getMaterials().size() - (headless ? 0 : 1));
+			}
+		});
+		chunk.freeze();
+		List<List<MTLComment>> comments = new ArrayList<>(last - first);
+		for (int i = first; i < last; i++)
+			comments.add(Collections.<MTLComment>emptyList());
+		for (int i = 0; i < commentBlocks.size(); i++) {
+			int block = Math.max(0, commentBlocks.get(i));
+			if (comments.get(block).isEmpty())
+				comments.set(block, new ArrayList<>());
+			comments.get(block).add(chunk.getComments().get(i));
+		}
+		for (int i = first; i < last; i++) {
+			Block block = replacement.get(i);
+			int index = i - first - (headless ? 1 : 0);
+			MTLMaterial material = index < 0 ? null : chunk.getMaterial(index);
+			replacement.set(i, new Block(block.start, block.length, block.hash, material, comments.get(i - first)));
+		}
+	}
+
+	/**
+	 * Returns the start of the first line after the one at the specified index starting with a {@code newmtl} statement, or
+	 * the end of the range if there is none.
+	 */
+	private static int nextBlock(String source, int index, int end) {
+		int line = nextLine(source, index, end);
+		while (line < end && !isMaterial(source, line, end))
+			line = nextLine(source, line, end);
+		return line;
+	}
+
+	/**
+	 * Returns the start of the line after the one containing the specified index. Lines are terminated the same way
+	 * {@link MTLTokenizer#nextLine()} terminates them.
+	 */
+	private static int nextLine(String source, int index, int end) {
+		while (index < end) {
+			char c = source.charAt(index++);
+			if (c == '\n')
+				return index;
+			if (c == '\r') {
+				if (index < end && source.charAt(index) == '\n')
+					index++;
+				return index;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Checks if the line at the specified index is a {@code newmtl} statement with a name, the same way the parser decides
+	 * it.
+	 */
+	private static boolean isMaterial(String source, int index, int end) {
+		index = skipWhitespace(source, index, end);
+		int tokenStart = index;
+		while (index < end && source.charAt(index) > ' ')
+			index++;
+		if (MTLKeyword.match(source, tokenStart, index) != MTLKeyword.NEW_MATERIAL)
+			return false;
+		index = skipWhitespace(source, index, end);
+		return index < end && source.charAt(index) > ' ';
+	}
+
+	private static int skipWhitespace(String source, int index, int end) {
+		while (index < end) {
+			char c = source.charAt(index);
+			if (c > ' ' || c == '\n' || c == '\r')
+				break;
+			index++;
+		}
+		return index;
+	}
+
+	private static int hash(String source, int start, int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++)
+			hash = 31 * hash + source.charAt(i);
+		return hash;
+	}
+
+	private static <T> boolean sameElements(List<T> first, List<T> second) {
+		if (first.size() != second.size())
+			return false;
+		for (int i = 0; i < first.size(); i++)
+			if (first.get(i) != second.get(i))
+				return false;
+		return true;
+	}
+
+	private static final class Block {
+
+		private int start;
+		private final int length;
+		private final int hash;
+		private final MTLMaterial material;
+		private final List<MTLComment> comments;
+
+		private Block(int start, int length, int hash, MTLMaterial material, List<MTLComment> comments) {
+			this.start = start;
+			this.length = length;
+			this.hash = hash;
+			this.material = material;
+			this.comments = comments;
+		}
+
+		private int end() {
+			return start + length;
+		}
+
+	}
+
+}
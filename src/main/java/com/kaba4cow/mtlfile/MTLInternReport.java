@@ -0,0 +1,98 @@
+package com.kaba4cow.mtlfile;
+
+/**
+ * An immutable snapshot of the work done by an {@link MTLInterner}: how many colors, maps and strings it was given, how many
+ * distinct ones it kept, and an estimate of the heap memory saved by sharing the duplicates.
+ */
+public final class MTLInternReport {
+
+	private final long colorCount;
+	private final long uniqueColorCount;
+	private final long mapCount;
+	private final long uniqueMapCount;
+	private final long stringCount;
+	private final long uniqueStringCount;
+	private final long savedBytes;
+
+	MTLInternReport(long colorCount, long uniqueColorCount, long mapCount, long uniqueMapCount, long stringCount,
+			long uniqueStringCount, long savedBytes) {
+		this.colorCount = colorCount;
+		this.uniqueColorCount = uniqueColorCount;
+		this.mapCount = mapCount;
+		this.uniqueMapCount = uniqueMapCount;
+		this.stringCount = stringCount;
+		this.uniqueStringCount = uniqueStringCount;
+		this.savedBytes = savedBytes;
+	}
+
+	/**
+	 * Returns the number of colors interned.
+	 *
+	 * @return the number of colors
+	 */
+	public long getColorCount() {
+		return colorCount;
+	}
+
+	/**
+	 * Returns the number of distinct colors kept.
+	 *
+	 * @return the number of distinct colors
+	 */
+	public long getUniqueColorCount() {
+		return uniqueColorCount;
+	}
+
+	/**
+	 * Returns the number of maps interned.
+	 *
+	 * @return the number of maps
+	 */
+	public long getMapCount() {
+		return mapCount;
+	}
+
+	/**
+	 * Returns the number of distinct maps kept.
+	 *
+	 * @return the number of distinct maps
+	 */
+	public long getUniqueMapCount() {
+		return uniqueMapCount;
+	}
+
+	/**
+	 * Returns the number of material names and map file paths interned.
+	 *
+	 * @return the number of strings
+	 */
+	public long getStringCount() {
+		return stringCount;
+	}
+
+	/**
+	 * Returns the number of distinct material names and map file paths kept.
+	 *
+	 * @return the number of distinct strings
+	 */
+	public long getUniqueStringCount() {
+		return uniqueStringCount;
+	}
+
+	/**
+	 * Returns an estimate of the heap memory saved by sharing duplicate colors, maps and strings instead of keeping a
+	 * separate instance of each.
+	 *
+	 * @return the estimated number of bytes saved
+	 */
+	public long getSavedBytes() {
+		return savedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MTLInternReport [colors=%s/%s, maps=%s/%s, strings=%s/%s, savedBytes=%s]", uniqueColorCount,
+				colorCount, uniqueMapCount, mapCount, uniqueStringCount, stringCount, savedBytes);
+	}
+
+}
@@ -0,0 +1,253 @@
+package com.kaba4cow.mtlfile;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.kaba4cow.mtlfile.elements.MTLBumpMap;
+import com.kaba4cow.mtlfile.elements.MTLColor;
+import com.kaba4cow.mtlfile.elements.MTLMap;
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * A pool of shared colors, maps and strings. Exported libraries often repeat the same colors, such as {@code 0 0 0} and
+ * {@code 1 1 1}, and the same texture files across thousands of materials; interning replaces every repeated value with a
+ * single shared instance. Since shared instances must not change, the first instance of every color and map becomes the
+ * canonical one and is frozen, see {@link MTLColor#freeze()}. To change a color or map of a material built with an
+ * interner, set a new one instead of modifying the shared one.
+ * <p>
+ * An interner can be passed to {@link MTLParser#parse(java.nio.file.Path, MTLLibrary, MTLInterner)} and its overloads to
+ * intern values while parsing, or applied to an existing library with {@link #dedupe(MTLLibrary)}. It is safe to use from
+ * several threads, so one interner can be shared by all libraries of an application.
+ */
+public class MTLInterner {
+
+	private static final long OBJECT_HEADER = 16L;
+	private static final long COLOR_SIZE = OBJECT_HEADER + 16L;
+	private static final long MAP_SIZE = OBJECT_HEADER + 24L;
+	private static final long BUMP_MAP_SIZE = MAP_SIZE + 8L;
+	private static final long STRING_SIZE = OBJECT_HEADER + 8L + OBJECT_HEADER;
+
+	private final ConcurrentMap<ColorKey, MTLColor> colors;
+	private final ConcurrentMap<MapKey, MTLMap> maps;
+	private final ConcurrentMap<String, String> strings;
+
+	private final AtomicLong colorCount;
+	private final AtomicLong mapCount;
+	private final AtomicLong stringCount;
+	private final AtomicLong savedBytes;
+
+	/**
+	 * Creates an empty interner.
+	 */
+	public MTLInterner() {
+		this.colors = new ConcurrentHashMap<>();
+		this.maps = new ConcurrentHashMap<>();
+		this.strings = new ConcurrentHashMap<>();
+		this.colorCount = new AtomicLong();
+		this.mapCount = new AtomicLong();
+		this.stringCount = new AtomicLong();
+		this.savedBytes = new AtomicLong();
+	}
+
+	/**
+	 * Returns the shared instance of the specified color.
+	 *
+	 * @param color the color to intern
+	 *
+	 * @return the frozen shared color with the same components, or {@code null} if the color is {@code null}
+	 */
+	public MTLColor intern(MTLColor color) {
+		if (Objects.isNull(color))
+			return null;
+		colorCount.incrementAndGet();
+		MTLColor shared = colors.computeIfAbsent(new ColorKey(color), key -> color.freeze());
+		if (shared != color)
+			savedBytes.addAndGet(COLOR_SIZE);
+		return shared;
+	}
+
+	/**
+	 * Returns the shared instance of the specified map. The map file path is interned as well.
+	 *
+	 * @param map the map to intern
+	 *
+	 * @return the frozen shared map with the same file and options, or {@code null} if the map is {@code null}
+	 */
+	public MTLMap intern(MTLMap map) {
+		if (Objects.isNull(map))
+			return null;
+		mapCount.incrementAndGet();
+		MTLMap shared = maps.computeIfAbsent(new MapKey(map), key -> {
+			String file = intern(map.getFile());
+			if (file != map.getFile() && !map.isFrozen())
+				map.setFile(file);
+			return map.freeze();
+		});
+		if (shared != map)
+			savedBytes.addAndGet(map instanceof MTLBumpMap ? BUMP_MAP_SIZE : MAP_SIZE);
+		return shared;
+	}
+
+	/**
+	 * Returns the shared instance of the specified bump map. The map file path is interned as well.
+	 *
+	 * @param map the bump map to intern
+	 *
+	 * @return the frozen shared bump map with the same file and options, or {@code null} if the map is {@code null}
+	 */
+	public MTLBumpMap intern(MTLBumpMap map) {
+		return (MTLBumpMap) intern((MTLMap) map);
+	}
+
+	/**
+	 * Returns the shared instance of the specified string, such as a material name or a map file path.
+	 *
+	 * @param string the string to intern
+	 *
+	 * @return the shared string equal to the specified one, or {@code null} if the string is {@code null}
+	 */
+	public String intern(String string) {
+		if (Objects.isNull(string))
+			return null;
+		stringCount.incrementAndGet();
+		String shared = strings.putIfAbsent(string, string);
+		if (Objects.isNull(shared))
+			return string;
+		if (shared != string)
+			savedBytes.addAndGet(STRING_SIZE + string.length());
+		return shared;
+	}
+
+	/**
+	 * Replaces the colors, maps and names of all materials of the specified library with their shared instances. The
+	 * library and its materials must not be frozen.
+	 *
+	 * @param library the library to deduplicate
+	 *
+	 * @return a report of the values interned by this call
+	 *
+	 * @throws UnsupportedOperationException if the library or one of its materials is frozen
+	 */
+	public MTLInternReport dedupe(MTLLibrary library) {
+		Objects.requireNonNull(library, "Library must not be null");
+		MTLInternReport before = getReport();
+		for (MTLMaterial material : library.getMaterials())
+			material//
+					.setName(intern(material.getName()))//
+					.setAmbientColor(intern(material.getAmbientColor()))//
+					.setDiffuseColor(intern(material.getDiffuseColor()))//
+					.setSpecularColor(intern(material.getSpecularColor()))//
+					.setAmbientMap(intern(material.getAmbientMap()))//
+					.setDiffuseMap(intern(material.getDiffuseMap()))//
+					.setSpecularMap(intern(material.getSpecularMap()))//
+					.setTransparencyMap(intern(material.getTransparencyMap()))//
+					.setBumpMap(intern(material.getBumpMap()));
+		MTLInternReport after = getReport();
+		return new MTLInternReport(//
+				after.getColorCount() - before.getColorCount(), //
+				after.getUniqueColorCount(), //
+				after.getMapCount() - before.getMapCount(), //
+				after.getUniqueMapCount(), //
+				after.getStringCount() - before.getStringCount(), //
+				after.getUniqueStringCount(), //
+				after.getSavedBytes() - before.getSavedBytes());
+	}
+
+	/**
+	 * Returns a report of all values interned so far.
+	 *
+	 * @return the intern report
+	 */
+	public MTLInternReport getReport() {
+		return new MTLInternReport(colorCount.get(), colors.size(), mapCount.get(), maps.size(), stringCount.get(),
+				strings.size(), savedBytes.get());
+	}
+
+	/**
+	 * Removes all shared instances and resets the statistics. Values interned before remain frozen.
+	 */
+	public void clear() {
+		colors.clear();
+		maps.clear();
+		strings.clear();
+		colorCount.set(0L);
+		mapCount.set(0L);
+		stringCount.set(0L);
+		savedBytes.set(0L);
+	}
+
+	private static final class ColorKey {
+
+		private final int r;
+		private final int g;
+		private final int b;
+
+		private ColorKey(MTLColor color) {
+			this.r = Float.floatToIntBits(color.getR());
+			this.g = Float.floatToIntBits(color.getG());
+			this.b = Float.floatToIntBits(color.getB());
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * r + g) + b;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object)
+				return true;
+			if (!(object instanceof ColorKey))
+				return false;
+			ColorKey other = (ColorKey) object;
+			return r == other.r && g == other.g && b == other.b;
+		}
+
+	}
+
+	private static final class MapKey {
+
+		private final boolean bump;
+		private final String file;
+		private final int scale;
+		private final int offset;
+		private final int intensity;
+		private final int options;
+
+		private MapKey(MTLMap map) {
+			this.bump = map instanceof MTLBumpMap;
+			this.file = map.getFile();
+			this.scale = map.hasScale() ? Float.floatToIntBits(map.getScale()) : 0;
+			this.offset = map.hasOffset() ? Float.floatToIntBits(map.getOffset()) : 0;
+			MTLBumpMap bumpMap = bump ? (MTLBumpMap) map : null;
+			this.intensity = bump && bumpMap.hasIntensity() ? Float.floatToIntBits(bumpMap.getIntensity()) : 0;
+			this.options = (map.hasScale() ? 1 : 0) | (map.hasOffset() ? 2 : 0) | (map.hasTransform() ? 4 : 0)
+					| (bump && bumpMap.hasIntensity() ? 8 : 0);
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = Objects.hashCode(file);
+			hash = 31 * hash + scale;
+			hash = 31 * hash + offset;
+			hash = 31 * hash + intensity;
+			hash = 31 * hash + options;
+			return bump ? ~hash : hash;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object)
+				return true;
+			if (!(object instanceof MapKey))
+				return false;
+			MapKey other = (MapKey) object;
+			return bump == other.bump && scale == other.scale && offset == other.offset && intensity == other.intensity
+					&& options == other.options && Objects.equals(file, other.file);
+		}
+
+	}
+
+}
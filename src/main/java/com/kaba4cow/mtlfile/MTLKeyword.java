@@ -0,0 +1,66 @@
+package com.kaba4cow.mtlfile;
+
+/**
+ * Represents the statement keywords recognized by {@link MTLParser}. Some statements can be written using several keywords,
+ * e.g. {@code d} and {@code Tr}.
+ */
+public enum MTLKeyword {
+
+	COMMENT("#"), //
+	NEW_MATERIAL("newmtl"), //
+	TRANSPARENCY("d", "Tr"), //
+	SPECULAR_EXPONENT("Ns"), //
+	ILLUMINATION("illum"), //
+	AMBIENT_COLOR("Ka"), //
+	DIFFUSE_COLOR("Kd"), //
+	SPECULAR_COLOR("Ks"), //
+	AMBIENT_MAP("map_Ka"), //
+	DIFFUSE_MAP("map_Kd"), //
+	SPECULAR_MAP("map_Ks"), //
+	TRANSPARENCY_MAP("map_d"), //
+	BUMP_MAP("map_Bump", "bump"); //
+
+	private static final MTLKeyword[] VALUES = values();
+
+	private final String[] keywords;
+
+	private MTLKeyword(String... keywords) {
+		this.keywords = keywords;
+	}
+
+	/**
+	 * Returns the keyword the statement is written with, the first one if there are several.
+	 *
+	 * @return the keyword
+	 */
+	String getKeyword() {
+		return keywords[0];
+	}
+
+	/**
+	 * Finds the statement whose keyword matches the specified range of characters without creating any intermediate
+	 * strings.
+	 *
+	 * @param chars the characters to look at
+	 * @param start the start index of the range, inclusive
+	 * @param end   the end index of the range, exclusive
+	 *
+	 * @return the matching statement, or {@code null} if the keyword is not recognized
+	 */
+	static MTLKeyword match(CharSequence chars, int start, int end) {
+		int length = end - start;
+		for (MTLKeyword value : VALUES)
+			for (String keyword : value.keywords)
+				if (keyword.length() == length && regionMatches(keyword, chars, start))
+					return value;
+		return null;
+	}
+
+	private static boolean regionMatches(String keyword, CharSequence chars, int start) {
+		for (int i = 0; i < keyword.length(); i++)
+			if (keyword.charAt(i) != chars.charAt(start + i))
+				return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,252 @@
+package com.kaba4cow.mtlfile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.kaba4cow.mtlfile.elements.MTLComment;
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * A read-only MTL library whose materials are parsed on demand. Opening a library scans the data once, recording the name
+ * and the byte offset of every {@code newmtl} statement and collecting the comments; the statements of a material are
+ * parsed only when the material is first retrieved, and the result is kept for later calls. This makes looking up a few
+ * materials of a large library much cheaper than parsing all of them.
+ * <p>
+ * The materials are frozen, so they can be read from any thread, and use {@link MTLMaterial#copy()} to get a modifiable
+ * one. Instances are safe to share between threads: when several threads retrieve a material that is not parsed yet, it
+ * may be parsed more than once, but all of them receive the same instance. The library keeps a reference to the data it
+ * was opened from, which for large files is a mapping of the file into memory.
+ */
+public final class MTLLazyLibrary {
+
+	private final ByteBuffer source;
+	private final List<MTLComment> comments;
+	private final String[] names;
+	private final int[] offsets;
+	private final Map<String, Integer> index;
+	private final AtomicReferenceArray<MTLMaterial> materials;
+
+	private MTLLazyLibrary(ByteBuffer source, List<MTLComment> comments, String[] names, int[] offsets) {
+		this.source = source;
+		this.comments = Collections.unmodifiableList(comments);
+		this.names = names;
+		this.offsets = offsets;
+		this.index = new HashMap<>();
+		for (int i = 0; i < names.length; i++)
+			index.putIfAbsent(names[i], i);
+		this.materials = new AtomicReferenceArray<>(names.length);
+	}
+
+	/**
+	 * Opens the UTF-8 encoded MTL file at the specified path. Small files are read into memory, larger ones are mapped into
+	 * memory.
+	 *
+	 * @param source the path of the file
+	 *
+	 * @return the library
+	 *
+	 * @throws IOException if an I/O error occurs or the file is larger than 2 GB
+	 */
+	public static MTLLazyLibrary open(Path source) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException("File is too large to be indexed: " + source);
+			return open(MTLParser.load(channel, 0L, (int) size));
+		}
+	}
+
+	/**
+	 * Opens the UTF-8 encoded MTL data in the remaining bytes of the specified {@link ByteBuffer}. The buffer must not be
+	 * modified afterwards; its position is not changed.
+	 *
+	 * @param source the buffer containing the MTL data
+	 *
+	 * @return the library
+	 */
+	public static MTLLazyLibrary open(ByteBuffer source) {
+		Objects.requireNonNull(source, "Source must not be null");
+		ByteBuffer data = source.slice();
+		MTLBufferTokenizer tokenizer = new MTLBufferTokenizer(data);
+		List<MTLComment> comments = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		int[] offsets = new int[16];
+		while (tokenizer.nextLine()) {
+			int line = tokenizer.position;
+			if (!tokenizer.nextToken())
+				continue;
+			char first = tokenizer.charAt(tokenizer.tokenStart);
+			if (first != 'n' && first != '#')
+				continue;
+			MTLKeyword keyword = tokenizer.keyword();
+			if (keyword == MTLKeyword.NEW_MATERIAL && tokenizer.hasMoreTokens()) {
+				tokenizer.nextToken();
+				if (names.size() == offsets.length - 1)
+					offsets = Arrays.copyOf(offsets, offsets.length * 2);
+				offsets[names.size()] = line;
+				names.add(tokenizer.token());
+			} else if (keyword == MTLKeyword.COMMENT && tokenizer.hasMoreTokens())
+				comments.add(new MTLComment().setText(tokenizer.rest()).freeze());
+		}
+		offsets[names.size()] = data.limit();
+		return new MTLLazyLibrary(data, comments, names.toArray(new String[0]),
+				Arrays.copyOf(offsets, names.size() + 1));
+	}
+
+	/**
+	 * Retrieves the comments of the library. They are read when the library is opened.
+	 *
+	 * @return an unmodifiable list of the frozen comments
+	 */
+	public List<MTLComment> getComments() {
+		return comments;
+	}
+
+	/**
+	 * Returns the number of materials in the library.
+	 *
+	 * @return the number of materials
+	 */
+	public int getMaterialCount() {
+		return names.length;
+	}
+
+	/**
+	 * Retrieves the names of the materials in the library, without parsing them.
+	 *
+	 * @return an unmodifiable list of the material names
+	 */
+	public List<String> getMaterialNames() {
+		return Collections.unmodifiableList(Arrays.asList(names));
+	}
+
+	/**
+	 * Finds the index of a material by its name, without parsing it. If several materials share the name, the index of the
+	 * first one is returned.
+	 *
+	 * @param name the name of the material to find
+	 *
+	 * @return the index of the material with the specified name, or {@code -1} if not found
+	 */
+	public int indexOf(String name) {
+		Integer position = index.get(name);
+		return Objects.isNull(position) ? -1 : position;
+	}
+
+	/**
+	 * Retrieves a material from the library by its index, parsing it if it was not retrieved before.
+	 *
+	 * @param index the index of the material
+	 *
+	 * @return the frozen material at the specified index
+	 *
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public MTLMaterial getMaterial(int index) {
+		if (index < 0 || index >= names.length)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + names.length);
+		MTLMaterial material = materials.get(index);
+		if (Objects.nonNull(material))
+			return material;
+		material = parse(index);
+		if (materials.compareAndSet(index, null, material))
+			return material;
+		return materials.get(index);
+	}
+
+	/**
+	 * Retrieves a material from the library by its name, parsing it if it was not retrieved before. If several materials
+	 * share the name, the first one is returned.
+	 *
+	 * @param name the name of the material to retrieve
+	 *
+	 * @return the frozen material with the specified name, or {@code null} if not found
+	 */
+	public MTLMaterial getMaterial(String name) {
+		int index = indexOf(name);
+		return index < 0 ? null : getMaterial(index);
+	}
+
+	/**
+	 * Retrieves a material from the library by its name, parsing it if it was not retrieved before.
+	 *
+	 * @param name the name of the material to retrieve
+	 *
+	 * @return an {@link Optional} containing the frozen material with the specified name, or an empty {@link Optional} if
+	 *             not found
+	 */
+	public Optional<MTLMaterial> optMaterial(String name) {
+		return Optional.ofNullable(getMaterial(name));
+	}
+
+	/**
+	 * Checks if a material was already parsed.
+	 *
+	 * @param index the index of the material
+	 *
+	 * @return {@code true} if the material at the specified index was parsed, {@code false} otherwise
+	 *
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public boolean isParsed(int index) {
+		if (index < 0 || index >= names.length)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + names.length);
+		return Objects.nonNull(materials.get(index));
+	}
+
+	/**
+	 * Returns the number of materials parsed so far.
+	 *
+	 * @return the number of parsed materials
+	 */
+	public int getParsedCount() {
+		int count = 0;
+		for (int i = 0; i < names.length; i++)
+			if (Objects.nonNull(materials.get(i)))
+				count++;
+		return count;
+	}
+
+	/**
+	 * Parses all remaining materials and returns a frozen {@link MTLLibrary} with the comments and materials of this
+	 * library. The materials are shared with this library.
+	 *
+	 * @return the frozen library
+	 */
+	public MTLLibrary toLibrary() {
+		MTLLibrary library = new MTLLibrary();
+		for (MTLComment comment : comments)
+			library.addComment(comment);
+		for (int i = 0; i < names.length; i++)
+			library.addMaterial(getMaterial(i));
+		return library.freeze();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MTLLazyLibrary [materials=%s, parsed=%s]", names.length, getParsedCount());
+	}
+
+	private MTLMaterial parse(int index) {
+		ByteBuffer block = source.duplicate();
+		block.limit(offsets[index + 1]).position(offsets[index]);
+		MTLLibrary library = MTLParser.parse(block, null);
+		MTLMaterial material = library.getMaterial(0);
+		library.clearMaterials();
+		return material.freeze();
+	}
+
+}
@@ -2,11 +2,17 @@ package com.kaba4cow.mtlfile;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 import com.kaba4cow.mtlfile.elements.MTLComment;
 import com.kaba4cow.mtlfile.elements.MTLMaterial;
@@ -15,10 +21,20 @@ public class MTLLibrary implements MTLElement {
 
 	private final List<MTLComment> comments;
 	private final List<MTLMaterial> materials;
+	private final Map<String, MTLMaterial> index;
+	private final BiConsumer<MTLMaterial, String> nameListener;
+	private boolean frozen;
+	private int modifications;
+	private Fingerprint fingerprint;
 
 	public MTLLibrary() {
 		this.comments = new ArrayList<>();
 		this.materials = new ArrayList<>();
+		this.index = new HashMap<>();
+		this.nameListener = this::onMaterialRenamed;
+		this.frozen = false;
+		this.modifications = 0;
+		this.fingerprint = null;
 	}
 
 	/**
@@ -33,6 +49,18 @@ public class MTLLibrary implements MTLElement {
 		MTLParser.parse(source, this);
 	}
 
+	/**
+	 * Creates an MTL library by parsing the UTF-8 encoded data of a file.
+	 *
+	 * @param source the path of the MTL file
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	public MTLLibrary(Path source) throws IOException {
+		this();
+		MTLParser.parse(source, this);
+	}
+
 	/**
 	 * Creates an MTL library by parsing data from a {@link String} source.
 	 *
@@ -73,6 +101,7 @@ public class MTLLibrary implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLLibrary addComment(MTLComment comment) {
+		checkNotFrozen();
 		comments.add(comment);
 		return this;
 	}
@@ -85,19 +114,26 @@ public class MTLLibrary implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLLibrary removeComment(int index) {
+		checkNotFrozen();
 		comments.remove(index);
 		return this;
 	}
 
 	/**
-	 * Removes a specified comment from the model.
+	 * Removes a specified comment from the model. The comment is looked up by identity, so an equal comment at another
+	 * position is kept.
 	 *
 	 * @param comment the comment to remove
 	 * 
 	 * @return a reference to this object
 	 */
 	public MTLLibrary removeComment(MTLComment comment) {
-		comments.remove(comment);
+		checkNotFrozen();
+		for (int i = 0; i < comments.size(); i++)
+			if (comments.get(i) == comment) {
+				comments.remove(i);
+				break;
+			}
 		return this;
 	}
 
@@ -107,6 +143,7 @@ public class MTLLibrary implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLLibrary clearComments() {
+		checkNotFrozen();
 		comments.clear();
 		return this;
 	}
@@ -132,17 +169,14 @@ public class MTLLibrary implements MTLElement {
 	}
 
 	/**
-	 * Retrieves an material from the model by its name.
+	 * Retrieves an material from the model by its name. If several materials share the name, the first one is returned.
 	 *
 	 * @param name the name of the material to retrieve
 	 * 
 	 * @return the {@link MTLMaterial} with the specified name, or {@code null} if not found
 	 */
 	public MTLMaterial getMaterial(String name) {
-		for (MTLMaterial material : materials)
-			if (Objects.equals(material.getName(), name))
-				return material;
-		return null;
+		return index.get(name);
 	}
 
 	/**
@@ -164,7 +198,10 @@ public class MTLLibrary implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLLibrary addMaterial(MTLMaterial material) {
+		checkNotFrozen();
 		materials.add(material);
+		index.putIfAbsent(material.getName(), material);
+		material.addNameListener(nameListener);
 		return this;
 	}
 
@@ -176,19 +213,27 @@ public class MTLLibrary implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLLibrary removeMaterial(int index) {
-		materials.remove(index);
+		checkNotFrozen();
+		MTLMaterial material = materials.remove(index);
+		material.removeNameListener(nameListener);
+		if (this.index.get(material.getName()) == material)
+			reindex(material.getName());
 		return this;
 	}
 
 	/**
-	 * Removes a specified material from the model.
+	 * Removes a specified material from the model. The material is looked up by identity, so an equal material at another
+	 * position is kept.
 	 *
 	 * @param material the material to remove
 	 * 
 	 * @return a reference to this object
 	 */
 	public MTLLibrary removeMaterial(MTLMaterial material) {
-		materials.remove(material);
+		checkNotFrozen();
+		for (int i = 0; i < materials.size(); i++)
+			if (materials.get(i) == material)
+				return removeMaterial(i);
 		return this;
 	}
 
@@ -198,27 +243,304 @@ public class MTLLibrary implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLLibrary clearMaterials() {
+		checkNotFrozen();
+		for (MTLMaterial material : materials)
+			material.removeNameListener(nameListener);
 		materials.clear();
+		index.clear();
 		return this;
 	}
 
 	/**
-	 * Converts the library to a string representation in MTL format.
+	 * Replaces the materials in the specified range with the specified ones, reindexing only the names involved.
+	 *
+	 * @param start       the start index of the range, inclusive
+	 * @param end         the end index of the range, exclusive
+	 * @param replacement the materials to put in place of the range
+	 */
+	void replaceMaterials(int start, int end, List<MTLMaterial> replacement) {
+		checkNotFrozen();
+		List<MTLMaterial> range = materials.subList(start, end);
+		Set<String> names = new HashSet<>();
+		for (MTLMaterial material : range) {
+			material.removeNameListener(nameListener);
+			names.add(material.getName());
+		}
+		range.clear();
+		materials.addAll(start, replacement);
+		for (MTLMaterial material : replacement) {
+			material.addNameListener(nameListener);
+			names.add(material.getName());
+		}
+		for (String name : names)
+			index.remove(name);
+		for (MTLMaterial material : materials)
+			if (names.contains(material.getName()))
+				index.putIfAbsent(material.getName(), material);
+	}
+
+	/**
+	 * Returns the material at the specified index ready to be modified. Frozen materials, such as the ones shared with a
+	 * snapshot, are replaced by a mutable copy first, so the change does not affect any other library.
 	 *
-	 * @return a string representation of this library in MTL format
+	 * @param index the index of the material
+	 * 
+	 * @return the mutable {@link MTLMaterial} at the specified index
+	 * 
+	 * @see #edit()
+	 */
+	public MTLMaterial editMaterial(int index) {
+		checkNotFrozen();
+		MTLMaterial material = materials.get(index);
+		if (!material.isFrozen())
+			return material;
+		MTLMaterial copy = material.copy();
+		materials.set(index, copy);
+		if (this.index.get(copy.getName()) == material)
+			this.index.put(copy.getName(), copy);
+		copy.addNameListener(nameListener);
+		return copy;
+	}
+
+	/**
+	 * Returns the material with the specified name ready to be modified. If several materials share the name, the first one
+	 * is returned. Frozen materials, such as the ones shared with a snapshot, are replaced by a mutable copy first, so the
+	 * change does not affect any other library.
+	 *
+	 * @param name the name of the material
+	 * 
+	 * @return the mutable {@link MTLMaterial} with the specified name, or {@code null} if not found
+	 * 
+	 * @see #edit()
+	 */
+	public MTLMaterial editMaterial(String name) {
+		checkNotFrozen();
+		MTLMaterial material = index.get(name);
+		if (Objects.isNull(material) || !material.isFrozen())
+			return material;
+		for (int i = 0; i < materials.size(); i++)
+			if (materials.get(i) == material)
+				return editMaterial(i);
+		return material;
+	}
+
+	/**
+	 * Returns the comment at the specified index ready to be modified. Frozen comments are replaced by a mutable copy first.
+	 *
+	 * @param index the index of the comment
+	 * 
+	 * @return the mutable {@link MTLComment} at the specified index
+	 * 
+	 * @see #edit()
+	 */
+	public MTLComment editComment(int index) {
+		checkNotFrozen();
+		MTLComment comment = comments.get(index);
+		if (!comment.isFrozen())
+			return comment;
+		MTLComment copy = comment.copy();
+		comments.set(index, copy);
+		return copy;
+	}
+
+	/**
+	 * Makes this library and all of its comments and materials immutable. Any further attempt to modify them throws an
+	 * {@link UnsupportedOperationException}. A frozen library can be read from several threads at once without any
+	 * synchronization, provided it is published to them safely. A frozen library returns its cached fingerprint without
+	 * checking the modification counters, so a fingerprint cached before is brought up to date first.
+	 *
+	 * @return a reference to this object
+	 */
+	public MTLLibrary freeze() {
+		if (frozen)
+			return this;
+		if (Objects.nonNull(fingerprint))
+			fingerprint();
+		for (MTLComment comment : comments)
+			comment.freeze();
+		for (MTLMaterial material : materials)
+			material.freeze();
+		this.frozen = true;
+		return this;
+	}
+
+	/**
+	 * Checks if this library is frozen.
+	 *
+	 * @return {@code true} if the library is immutable, {@code false} otherwise
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * Returns an immutable version of this library: this object if it is already frozen, or a frozen copy otherwise. The
+	 * copy shares the comments and materials that are already frozen and copies the others, so this library stays mutable.
+	 *
+	 * @return a frozen library
+	 * 
+	 * @see #freeze()
+	 */
+	public MTLLibrary snapshot() {
+		if (frozen)
+			return this;
+		MTLLibrary snapshot = new MTLLibrary();
+		for (MTLComment comment : comments)
+			snapshot.comments.add(comment.snapshot());
+		for (MTLMaterial material : materials) {
+			MTLMaterial shared = material.snapshot();
+			snapshot.materials.add(shared);
+			snapshot.index.putIfAbsent(shared.getName(), shared);
+		}
+		snapshot.frozen = true;
+		return snapshot;
+	}
+
+	/**
+	 * Creates a mutable copy-on-write editor of this library. The editor shares the frozen comments and materials of the
+	 * library's {@link #snapshot()} instead of copying them; a shared element is copied only when it is retrieved with
+	 * {@link #editMaterial(int)}, {@link #editMaterial(String)} or {@link #editComment(int)}. Modifying a shared element
+	 * retrieved in any other way throws an {@link UnsupportedOperationException}.
+	 *
+	 * @return a new mutable library
+	 */
+	public MTLLibrary edit() {
+		MTLLibrary source = snapshot();
+		MTLLibrary editor = new MTLLibrary();
+		editor.comments.addAll(source.comments);
+		editor.materials.addAll(source.materials);
+		editor.index.putAll(source.index);
+		return editor;
+	}
+
+	/**
+	 * Creates a mutable deep copy of this library.
+	 *
+	 * @return a new library with copies of all comments and materials
+	 */
+	public MTLLibrary copy() {
+		MTLLibrary copy = new MTLLibrary();
+		for (MTLComment comment : comments)
+			copy.addComment(comment.copy());
+		for (MTLMaterial material : materials)
+			copy.addMaterial(material.copy());
+		return copy;
+	}
+
+	/**
+	 * Returns the content fingerprint of this library: its comments and materials in order. The fingerprint is computed once
+	 * and cached until this library or one of its comments or materials is modified. Checking a cached fingerprint of a
+	 * mutable library sums the modification counts of its elements, which is much cheaper than computing it again; a frozen
+	 * library returns it right away.
+	 *
+	 * @return the fingerprint of the comments and materials
+	 *
+	 * @see MTLFingerprint
+	 */
+	public long fingerprint() {
+		Fingerprint cached = fingerprint;
+		if (Objects.nonNull(cached) && (frozen
+				|| cached.modifications == modifications && cached.elementModifications == elementModifications()))
+			return cached.value;
+		long elementModifications = elementModifications();
+		long hash = MTLFingerprint.mix(MTLFingerprint.INITIAL, comments.size());
+		for (MTLComment comment : comments)
+			hash = MTLFingerprint.mix(hash, comment.fingerprint());
+		hash = MTLFingerprint.mix(hash, materials.size());
+		for (MTLMaterial material : materials)
+			hash = MTLFingerprint.mix(hash, material.fingerprint());
+		long value = MTLFingerprint.finish(hash);
+		fingerprint = new Fingerprint(value, modifications, elementModifications);
+		return value;
+	}
+
+	/**
+	 * Compares the comments and materials of this library with another library, in order. The {@link #fingerprint()
+	 * fingerprints} are compared first, so libraries that differ are usually told apart without comparing their elements.
+	 *
+	 * @param object the object to compare with
+	 *
+	 * @return {@code true} if the object is a library with equal comments and materials in the same order, {@code false}
+	 *         otherwise
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (this == object)
+			return true;
+		if (Objects.isNull(object) || getClass() != object.getClass())
+			return false;
+		MTLLibrary other = (MTLLibrary) object;
+		return fingerprint() == other.fingerprint() //
+				&& comments.equals(other.comments) //
+				&& materials.equals(other.materials);
+	}
+
+	/**
+	 * Returns a hash code derived from the {@link #fingerprint() fingerprint}. Since a mutable library changes its hash code
+	 * when it or one of its elements is modified, only frozen libraries should be used as keys of hash-based collections.
+	 *
+	 * @return the hash code
+	 */
+	@Override
+	public int hashCode() {
+		return MTLFingerprint.hashCode(fingerprint());
+	}
+
+	/**
+	 * Sums the modification counts of the comments and materials. The counts only grow, so the sum changes whenever one of
+	 * them is modified, which is how a cached fingerprint notices changes made through the elements themselves.
+	 */
+	private long elementModifications() {
+		long sum = 0L;
+		for (MTLComment comment : comments)
+			sum += comment.getModificationCount();
+		for (MTLMaterial material : materials)
+			sum += material.getModificationCount();
+		return sum;
+	}
+
+	private void onMaterialRenamed(MTLMaterial material, String previous) {
+		modifications++;
+		if (index.get(previous) == material)
+			reindex(previous);
+		reindex(material.getName());
+	}
+
+	/**
+	 * Points the index entry of the specified name to the first material having it, or removes the entry if there is none.
+	 */
+	private void reindex(String name) {
+		index.remove(name);
+		for (MTLMaterial material : materials)
+			if (Objects.equals(material.getName(), name)) {
+				index.put(name, material);
+				return;
+			}
+	}
+
+	/**
+	 * Writes the comments followed by the materials of the library in the MTL format.
+	 *
+	 * @param writer the writer to write the library to
+	 *
+	 * @throws IOException if an I/O error occurs
 	 */
 	@Override
-	public String toMTLString() {
-		StringBuilder builder = new StringBuilder();
+	public void writeTo(MTLWriter writer) throws IOException {
 		if (!comments.isEmpty()) {
-			comments.stream().map(MTLElement::toMTLString).forEach(string -> builder.append(string).append("\n"));
-			builder.append("\n");
+			for (MTLComment comment : comments) {
+				comment.writeTo(writer);
+				writer.append('\n');
+			}
+			writer.append('\n');
 		}
 		if (!materials.isEmpty()) {
-			materials.stream().map(MTLElement::toMTLString).forEach(string -> builder.append(string).append("\n"));
-			builder.append("\n");
+			for (MTLMaterial material : materials) {
+				material.writeTo(writer);
+				writer.append('\n');
+			}
+			writer.append('\n');
 		}
-		return builder.toString();
 	}
 
 	@Override
@@ -226,4 +548,28 @@ public class MTLLibrary implements MTLElement {
 		return String.format("MTLLibrary [comments=%s, materials=%s]", comments, materials);
 	}
 
+	private void checkNotFrozen() {
+		if (frozen)
+			throw new UnsupportedOperationException("Library is frozen");
+		modifications++;
+	}
+
+	/**
+	 * A computed fingerprint with the modification counters it was computed at. The fields are final so that a frozen
+	 * library can share its cached fingerprint between threads without synchronization.
+	 */
+	private static final class Fingerprint {
+
+		private final long value;
+		private final int modifications;
+		private final long elementModifications;
+
+		private Fingerprint(long value, int modifications, long elementModifications) {
+			this.value = value;
+			this.modifications = modifications;
+			this.elementModifications = elementModifications;
+		}
+
+	}
+
 }
@@ -0,0 +1,114 @@
+package com.kaba4cow.mtlfile;
+
+import java.util.Objects;
+
+import com.kaba4cow.mtlfile.elements.MTLBumpMap;
+import com.kaba4cow.mtlfile.elements.MTLColor;
+import com.kaba4cow.mtlfile.elements.MTLComment;
+import com.kaba4cow.mtlfile.elements.MTLMap;
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * An {@link MTLHandler} adding the statements it receives to an {@link MTLLibrary}.
+ */
+class MTLLibraryBuilder implements MTLHandler {
+
+	private final MTLLibrary target;
+	private final MTLInterner interner;
+	private MTLMaterial material;
+
+	/**
+	 * Creates a builder adding comments and materials to the specified library.
+	 *
+	 * @param target   the library to add the comments and materials to
+	 * @param interner the interner to share colors, maps and names through, or {@code null} not to share them
+	 */
+	MTLLibraryBuilder(MTLLibrary target, MTLInterner interner) {
+		this.target = target;
+		this.interner = interner;
+		this.material = null;
+	}
+
+	@Override
+	public void onComment(String text) {
+		target.addComment(new MTLComment().setText(text));
+	}
+
+	@Override
+	public void onNewMaterial(String name) {
+		material = new MTLMaterial().setName(Objects.isNull(interner) ? name : interner.intern(name));
+		target.addMaterial(material);
+	}
+
+	@Override
+	public void onScalar(MTLKeyword keyword, float value) {
+		if (Objects.isNull(material))
+			return;
+		switch (keyword) {
+			case TRANSPARENCY:
+				material.setTransparency(value);
+				break;
+			case SPECULAR_EXPONENT:
+				material.setSpecularExponent(value);
+				break;
+			default:
+				break;
+		}
+	}
+
+	@Override
+	public void onIllumination(MTLIllumination illumination) {
+		if (Objects.nonNull(material))
+			material.setIllumination(illumination);
+	}
+
+	@Override
+	public void onColor(MTLKeyword keyword, float r, float g, float b) {
+		if (Objects.isNull(material))
+			return;
+		MTLColor color = new MTLColor().set(r, g, b);
+		if (Objects.nonNull(interner))
+			color = interner.intern(color);
+		switch (keyword) {
+			case AMBIENT_COLOR:
+				material.setAmbientColor(color);
+				break;
+			case DIFFUSE_COLOR:
+				material.setDiffuseColor(color);
+				break;
+			case SPECULAR_COLOR:
+				material.setSpecularColor(color);
+				break;
+			default:
+				break;
+		}
+	}
+
+	@Override
+	public void onMap(MTLKeyword keyword, MTLMap map) {
+		if (Objects.isNull(material))
+			return;
+		if (Objects.nonNull(interner))
+			map = interner.intern(map);
+		switch (keyword) {
+			case AMBIENT_MAP:
+				material.setAmbientMap(map);
+				break;
+			case DIFFUSE_MAP:
+				material.setDiffuseMap(map);
+				break;
+			case SPECULAR_MAP:
+				material.setSpecularMap(map);
+				break;
+			case TRANSPARENCY_MAP:
+				material.setTransparencyMap(map);
+				break;
+			case BUMP_MAP:
+				material.setBumpMap((MTLBumpMap) map);
+				break;
+			default:
+				break;
+		}
+	}
+
+}
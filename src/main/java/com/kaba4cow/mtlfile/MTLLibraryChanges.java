@@ -0,0 +1,95 @@
+package com.kaba4cow.mtlfile;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * Represents the outcome of an update of an {@link MTLIncrementalParser}: the materials that were added, removed or
+ * changed, and whether the comments of the library changed. Materials of unchanged {@code newmtl} blocks are kept as they
+ * are and not reported.
+ */
+public final class MTLLibraryChanges {
+
+	private final List<MTLMaterial> addedMaterials;
+	private final List<MTLMaterial> removedMaterials;
+	private final List<MTLMaterial> changedMaterials;
+	private final boolean commentsChanged;
+	private final int parsedBlockCount;
+
+	MTLLibraryChanges(List<MTLMaterial> addedMaterials, List<MTLMaterial> removedMaterials,
+			List<MTLMaterial> changedMaterials, boolean commentsChanged, int parsedBlockCount) {
+		this.addedMaterials = Collections.unmodifiableList(addedMaterials);
+		this.removedMaterials = Collections.unmodifiableList(removedMaterials);
+		this.changedMaterials = Collections.unmodifiableList(changedMaterials);
+		this.commentsChanged = commentsChanged;
+		this.parsedBlockCount = parsedBlockCount;
+	}
+
+	/**
+	 * Retrieves an unmodifiable list of the materials added by the update, that is the new materials whose name none of the
+	 * removed ones had.
+	 *
+	 * @return an unmodifiable list of the added materials
+	 */
+	public List<MTLMaterial> getAddedMaterials() {
+		return addedMaterials;
+	}
+
+	/**
+	 * Retrieves an unmodifiable list of the materials removed by the update. These are the instances the library held before
+	 * the update.
+	 *
+	 * @return an unmodifiable list of the removed materials
+	 */
+	public List<MTLMaterial> getRemovedMaterials() {
+		return removedMaterials;
+	}
+
+	/**
+	 * Retrieves an unmodifiable list of the materials changed by the update. Every changed material is a new instance
+	 * replacing the material of the same name the library held before the update. A block parsed again whose material is
+	 * equal to the previous one, e.g. after only whitespace or comments in it were edited, keeps the previous instance and
+	 * is not reported.
+	 *
+	 * @return an unmodifiable list of the changed materials
+	 */
+	public List<MTLMaterial> getChangedMaterials() {
+		return changedMaterials;
+	}
+
+	/**
+	 * Checks if the comments of the library changed.
+	 *
+	 * @return {@code true} if the comments changed, {@code false} otherwise
+	 */
+	public boolean areCommentsChanged() {
+		return commentsChanged;
+	}
+
+	/**
+	 * Checks if the update changed anything at all.
+	 *
+	 * @return {@code true} if any material or comment changed, {@code false} otherwise
+	 */
+	public boolean hasChanges() {
+		return commentsChanged || !addedMaterials.isEmpty() || !removedMaterials.isEmpty() || !changedMaterials.isEmpty();
+	}
+
+	/**
+	 * Returns the number of {@code newmtl} blocks that were parsed by the update, all other blocks were reused.
+	 *
+	 * @return the number of parsed blocks
+	 */
+	public int getParsedBlockCount() {
+		return parsedBlockCount;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MTLLibraryChanges [added=%s, removed=%s, changed=%s, commentsChanged=%s, parsedBlocks=%s]",
+				addedMaterials.size(), removedMaterials.size(), changedMaterials.size(), commentsChanged, parsedBlockCount);
+	}
+
+}
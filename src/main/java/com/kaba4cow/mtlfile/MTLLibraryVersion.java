@@ -0,0 +1,369 @@
+package com.kaba4cow.mtlfile;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import com.kaba4cow.mtlfile.elements.MTLComment;
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * An immutable version of an MTL library supporting cheap edits. Every edit returns a new version sharing all unchanged
+ * materials and most of its internal structure with the previous one, which stays valid, so versions can be kept for undo
+ * or handed to readers while the next version is prepared. Editing a material takes time and memory proportional to the
+ * changed material plus the logarithm of the number of materials, instead of copying the whole library. All materials and
+ * comments held by a version are frozen; versions can be read from several threads at once.
+ */
+public final class MTLLibraryVersion implements MTLElement {
+
+	private static final MTLLibraryVersion EMPTY = new MTLLibraryVersion(Collections.<MTLComment>emptyList(),
+			MTLPersistentList.<MTLMaterial>empty(), MTLPersistentMap.<NameEntry>empty());
+
+	private final List<MTLComment> comments;
+	private final MTLPersistentList<MTLMaterial> materials;
+	private final MTLPersistentMap<NameEntry> index;
+
+	private MTLLibraryVersion(List<MTLComment> comments, MTLPersistentList<MTLMaterial> materials,
+			MTLPersistentMap<NameEntry> index) {
+		this.comments = comments;
+		this.materials = materials;
+		this.index = index;
+	}
+
+	/**
+	 * Returns an empty version.
+	 *
+	 * @return a version without comments and materials
+	 */
+	public static MTLLibraryVersion empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Creates a version with the comments and materials of the specified library, sharing the ones that are already frozen.
+	 *
+	 * @param library the library to create the version from
+	 *
+	 * @return the version
+	 *
+	 * @see MTLLibrary#snapshot()
+	 */
+	public static MTLLibraryVersion of(MTLLibrary library) {
+		Objects.requireNonNull(library, "Library must not be null");
+		MTLLibrary snapshot = library.snapshot();
+		MTLPersistentList<MTLMaterial> materials = MTLPersistentList.of(snapshot.getMaterials());
+		MTLPersistentMap<NameEntry> index = MTLPersistentMap.empty();
+		for (int i = 0; i < materials.size(); i++) {
+			String name = materials.get(i).getName();
+			NameEntry entry = index.get(name);
+			NameEntry updated = Objects.isNull(entry) ? new NameEntry(materials.keyAt(i), 1)
+					: new NameEntry(entry.key, entry.count + 1);
+			index = index.put(name, updated);
+		}
+		return new MTLLibraryVersion(immutableCopy(snapshot.getComments()), materials, index);
+	}
+
+	/**
+	 * Retrieves an unmodifiable list of comments in the version.
+	 *
+	 * @return an unmodifiable list of frozen {@link MTLComment} objects
+	 */
+	public List<MTLComment> getComments() {
+		return comments;
+	}
+
+	/**
+	 * Retrieves a comment from the version by its index.
+	 *
+	 * @param index the index of the comment
+	 *
+	 * @return the frozen {@link MTLComment} at the specified index
+	 */
+	public MTLComment getComment(int index) {
+		return comments.get(index);
+	}
+
+	/**
+	 * Retrieves an unmodifiable list view of the materials in the version. Accessing a material by its position takes
+	 * logarithmic time.
+	 *
+	 * @return an unmodifiable list of frozen {@link MTLMaterial} objects
+	 */
+	public List<MTLMaterial> getMaterials() {
+		return new AbstractList<MTLMaterial>() {
+
+			@Override
+			public MTLMaterial get(int index) {
+				return materials.get(index);
+			}
+
+			@Override
+			public int size() {
+				return materials.size();
+			}
+
+			@Override
+			public Iterator<MTLMaterial> iterator() {
+				return materials.iterator();
+			}
+
+		};
+	}
+
+	/**
+	 * Returns the number of materials in the version.
+	 *
+	 * @return the number of materials
+	 */
+	public int getMaterialCount() {
+		return materials.size();
+	}
+
+	/**
+	 * Retrieves a material from the version by its index.
+	 *
+	 * @param index the index of the material
+	 *
+	 * @return the frozen {@link MTLMaterial} at the specified index
+	 */
+	public MTLMaterial getMaterial(int index) {
+		return materials.get(index);
+	}
+
+	/**
+	 * Retrieves a material from the version by its name. If several materials share the name, the first one is returned.
+	 *
+	 * @param name the name of the material to retrieve
+	 *
+	 * @return the frozen {@link MTLMaterial} with the specified name, or {@code null} if not found
+	 */
+	public MTLMaterial getMaterial(String name) {
+		NameEntry entry = index.get(name);
+		return Objects.isNull(entry) ? null : materials.getByKey(entry.key);
+	}
+
+	/**
+	 * Finds the index of a material by its name. If several materials share the name, the index of the first one is
+	 * returned.
+	 *
+	 * @param name the name of the material to find
+	 *
+	 * @return the index of the material with the specified name, or {@code -1} if not found
+	 */
+	public int indexOf(String name) {
+		NameEntry entry = index.get(name);
+		return Objects.isNull(entry) ? -1 : materials.indexOfKey(entry.key);
+	}
+
+	/**
+	 * Returns a version with the specified comment added at the end.
+	 *
+	 * @param comment the comment to add, frozen if it is not yet
+	 *
+	 * @return the new version
+	 */
+	public MTLLibraryVersion withComment(MTLComment comment) {
+		Objects.requireNonNull(comment, "Comment must not be null");
+		List<MTLComment> comments = new ArrayList<>(this.comments);
+		comments.add(comment.snapshot());
+		return new MTLLibraryVersion(Collections.unmodifiableList(comments), materials, index);
+	}
+
+	/**
+	 * Returns a version without the comment at the specified index.
+	 *
+	 * @param index the index of the comment to remove
+	 *
+	 * @return the new version
+	 */
+	public MTLLibraryVersion withoutComment(int index) {
+		List<MTLComment> comments = new ArrayList<>(this.comments);
+		comments.remove(index);
+		return new MTLLibraryVersion(Collections.unmodifiableList(comments), materials, this.index);
+	}
+
+	/**
+	 * Returns a version with the specified material added at the end.
+	 *
+	 * @param material the material to add, frozen if it is not yet
+	 *
+	 * @return the new version
+	 */
+	public MTLLibraryVersion withMaterial(MTLMaterial material) {
+		Objects.requireNonNull(material, "Material must not be null");
+		MTLMaterial added = material.snapshot();
+		long key = materials.nextKey();
+		NameEntry entry = index.get(added.getName());
+		NameEntry updated = Objects.isNull(entry) ? new NameEntry(key, 1) : new NameEntry(entry.key, entry.count + 1);
+		return new MTLLibraryVersion(comments, materials.add(added), index.put(added.getName(), updated));
+	}
+
+	/**
+	 * Returns a version with the material at the specified index replaced.
+	 *
+	 * @param index    the index of the material to replace
+	 * @param material the new material, frozen if it is not yet
+	 *
+	 * @return the new version
+	 */
+	public MTLLibraryVersion withMaterial(int index, MTLMaterial material) {
+		Objects.requireNonNull(material, "Material must not be null");
+		long key = materials.keyAt(index);
+		MTLMaterial previous = materials.getByKey(key);
+		MTLMaterial replacement = material.snapshot();
+		if (replacement == previous)
+			return this;
+		MTLPersistentList<MTLMaterial> materials = this.materials.set(key, replacement);
+		if (Objects.equals(previous.getName(), replacement.getName()))
+			return new MTLLibraryVersion(comments, materials, this.index);
+		MTLPersistentMap<NameEntry> names = unindex(this.index, materials, previous.getName(), key);
+		NameEntry entry = names.get(replacement.getName());
+		NameEntry updated = Objects.isNull(entry) ? new NameEntry(key, 1)
+				: new NameEntry(Math.min(entry.key, key), entry.count + 1);
+		return new MTLLibraryVersion(comments, materials, names.put(replacement.getName(), updated));
+	}
+
+	/**
+	 * Returns a version without the material at the specified index.
+	 *
+	 * @param index the index of the material to remove
+	 *
+	 * @return the new version
+	 */
+	public MTLLibraryVersion withoutMaterial(int index) {
+		long key = materials.keyAt(index);
+		MTLMaterial removed = materials.getByKey(key);
+		MTLPersistentList<MTLMaterial> materials = this.materials.remove(key);
+		return new MTLLibraryVersion(comments, materials, unindex(this.index, materials, removed.getName(), key));
+	}
+
+	/**
+	 * Returns a version without the material with the specified name. If several materials share the name, only the first
+	 * one is removed.
+	 *
+	 * @param name the name of the material to remove
+	 *
+	 * @return the new version, or this version if there is no such material
+	 */
+	public MTLLibraryVersion withoutMaterial(String name) {
+		int index = indexOf(name);
+		return index < 0 ? this : withoutMaterial(index);
+	}
+
+	/**
+	 * Returns a version with the material at the specified index modified by the specified editor. The editor receives a
+	 * mutable copy of the material, which replaces the original once the editor returns.
+	 *
+	 * @param index  the index of the material to modify
+	 * @param editor the function modifying the material
+	 *
+	 * @return the new version
+	 */
+	public MTLLibraryVersion updateMaterial(int index, Consumer<MTLMaterial> editor) {
+		Objects.requireNonNull(editor, "Editor must not be null");
+		MTLMaterial material = materials.get(index).copy();
+		editor.accept(material);
+		return withMaterial(index, material);
+	}
+
+	/**
+	 * Returns a version with the material with the specified name modified by the specified editor. If several materials
+	 * share the name, only the first one is modified. The editor receives a mutable copy of the material, which replaces
+	 * the original once the editor returns.
+	 *
+	 * @param name   the name of the material to modify
+	 * @param editor the function modifying the material
+	 *
+	 * @return the new version, or this version if there is no such material
+	 */
+	public MTLLibraryVersion updateMaterial(String name, Consumer<MTLMaterial> editor) {
+		int index = indexOf(name);
+		return index < 0 ? this : updateMaterial(index, editor);
+	}
+
+	/**
+	 * Creates a frozen {@link MTLLibrary} with the comments and materials of this version. The materials are shared, not
+	 * copied. Call {@link MTLLibrary#edit()} on the result to get a mutable library.
+	 *
+	 * @return a frozen library
+	 */
+	public MTLLibrary toLibrary() {
+		MTLLibrary library = new MTLLibrary();
+		for (MTLComment comment : comments)
+			library.addComment(comment);
+		for (MTLMaterial material : materials)
+			library.addMaterial(material);
+		return library.freeze();
+	}
+
+	/**
+	 * Writes the comments followed by the materials of the version in the MTL format, the same way
+	 * {@link MTLLibrary#writeTo(MTLWriter)} does.
+	 *
+	 * @param writer the writer to write the version to
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void writeTo(MTLWriter writer) throws IOException {
+		if (!comments.isEmpty()) {
+			for (MTLComment comment : comments) {
+				comment.writeTo(writer);
+				writer.append('\n');
+			}
+			writer.append('\n');
+		}
+		if (materials.size() > 0) {
+			for (MTLMaterial material : materials) {
+				material.writeTo(writer);
+				writer.append('\n');
+			}
+			writer.append('\n');
+		}
+	}
+
+	/**
+	 * Updates the name index after the material with the specified key and name was removed or renamed. Only when the first
+	 * of several materials sharing the name goes away are the remaining materials scanned for the next one.
+	 */
+	private static MTLPersistentMap<NameEntry> unindex(MTLPersistentMap<NameEntry> index,
+			MTLPersistentList<MTLMaterial> materials, String name, long key) {
+		NameEntry entry = index.get(name);
+		if (entry.count == 1)
+			return index.remove(name);
+		if (entry.key != key)
+			return index.put(name, new NameEntry(entry.key, entry.count - 1));
+		for (int i = 0; i < materials.size(); i++)
+			if (Objects.equals(materials.get(i).getName(), name))
+				return index.put(name, new NameEntry(materials.keyAt(i), entry.count - 1));
+		return index.remove(name);
+	}
+
+	private static List<MTLComment> immutableCopy(List<MTLComment> comments) {
+		return comments.isEmpty() ? Collections.<MTLComment>emptyList()
+				: Collections.unmodifiableList(new ArrayList<>(comments));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MTLLibraryVersion [comments=%s, materials=%s]", comments.size(), materials.size());
+	}
+
+	private static final class NameEntry {
+
+		private final long key;
+		private final int count;
+
+		private NameEntry(long key, int count) {
+			this.key = key;
+			this.count = count;
+		}
+
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.kaba4cow.mtlfile;
+
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+
+/**
+ * Holds the {@link MTLMetricsListener} the parse and write operations report to. No listener is installed by default, in
+ * which case nothing is measured at all.
+ */
+public final class MTLMetrics {
+
+	private static volatile MTLMetricsListener listener = null;
+
+	private MTLMetrics() {}
+
+	/**
+	 * Returns the installed listener.
+	 *
+	 * @return the listener, or {@code null} if none is installed
+	 */
+	public static MTLMetricsListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Installs the listener the parse and write operations report to, replacing the previous one. Operations already in
+	 * progress report to the listener that was installed when they started.
+	 *
+	 * @param listener the listener, or {@code null} to stop measuring
+	 */
+	public static void setListener(MTLMetricsListener listener) {
+		MTLMetrics.listener = listener;
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread so far, if the JVM can tell.
+	 *
+	 * @return the number of allocated bytes, or {@code -1} if it is not available
+	 */
+	static long allocatedBytes() {
+		return Allocation.allocatedBytes();
+	}
+
+	/**
+	 * Reads the allocation counter of HotSpot based JVMs. It is looked up once, when the first measurement is taken, so
+	 * the class is never loaded while no listener is installed.
+	 */
+	private static final class Allocation {
+
+		private static final com.sun.management.ThreadMXBean BEAN = lookup();
+
+		/**
+		 * Looks up the allocation counter, which is unavailable on JVMs that are not based on HotSpot, when the management
+		 * classes are missing, or when the counter is disabled.
+		 */
+		private static com.sun.management.ThreadMXBean lookup() {
+			try {
+				java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+				if (bean instanceof com.sun.management.ThreadMXBean) {
+					com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) bean;
+					if (allocation.isThreadAllocatedMemorySupported() && allocation.isThreadAllocatedMemoryEnabled())
+						return allocation;
+				}
+			} catch (LinkageError | RuntimeException ignored) {}
+			return null;
+		}
+
+		private static long allocatedBytes() {
+			if (Objects.isNull(BEAN))
+				return -1L;
+			return BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+
+	}
+
+}
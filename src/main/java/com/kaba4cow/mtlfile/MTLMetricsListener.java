@@ -0,0 +1,27 @@
+package com.kaba4cow.mtlfile;
+
+/**
+ * Receives the metrics of the parse and write operations once an instance is installed with
+ * {@link MTLMetrics#setListener(MTLMetricsListener)}. The methods are called on the thread that performed the operation,
+ * right after it completed, and may be called from several threads at once. All methods do nothing by default, so
+ * implementations only override the ones they are interested in.
+ */
+public interface MTLMetricsListener {
+
+	/**
+	 * Called after MTL data was read by {@link MTLParser}, whether into a library or to an {@link MTLHandler}. A parallel
+	 * parse reports every chunk separately.
+	 *
+	 * @param metrics the metrics of the parse
+	 */
+	public default void onParse(MTLParseMetrics metrics) {}
+
+	/**
+	 * Called after MTL data was written, when {@link MTLElement#toMTLString()} or
+	 * {@link MTLElement#writeTo(Appendable)} returns, or when an {@link MTLWriter} is closed.
+	 *
+	 * @param metrics the metrics of the write
+	 */
+	public default void onWrite(MTLWriteMetrics metrics) {}
+
+}
@@ -0,0 +1,241 @@
+package com.kaba4cow.mtlfile;
+
+import java.util.Objects;
+
+/**
+ * A utility class for parsing numbers directly from a range of a {@link CharSequence} without creating intermediate strings.
+ * Plain decimal numbers, optionally with an exponent, are parsed in place and produce exactly the same result as
+ * {@link Float#parseFloat(String)} and {@link Integer#parseInt(String)}. Anything else, such as hexadecimal values,
+ * {@code NaN}, {@code Infinity} or numbers with too many significant digits, is delegated to the standard parsers.
+ */
+public class MTLNumbers {
+
+	private static final int MAX_DIGITS = 15;
+	private static final int MAX_INT_DIGITS = 9;
+
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+			1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private MTLNumbers() {}
+
+	/**
+	 * Parses a float from the specified string.
+	 *
+	 * @param source the string to parse
+	 *
+	 * @return the parsed value
+	 *
+	 * @throws NumberFormatException if the string is not a valid number
+	 */
+	public static float parseFloat(CharSequence source) {
+		Objects.requireNonNull(source, "Source must not be null");
+		return parseFloat(source, 0, source.length());
+	}
+
+	/**
+	 * Parses a float from the specified range of characters.
+	 *
+	 * @param source the characters to parse
+	 * @param start  the start index of the range, inclusive
+	 * @param end    the end index of the range, exclusive
+	 *
+	 * @return the parsed value
+	 *
+	 * @throws NumberFormatException if the range is not a valid number
+	 */
+	public static float parseFloat(CharSequence source, int start, int end) {
+		int index = start;
+		boolean negative = false;
+		if (index < end && (source.charAt(index) == '-' || source.charAt(index) == '+'))
+			negative = source.charAt(index++) == '-';
+		long mantissa = 0L;
+		int digits = 0;
+		int fraction = 0;
+		boolean point = false;
+		boolean empty = true;
+		for (; index < end; index++) {
+			char c = source.charAt(index);
+			if (c >= '0' && c <= '9') {
+				empty = false;
+				if (mantissa != 0L || c != '0')
+					digits++;
+				mantissa = 10L * mantissa + (c - '0');
+				if (point)
+					fraction++;
+			} else if (c == '.' && !point)
+				point = true;
+			else
+				break;
+		}
+		int exponent = 0;
+		if (!empty && index < end && (source.charAt(index) == 'e' || source.charAt(index) == 'E')) {
+			index++;
+			boolean negativeExponent = false;
+			if (index < end && (source.charAt(index) == '-' || source.charAt(index) == '+'))
+				negativeExponent = source.charAt(index++) == '-';
+			int exponentDigits = index;
+			for (; index < end && exponent < 1000; index++) {
+				char c = source.charAt(index);
+				if (c < '0' || c > '9')
+					break;
+				exponent = 10 * exponent + (c - '0');
+			}
+			if (index == exponentDigits)
+				index = -1;
+			if (negativeExponent)
+				exponent = -exponent;
+		}
+		exponent -= fraction;
+		if (index == end && !empty && digits <= MAX_DIGITS && exponent > -POWERS_OF_TEN.length
+				&& exponent < POWERS_OF_TEN.length) {
+			double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+			if (!isFloatMidpoint(value)) {
+				float result = (float) value;
+				return negative ? -result : result;
+			}
+		}
+		return Float.parseFloat(source.subSequence(start, end).toString());
+	}
+
+	/**
+	 * Parses a decimal integer from the specified string.
+	 *
+	 * @param source the string to parse
+	 *
+	 * @return the parsed value
+	 *
+	 * @throws NumberFormatException if the string is not a valid integer
+	 */
+	public static int parseInt(CharSequence source) {
+		Objects.requireNonNull(source, "Source must not be null");
+		return parseInt(source, 0, source.length());
+	}
+
+	/**
+	 * Parses a decimal integer from the specified range of characters.
+	 *
+	 * @param source the characters to parse
+	 * @param start  the start index of the range, inclusive
+	 * @param end    the end index of the range, exclusive
+	 *
+	 * @return the parsed value
+	 *
+	 * @throws NumberFormatException if the range is not a valid integer
+	 */
+	public static int parseInt(CharSequence source, int start, int end) {
+		int index = start;
+		boolean negative = false;
+		if (index < end && (source.charAt(index) == '-' || source.charAt(index) == '+'))
+			negative = source.charAt(index++) == '-';
+		if (index < end && end - index <= MAX_INT_DIGITS) {
+			int value = 0;
+			for (; index < end; index++) {
+				char c = source.charAt(index);
+				if (c < '0' || c > '9')
+					break;
+				value = 10 * value + (c - '0');
+			}
+			if (index == end)
+				return negative ? -value : value;
+		}
+		return Integer.parseInt(source.subSequence(start, end).toString());
+	}
+
+	/**
+	 * Checks, without throwing any exception, if the specified range of characters is a number
+	 * {@link #parseFloat(CharSequence, int, int)} accepts. The same syntax as {@link Float#parseFloat(String)} is accepted,
+	 * except for surrounding whitespace.
+	 *
+	 * @param source the characters to check
+	 * @param start  the start index of the range, inclusive
+	 * @param end    the end index of the range, exclusive
+	 *
+	 * @return {@code true} if the range is a valid number, {@code false} otherwise
+	 */
+	public static boolean isFloat(CharSequence source, int start, int end) {
+		int index = start;
+		if (index < end && (source.charAt(index) == '-' || source.charAt(index) == '+'))
+			index++;
+		if (regionEquals(source, index, end, "NaN") || regionEquals(source, index, end, "Infinity"))
+			return true;
+		boolean hexadecimal = end - index > 2 && source.charAt(index) == '0'
+				&& (source.charAt(index + 1) == 'x' || source.charAt(index + 1) == 'X');
+		if (hexadecimal)
+			index += 2;
+		boolean digits = false;
+		boolean point = false;
+		for (; index < end; index++) {
+			char c = source.charAt(index);
+			if (c >= '0' && c <= '9' || hexadecimal && (c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F'))
+				digits = true;
+			else if (c == '.' && !point)
+				point = true;
+			else
+				break;
+		}
+		if (!digits)
+			return false;
+		if (index < end && (hexadecimal ? source.charAt(index) == 'p' || source.charAt(index) == 'P'
+				: source.charAt(index) == 'e' || source.charAt(index) == 'E')) {
+			index++;
+			if (index < end && (source.charAt(index) == '-' || source.charAt(index) == '+'))
+				index++;
+			int exponentDigits = index;
+			while (index < end && source.charAt(index) >= '0' && source.charAt(index) <= '9')
+				index++;
+			if (index == exponentDigits)
+				return false;
+		} else if (hexadecimal)
+			return false;
+		if (index < end && "fFdD".indexOf(source.charAt(index)) >= 0)
+			index++;
+		return index == end;
+	}
+
+	/**
+	 * Checks, without throwing any exception, if the specified range of characters is an integer
+	 * {@link #parseInt(CharSequence, int, int)} accepts.
+	 *
+	 * @param source the characters to check
+	 * @param start  the start index of the range, inclusive
+	 * @param end    the end index of the range, exclusive
+	 *
+	 * @return {@code true} if the range is a valid integer, {@code false} otherwise
+	 */
+	public static boolean isInt(CharSequence source, int start, int end) {
+		int index = start;
+		boolean negative = false;
+		if (index < end && (source.charAt(index) == '-' || source.charAt(index) == '+'))
+			negative = source.charAt(index++) == '-';
+		if (index == end)
+			return false;
+		long value = 0L;
+		for (; index < end; index++) {
+			char c = source.charAt(index);
+			if (c < '0' || c > '9')
+				return false;
+			value = 10L * value + (c - '0');
+			if (value > 1L + Integer.MAX_VALUE)
+				return false;
+		}
+		return negative || value <= Integer.MAX_VALUE;
+	}
+
+	private static boolean regionEquals(CharSequence source, int start, int end, String string) {
+		if (end - start != string.length())
+			return false;
+		for (int i = 0; i < string.length(); i++)
+			if (source.charAt(start + i) != string.charAt(i))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Checks if a double lies exactly halfway between two adjacent floats, in which case narrowing it could round the
+	 * wrong way. Any other double narrows to the same float as the exact decimal value it was rounded from.
+	 */
+	private static boolean isFloatMidpoint(double value) {
+		return (Double.doubleToRawLongBits(value) & 0x1FFFFFFFL) == 0x10000000L;
+	}
+
+}
@@ -0,0 +1,174 @@
+package com.kaba4cow.mtlfile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import com.kaba4cow.mtlfile.elements.MTLComment;
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * Parses MTL data split into chunks at {@code newmtl} statements. Every chunk but the first starts with a material, so the
+ * chunks can be parsed independently and concatenated in order, giving exactly the result of a sequential parse. Each
+ * chunk numbers its lines after the lines of the chunks before it, which are counted in parallel as well, so errors report
+ * the same line as a sequential parse. The whole parse is measured once, as a single parse.
+ */
+final class MTLParallelParser {
+
+	/**
+	 * The smallest chunk worth parsing on its own.
+	 */
+	static final int MIN_CHUNK_SIZE = 1 << 20;
+
+	private MTLParallelParser() {}
+
+	/**
+	 * Parses the remaining bytes of the specified buffer into the target, parsing the chunks using the specified executor.
+	 *
+	 * @param source   the buffer containing the MTL data
+	 * @param file     the path of the file the data was read from, or {@code null}
+	 * @param target   the library to add the comments and materials to, already cleared
+	 * @param executor the executor to parse the chunks with
+	 *
+	 * @return the target
+	 *
+	 * @throws IOException if a statement is invalid
+	 */
+	static MTLLibrary parse(ByteBuffer source, Path file, MTLLibrary target, Executor executor) throws IOException {
+		MTLMetricsListener listener = MTLMetrics.getListener();
+		MTLParseEvent event = MTLFlightRecorder.isAvailable() ? MTLParseEvent.start(file, false) : null;
+		MTLParseMetrics.Recorder recorder = null;
+		if (Objects.nonNull(listener) || Objects.nonNull(event))
+			recorder = new MTLParseMetrics.Recorder(null, listener);
+		boolean recorded = Objects.nonNull(recorder);
+		int[] bounds = split(source, Runtime.getRuntime().availableProcessors() * 2);
+		List<CompletableFuture<Chunk>> chunks = new ArrayList<>(bounds.length - 1);
+		CompletableFuture<Integer> lines = CompletableFuture.completedFuture(0);
+		for (int i = 0; i < bounds.length - 1; i++) {
+			ByteBuffer chunk = source.duplicate();
+			chunk.limit(bounds[i + 1]).position(bounds[i]);
+			chunks.add(lines.thenApplyAsync(line -> parse(chunk, line, listener, recorded), executor));
+			if (i < bounds.length - 2)
+				lines = lines.thenCombine(CompletableFuture.supplyAsync(() -> countLines(chunk), executor), Integer::sum);
+		}
+		int line = 0;
+		for (CompletableFuture<Chunk> future : chunks) {
+			Chunk chunk = join(future);
+			merge(chunk.library, target);
+			if (recorded)
+				recorder.merge(chunk.recorder, chunk.allocatedBytes);
+			line = chunk.line;
+		}
+		if (recorded) {
+			MTLParseMetrics metrics = recorder.report(source.remaining(), line);
+			if (Objects.nonNull(event))
+				event.finish(metrics);
+		}
+		return target;
+	}
+
+	private static Chunk parse(ByteBuffer source, int line, MTLMetricsListener listener, boolean recorded) {
+		MTLLibrary library = new MTLLibrary();
+		MTLHandler handler = new MTLLibraryBuilder(library, null);
+		MTLParseMetrics.Recorder recorder = recorded ? new MTLParseMetrics.Recorder(handler, listener) : null;
+		MTLBufferTokenizer tokenizer = new MTLBufferTokenizer(source, line);
+		try {
+			MTLParser.read(tokenizer, recorded ? recorder : handler);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+		return new Chunk(library, recorder, recorded ? recorder.allocatedBytes() : -1L, tokenizer.line);
+	}
+
+	/**
+	 * Counts the lines of a chunk. Every chunk but the last ends with a line terminator, and {@code \r\n} counts once.
+	 */
+	private static int countLines(ByteBuffer chunk) {
+		int lines = 0;
+		byte previous = 0;
+		for (int i = chunk.position(); i < chunk.limit(); i++) {
+			byte current = chunk.get(i);
+			if (current == '\r' || current == '\n' && previous != '\r')
+				lines++;
+			previous = current;
+		}
+		return lines;
+	}
+
+	/**
+	 * Splits the buffer into at most the specified number of chunks of at least {@link #MIN_CHUNK_SIZE} bytes, each one but
+	 * the first starting with a material.
+	 */
+	private static int[] split(ByteBuffer source, int parallelism) {
+		int start = source.position();
+		int size = source.remaining();
+		int count = Math.max(1, Math.min(parallelism, size / MIN_CHUNK_SIZE));
+		MTLBufferTokenizer tokenizer = new MTLBufferTokenizer(source);
+		int[] bounds = new int[count + 1];
+		int length = 1;
+		bounds[0] = start;
+		for (int i = 1; i < count; i++) {
+			int candidate = start + (int) ((long) size * i / count);
+			if (candidate <= bounds[length - 1])
+				continue;
+			int bound = tokenizer.findMaterial(candidate);
+			if (bound > bounds[length - 1] && bound < source.limit())
+				bounds[length++] = bound;
+		}
+		bounds[length++] = source.limit();
+		int[] result = new int[length];
+		System.arraycopy(bounds, 0, result, 0, length);
+		return result;
+	}
+
+	private static Chunk join(CompletableFuture<Chunk> chunk) throws IOException {
+		try {
+			return chunk.join();
+		} catch (CompletionException exception) {
+			Throwable cause = exception.getCause();
+			if (cause instanceof UncheckedIOException)
+				throw ((UncheckedIOException) cause).getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IOException(cause);
+		}
+	}
+
+	private static void merge(MTLLibrary chunk, MTLLibrary target) {
+		for (MTLComment comment : chunk.getComments())
+			target.addComment(comment);
+		List<MTLMaterial> materials = new ArrayList<>(chunk.getMaterials());
+		chunk.clearMaterials();
+		for (MTLMaterial material : materials)
+			target.addMaterial(material);
+	}
+
+	/**
+	 * A parsed chunk with the recorder that counted its statements, if the parse is measured.
+	 */
+	private static final class Chunk {
+
+		private final MTLLibrary library;
+		private final MTLParseMetrics.Recorder recorder;
+		private final long allocatedBytes;
+		private final int line;
+
+		private Chunk(MTLLibrary library, MTLParseMetrics.Recorder recorder, long allocatedBytes, int line) {
+			this.library = library;
+			this.recorder = recorder;
+			this.allocatedBytes = allocatedBytes;
+			this.line = line;
+		}
+
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.kaba4cow.mtlfile;
+
+import java.nio.file.Path;
+
+/**
+ * The flight recorder event of a parse by {@link MTLParser} on JVMs before Java 11, which records nothing. The
+ * multi-release jar replaces it with an event of the JDK Flight Recorder on Java 11 and later.
+ */
+final class MTLParseEvent {
+
+	private MTLParseEvent() {}
+
+	/**
+	 * Checks if this class records events.
+	 *
+	 * @return {@code false}
+	 */
+	static boolean isRecorded() {
+		return false;
+	}
+
+	/**
+	 * Starts an event if it is enabled in a recording.
+	 *
+	 * @param file    the path of the file read, or {@code null}
+	 * @param lenient whether the data is read in the lenient mode
+	 *
+	 * @return {@code null}
+	 */
+	static MTLParseEvent start(Path file, boolean lenient) {
+		return null;
+	}
+
+	/**
+	 * Ends the event and commits it with the specified metrics if it lasted long enough to be recorded.
+	 *
+	 * @param metrics the metrics of the parse
+	 */
+	void finish(MTLParseMetrics metrics) {}
+
+}
@@ -0,0 +1,230 @@
+package com.kaba4cow.mtlfile;
+
+import java.util.Objects;
+
+import com.kaba4cow.mtlfile.elements.MTLMap;
+
+/**
+ * The metrics of a single parse reported to {@link MTLMetricsListener#onParse(MTLParseMetrics)}. Only the statements
+ * reported to the {@link MTLHandler} are counted, so material statements before the first {@code newmtl} statement and
+ * statements skipped by the lenient parse mode are not.
+ */
+public final class MTLParseMetrics {
+
+	private static final MTLKeyword[] KEYWORDS = MTLKeyword.values();
+
+	private final long bytes;
+	private final int lines;
+	private final int[] statements;
+	private final long timeNanos;
+	private final long allocatedBytes;
+
+	private MTLParseMetrics(long bytes, int lines, int[] statements, long timeNanos, long allocatedBytes) {
+		this.bytes = bytes;
+		this.lines = lines;
+		this.statements = statements;
+		this.timeNanos = timeNanos;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * Returns the amount of data read. It is a number of bytes when the data is read from a file or a
+	 * {@link java.nio.ByteBuffer}, and a number of characters when it is read from a {@link java.io.Reader} or a string.
+	 *
+	 * @return the amount of data read
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Returns the number of lines read, including empty lines and comments.
+	 *
+	 * @return the number of lines
+	 */
+	public int getLines() {
+		return lines;
+	}
+
+	/**
+	 * Returns the number of statements read with the specified keyword.
+	 *
+	 * @param keyword the keyword of the statements
+	 *
+	 * @return the number of statements
+	 */
+	public int getStatements(MTLKeyword keyword) {
+		Objects.requireNonNull(keyword, "Keyword must not be null");
+		return statements[keyword.ordinal()];
+	}
+
+	/**
+	 * Returns the total number of statements read.
+	 *
+	 * @return the number of statements
+	 */
+	public int getStatements() {
+		int total = 0;
+		for (int count : statements)
+			total += count;
+		return total;
+	}
+
+	/**
+	 * Returns the number of materials read.
+	 *
+	 * @return the number of {@code newmtl} statements
+	 */
+	public int getMaterials() {
+		return statements[MTLKeyword.NEW_MATERIAL.ordinal()];
+	}
+
+	/**
+	 * Returns the number of comments read.
+	 *
+	 * @return the number of comments
+	 */
+	public int getComments() {
+		return statements[MTLKeyword.COMMENT.ordinal()];
+	}
+
+	/**
+	 * Returns the wall time of the parse, including the time spent in the {@link MTLHandler}.
+	 *
+	 * @return the elapsed time in nanoseconds
+	 */
+	public long getTimeNanos() {
+		return timeNanos;
+	}
+
+	/**
+	 * Returns an estimate of the memory allocated by the parse, measured on the parsing thread, or on every thread taking
+	 * part in a parallel parse, including the allocations of the {@link MTLHandler}.
+	 *
+	 * @return the number of allocated bytes, or {@code -1} if the JVM cannot measure it
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder counts = new StringBuilder();
+		for (MTLKeyword keyword : KEYWORDS)
+			if (statements[keyword.ordinal()] > 0) {
+				if (counts.length() > 0)
+					counts.append(", ");
+				counts.append(keyword.getKeyword()).append('=').append(statements[keyword.ordinal()]);
+			}
+		return String.format("MTLParseMetrics [bytes=%s, lines=%s, statements={%s}, time=%.3f ms, allocated=%s]", bytes,
+				lines, counts, timeNanos / 1e6, allocatedBytes);
+	}
+
+	/**
+	 * An {@link MTLHandler} counting the statements passed on to another handler, used while a listener is installed or
+	 * the parse is recorded by the flight recorder.
+	 */
+	static final class Recorder implements MTLHandler {
+
+		private final MTLHandler handler;
+		private final MTLMetricsListener listener;
+		private final int[] statements;
+		private final long start;
+		private final long allocated;
+		private long mergedAllocated;
+
+		/**
+		 * Creates a recorder passing the statements on to the specified handler.
+		 *
+		 * @param handler  the handler to pass the statements on to, or {@code null} for a recorder only merging the
+		 *                 statements counted by other recorders
+		 * @param listener the listener to report the metrics to, or {@code null}
+		 */
+		Recorder(MTLHandler handler, MTLMetricsListener listener) {
+			this.handler = handler;
+			this.listener = listener;
+			this.statements = new int[KEYWORDS.length];
+			this.allocated = Objects.isNull(listener) ? -1L : MTLMetrics.allocatedBytes();
+			this.mergedAllocated = 0L;
+			this.start = System.nanoTime();
+		}
+
+		@Override
+		public void onComment(String text) {
+			statements[MTLKeyword.COMMENT.ordinal()]++;
+			handler.onComment(text);
+		}
+
+		@Override
+		public void onNewMaterial(String name) {
+			statements[MTLKeyword.NEW_MATERIAL.ordinal()]++;
+			handler.onNewMaterial(name);
+		}
+
+		@Override
+		public void onScalar(MTLKeyword keyword, float value) {
+			statements[keyword.ordinal()]++;
+			handler.onScalar(keyword, value);
+		}
+
+		@Override
+		public void onIllumination(MTLIllumination illumination) {
+			statements[MTLKeyword.ILLUMINATION.ordinal()]++;
+			handler.onIllumination(illumination);
+		}
+
+		@Override
+		public void onColor(MTLKeyword keyword, float r, float g, float b) {
+			statements[keyword.ordinal()]++;
+			handler.onColor(keyword, r, g, b);
+		}
+
+		@Override
+		public void onMap(MTLKeyword keyword, MTLMap map) {
+			statements[keyword.ordinal()]++;
+			handler.onMap(keyword, map);
+		}
+
+		/**
+		 * Returns the memory allocated by the current thread since this recorder was created.
+		 *
+		 * @return the number of allocated bytes, or {@code -1} if it is not measured
+		 */
+		long allocatedBytes() {
+			return allocated < 0L ? -1L : MTLMetrics.allocatedBytes() - allocated;
+		}
+
+		/**
+		 * Adds the statements counted by the recorder of a part of the data parsed on another thread, and the memory that
+		 * thread allocated meanwhile.
+		 *
+		 * @param part           the recorder of the part
+		 * @param allocatedBytes the memory allocated by the part, or {@code -1} if it is not measured
+		 */
+		void merge(Recorder part, long allocatedBytes) {
+			for (int i = 0; i < statements.length; i++)
+				statements[i] += part.statements[i];
+			if (allocatedBytes > 0L)
+				mergedAllocated += allocatedBytes;
+		}
+
+		/**
+		 * Stops measuring and reports the metrics to the listener, if any.
+		 *
+		 * @param bytes the amount of data read
+		 * @param lines the number of lines read
+		 *
+		 * @return the metrics of the parse
+		 */
+		MTLParseMetrics report(long bytes, int lines) {
+			long time = System.nanoTime() - start;
+			long allocated = this.allocated < 0L ? -1L : allocatedBytes() + mergedAllocated;
+			MTLParseMetrics metrics = new MTLParseMetrics(bytes, lines, statements, time, allocated);
+			if (Objects.nonNull(listener))
+				listener.onParse(metrics);
+			return metrics;
+		}
+
+	}
+
+}
@@ -1,22 +1,35 @@
 package com.kaba4cow.mtlfile;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import com.kaba4cow.mtlfile.elements.MTLBumpMap;
-import com.kaba4cow.mtlfile.elements.MTLColor;
-import com.kaba4cow.mtlfile.elements.MTLComment;
 import com.kaba4cow.mtlfile.elements.MTLMap;
-import com.kaba4cow.mtlfile.elements.MTLMaterial;
 
 /**
- * A utility class for reading MTL data from {@link Reader} or strings and converting it to {@link MTLLibrary} objects.
+ * A utility class for reading MTL data from {@link Reader} or strings and converting it to {@link MTLLibrary} objects, or
+ * reporting its statements to an {@link MTLHandler}. Apart from the lenient methods, an invalid number fails with a
+ * {@link NumberFormatException}, and an unknown illumination model or a map statement without a file with an
+ * {@link IOException}, which the methods reading a {@link ByteBuffer} wrap into an {@link UncheckedIOException}.
  */
 public class MTLParser {
 
+	private static final long MAPPING_THRESHOLD = 1L << 16;
+	private static final MTLIllumination[] ILLUMINATIONS = MTLIllumination.values();
+
 	private MTLParser() {}
 
 	/**
@@ -33,134 +46,711 @@ public class MTLParser {
 	 * @throws IOException if an I/O error occurs
 	 */
 	public static MTLLibrary parse(Reader source, MTLLibrary target) throws IOException {
+		return parse(source, target, null);
+	}
+
+	/**
+	 * Reads the MTL data the same way {@link #parse(Reader, MTLLibrary)} does, sharing repeated colors, maps, material names
+	 * and map file paths through the specified {@link MTLInterner}.
+	 * 
+	 * @param source   the {@link Reader} to read the MTL data from
+	 * @param target   the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * @param interner the {@link MTLInterner} to share the values through, or {@code null} not to share them
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static MTLLibrary parse(Reader source, MTLLibrary target, MTLInterner interner) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		target = prepare(target);
+		read(source, new MTLLibraryBuilder(target, interner));
+		return target;
+	}
+
+	/**
+	 * Reads the UTF-8 encoded MTL data from the specified file and converts its contents to an {@link MTLLibrary} object.
+	 * Large files are mapped into memory and scanned in place.
+	 * 
+	 * @param source the path of the file to read the MTL data from
+	 * @param target the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 * 
+	 * @see #parse(Reader, MTLLibrary)
+	 * @see #read(FileChannel, MTLHandler)
+	 */
+	public static MTLLibrary parse(Path source, MTLLibrary target) throws IOException {
+		return parse(source, target, null);
+	}
+
+	/**
+	 * Reads the MTL data the same way {@link #parse(Path, MTLLibrary)} does, sharing repeated colors, maps, material names
+	 * and map file paths through the specified {@link MTLInterner}.
+	 * 
+	 * @param source   the {@link Path} to read the MTL data from
+	 * @param target   the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * @param interner the {@link MTLInterner} to share the values through, or {@code null} not to share them
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static MTLLibrary parse(Path source, MTLLibrary target, MTLInterner interner) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		target = prepare(target);
+		read(source, new MTLLibraryBuilder(target, interner));
+		return target;
+	}
+
+	/**
+	 * Reads the MTL data from the specified {@link Reader} the same way {@link #parse(Reader, MTLLibrary)} does, but in the
+	 * lenient mode: statements with invalid or missing values are skipped, or repaired where possible, and reported to the
+	 * specified {@link MTLDiagnostics} instead of throwing an exception, so that a dirty file is parsed as far as possible.
+	 * 
+	 * @param source      the {@link Reader} to read the MTL data from
+	 * @param target      the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * @param diagnostics the {@link MTLDiagnostics} to report the problems to
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static MTLLibrary parseLenient(Reader source, MTLLibrary target, MTLDiagnostics diagnostics)
+			throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		target = prepare(target);
+		readLenient(source, new MTLLibraryBuilder(target, null), diagnostics);
+		return target;
+	}
+
+	/**
+	 * Reads the UTF-8 encoded MTL data from the specified file the same way {@link #parse(Path, MTLLibrary)} does, but in the
+	 * lenient mode described in {@link #parseLenient(Reader, MTLLibrary, MTLDiagnostics)}.
+	 * 
+	 * @param source      the path of the file to read the MTL data from
+	 * @param target      the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * @param diagnostics the {@link MTLDiagnostics} to report the problems to
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static MTLLibrary parseLenient(Path source, MTLLibrary target, MTLDiagnostics diagnostics) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		target = prepare(target);
+		readLenient(source, new MTLLibraryBuilder(target, null), diagnostics);
+		return target;
+	}
+
+	/**
+	 * Reads the UTF-8 encoded MTL data from the remaining bytes of the specified {@link ByteBuffer} the same way
+	 * {@link #parse(ByteBuffer, MTLLibrary)} does, but in the lenient mode described in
+	 * {@link #parseLenient(Reader, MTLLibrary, MTLDiagnostics)}.
+	 * 
+	 * @param source      the {@link ByteBuffer} to read the MTL data from
+	 * @param target      the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * @param diagnostics the {@link MTLDiagnostics} to report the problems to
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 */
+	public static MTLLibrary parseLenient(ByteBuffer source, MTLLibrary target, MTLDiagnostics diagnostics) {
+		Objects.requireNonNull(source, "Source must not be null");
+		target = prepare(target);
+		readLenient(source, new MTLLibraryBuilder(target, null), diagnostics);
+		return target;
+	}
+
+	/**
+	 * Reads the UTF-8 encoded MTL data from the current position of the specified {@link FileChannel} and converts its
+	 * contents to an {@link MTLLibrary} object. The channel is closed afterwards.
+	 * 
+	 * @param source the {@link FileChannel} to read the MTL data from
+	 * @param target the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 * 
+	 * @see #parse(Reader, MTLLibrary)
+	 * @see #read(FileChannel, MTLHandler)
+	 */
+	public static MTLLibrary parse(FileChannel source, MTLLibrary target) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		target = prepare(target);
+		read(source, new MTLLibraryBuilder(target, null));
+		return target;
+	}
+
+	/**
+	 * Reads the UTF-8 encoded MTL data from the remaining bytes of the specified {@link ByteBuffer} and converts its contents
+	 * to an {@link MTLLibrary} object. The position of the buffer is not changed.
+	 * 
+	 * @param source the {@link ByteBuffer} to read the MTL data from
+	 * @param target the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 * 
+	 * @see #parse(Reader, MTLLibrary)
+	 */
+	public static MTLLibrary parse(ByteBuffer source, MTLLibrary target) {
+		return parse(source, target, null);
+	}
+
+	/**
+	 * Reads the MTL data the same way {@link #parse(ByteBuffer, MTLLibrary)} does, sharing repeated colors, maps, material names
+	 * and map file paths through the specified {@link MTLInterner}.
+	 * 
+	 * @param source   the {@link ByteBuffer} to read the MTL data from
+	 * @param target   the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * @param interner the {@link MTLInterner} to share the values through, or {@code null} not to share them
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 */
+	public static MTLLibrary parse(ByteBuffer source, MTLLibrary target, MTLInterner interner) {
+		Objects.requireNonNull(source, "Source must not be null");
+		target = prepare(target);
+		read(source, new MTLLibraryBuilder(target, interner));
+		return target;
+	}
+
+	/**
+	 * Reads a part of UTF-8 encoded MTL data, such as the {@code newmtl} block of a single material, from the remaining bytes
+	 * of the specified {@link ByteBuffer} and converts its contents to an {@link MTLLibrary} object. The lines are numbered
+	 * after the specified number of lines preceding the part, so errors report the line of the whole data. Unlike
+	 * {@link #parse(ByteBuffer, MTLLibrary)}, an invalid statement fails with an {@link IOException}. The position of the
+	 * buffer is not changed.
+	 * 
+	 * @param source the {@link ByteBuffer} to read the MTL data from
+	 * @param line   the number of lines preceding the part
+	 * @param target the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 * 
+	 * @throws IOException              if an unknown illumination model or a map statement without a file is read
+	 * @throws IllegalArgumentException if the number of lines is negative
+	 */
+	public static MTLLibrary parseBlock(ByteBuffer source, int line, MTLLibrary target) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		if (line < 0)
+			throw new IllegalArgumentException("Line must not be negative");
+		target = prepare(target);
+		read(new MTLBufferTokenizer(source, line), null, new MTLLibraryBuilder(target, null), null);
+		return target;
+	}
+
+	/**
+	 * Reads the UTF-8 encoded MTL data from the specified file and converts its contents to an {@link MTLLibrary} object,
+	 * parsing parts of the file in parallel using the {@link ForkJoinPool#commonPool() common pool}.
+	 * 
+	 * @param source the path of the file to read the MTL data from
+	 * @param target the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 * 
+	 * @see #parseParallel(Path, MTLLibrary, Executor)
+	 */
+	public static MTLLibrary parseParallel(Path source, MTLLibrary target) throws IOException {
+		return parseParallel(source, target, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Reads the UTF-8 encoded MTL data from the specified file and converts its contents to an {@link MTLLibrary} object,
+	 * parsing parts of the file in parallel using the specified {@link Executor}. The file is mapped into memory and split
+	 * at {@code newmtl} statements, the result is the same as the one of {@link #parse(Path, MTLLibrary)}, including the
+	 * order of comments and materials. Files too small to benefit from it, or too large to be mapped as a whole, are parsed
+	 * sequentially.
+	 * 
+	 * @param source   the path of the file to read the MTL data from
+	 * @param target   the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * @param executor the {@link Executor} to parse the parts of the file with
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static MTLLibrary parseParallel(Path source, MTLLibrary target, Executor executor) throws IOException {
 		Objects.requireNonNull(source, "Source must not be null");
+		Objects.requireNonNull(executor, "Executor must not be null");
+		try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < 2L * MTLParallelParser.MIN_CHUNK_SIZE || size > Integer.MAX_VALUE)
+				return parse(channel, target);
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+			return MTLParallelParser.parse(buffer, source, prepare(target), executor);
+		}
+	}
+
+	/**
+	 * Reads the UTF-8 encoded MTL data from the remaining bytes of the specified {@link ByteBuffer} and converts its contents
+	 * to an {@link MTLLibrary} object, parsing parts of the buffer in parallel using the specified {@link Executor}. The
+	 * buffer is split at {@code newmtl} statements, the result is the same as the one of
+	 * {@link #parse(ByteBuffer, MTLLibrary)}, including the order of comments and materials and the line numbers of the
+	 * errors. The position of the buffer is not changed.
+	 * 
+	 * @param source   the {@link ByteBuffer} to read the MTL data from
+	 * @param target   the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * @param executor the {@link Executor} to parse the parts of the buffer with
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 */
+	public static MTLLibrary parseParallel(ByteBuffer source, MTLLibrary target, Executor executor) {
+		Objects.requireNonNull(source, "Source must not be null");
+		Objects.requireNonNull(executor, "Executor must not be null");
+		try {
+			return MTLParallelParser.parse(source, null, prepare(target), executor);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	/**
+	 * Creates a new library if the target is {@code null}, or clears the target otherwise.
+	 */
+	static MTLLibrary prepare(MTLLibrary target) {
 		if (Objects.isNull(target))
-			target = new MTLLibrary();
-		else
-			target.clearComments().clearMaterials();
-		MTLMaterial material = null;
-		BufferedReader reader = new BufferedReader(source);
-		String line;
-		while ((line = reader.readLine()) != null) {
-			line = line.trim();
-			if (line.isEmpty())
-				continue;
-			String[] parts = line.split("\\s+");
-			if (parts.length > 1)
-				switch (parts[0]) {
-					case "#":
-						target.addComment(new MTLComment().setText(line.split("\\s+", 2)[1]));
-						break;
-					case "newmtl":
-						if (Objects.nonNull(material))
-							target.addMaterial(material);
-						material = new MTLMaterial().setName(parts[1]);
-						break;
-					case "d":
-					case "Tr":
-						if (Objects.nonNull(material))
-							material.setTransparency(Float.parseFloat(parts[1]));
-						break;
-					case "Ns":
-						if (Objects.nonNull(material))
-							material.setSpecularExponent(Float.parseFloat(parts[1]));
-						break;
-					case "illum":
-						if (Objects.nonNull(material))
-							material.setIllumination(MTLIllumination.values()[Integer.parseInt(parts[1])]);
-						break;
-					case "Ka":
-						if (Objects.nonNull(material))
-							material.setAmbientColor(parseColor(parts));
-						break;
-					case "Kd":
-						if (Objects.nonNull(material))
-							material.setDiffuseColor(parseColor(parts));
-						break;
-					case "Ks":
-						if (Objects.nonNull(material))
-							material.setSpecularColor(parseColor(parts));
-						break;
-					case "map_Ka":
-						if (Objects.nonNull(material))
-							material.setAmbientMap(parseMap(parts));
-						break;
-					case "map_Kd":
-						if (Objects.nonNull(material))
-							material.setDiffuseMap(parseMap(parts));
-						break;
-					case "map_Ks":
-						if (Objects.nonNull(material))
-							material.setSpecularMap(parseMap(parts));
-						break;
-					case "map_d":
-						if (Objects.nonNull(material))
-							material.setTransparencyMap(parseMap(parts));
-						break;
-					case "map_Bump":
-					case "bump":
-						if (Objects.nonNull(material))
-							material.setBumpMap(parseBumpMap(parts));
-						break;
-					default:
-						break;
-				}
+			return new MTLLibrary();
+		return target.clearComments().clearMaterials();
+	}
+
+	/**
+	 * Reads the MTL data from the specified {@link Reader} and reports its statements to the specified
+	 * {@link MTLHandler} as they are read, without building an {@link MTLLibrary}. Only the current line is kept in memory.
+	 * The source is closed afterwards.
+	 * 
+	 * @param source  the {@link Reader} to read the MTL data from
+	 * @param handler the {@link MTLHandler} to report the statements to
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static void read(Reader source, MTLHandler handler) throws IOException {
+		read(source, handler, null);
+	}
+
+	/**
+	 * Reads the MTL data from the specified {@link Reader} the same way {@link #read(Reader, MTLHandler)} does, but in the
+	 * lenient mode: statements with invalid or missing values are skipped, or repaired where possible, and reported to the
+	 * specified {@link MTLDiagnostics} instead of throwing an exception. Only valid values are reported to the handler.
+	 * 
+	 * @param source      the {@link Reader} to read the MTL data from
+	 * @param handler     the {@link MTLHandler} to report the statements to
+	 * @param diagnostics the {@link MTLDiagnostics} to report the problems to
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 * 
+	 * @see #parseLenient(Reader, MTLLibrary, MTLDiagnostics)
+	 */
+	public static void readLenient(Reader source, MTLHandler handler, MTLDiagnostics diagnostics) throws IOException {
+		Objects.requireNonNull(diagnostics, "Diagnostics must not be null");
+		read(source, handler, diagnostics);
+	}
+
+	private static void read(Reader source, MTLHandler handler, MTLDiagnostics diagnostics) throws IOException {
+		read(source, null, handler, diagnostics);
+	}
+
+	private static void read(Reader source, Path file, MTLHandler handler, MTLDiagnostics diagnostics)
+			throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		Objects.requireNonNull(handler, "Handler must not be null");
+		try (Reader reader = source) {
+			read(new MTLReaderTokenizer(reader), file, handler, diagnostics);
 		}
-		if (Objects.nonNull(material))
-			target.addMaterial(material);
-		reader.close();
-		return target;
 	}
 
-	private static MTLColor parseColor(String[] parts) {
-		return new MTLColor()//
-				.setR(Float.parseFloat(parts[1]))//
-				.setG(Float.parseFloat(parts[2]))//
-				.setB(Float.parseFloat(parts[3]));
+	/**
+	 * Reads the UTF-8 encoded MTL data from the specified file and reports its statements to the specified
+	 * {@link MTLHandler} as they are read.
+	 * 
+	 * @param source  the path of the file to read the MTL data from
+	 * @param handler the {@link MTLHandler} to report the statements to
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 * 
+	 * @see #read(FileChannel, MTLHandler)
+	 */
+	public static void read(Path source, MTLHandler handler) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		read(FileChannel.open(source, StandardOpenOption.READ), source, handler, null);
+	}
+
+	/**
+	 * Reads the UTF-8 encoded MTL data from the specified file the same way {@link #read(Path, MTLHandler)} does, but in the
+	 * lenient mode described in {@link #readLenient(Reader, MTLHandler, MTLDiagnostics)}.
+	 * 
+	 * @param source      the path of the file to read the MTL data from
+	 * @param handler     the {@link MTLHandler} to report the statements to
+	 * @param diagnostics the {@link MTLDiagnostics} to report the problems to
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static void readLenient(Path source, MTLHandler handler, MTLDiagnostics diagnostics) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		Objects.requireNonNull(diagnostics, "Diagnostics must not be null");
+		read(FileChannel.open(source, StandardOpenOption.READ), source, handler, diagnostics);
+	}
+
+	/**
+	 * Reads the UTF-8 encoded MTL data from the current position of the specified {@link FileChannel} and reports its
+	 * statements to the specified {@link MTLHandler} as they are read. Small files are read into memory at once, larger ones
+	 * are mapped into memory, in both cases the bytes are scanned in place. Files too large to be mapped as a whole are
+	 * decoded and read as a stream. The channel is closed afterwards.
+	 * 
+	 * @param source  the {@link FileChannel} to read the MTL data from
+	 * @param handler the {@link MTLHandler} to report the statements to
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static void read(FileChannel source, MTLHandler handler) throws IOException {
+		read(source, null, handler, null);
+	}
+
+	private static void read(FileChannel source, Path file, MTLHandler handler, MTLDiagnostics diagnostics)
+			throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		Objects.requireNonNull(handler, "Handler must not be null");
+		try (FileChannel channel = source) {
+			long start = channel.position();
+			long size = channel.size() - start;
+			if (size > Integer.MAX_VALUE)
+				read(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1), file, handler, diagnostics);
+			else
+				read(new MTLBufferTokenizer(load(channel, start, (int) size)), file, handler, diagnostics);
+		}
+	}
+
+	/**
+	 * Reads the specified range of a file, starting at the current position of the channel, into memory if it is small, or
+	 * maps it into memory otherwise.
+	 */
+	static ByteBuffer load(FileChannel channel, long start, int size) throws IOException {
+		if (size >= MAPPING_THRESHOLD)
+			return channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+			continue;
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Reads the UTF-8 encoded MTL data from the remaining bytes of the specified {@link ByteBuffer} and reports its
+	 * statements to the specified {@link MTLHandler} as they are read. The bytes are scanned in place, only names, comments
+	 * and file paths are decoded to strings. The position of the buffer is not changed.
+	 * 
+	 * @param source  the {@link ByteBuffer} to read the MTL data from
+	 * @param handler the {@link MTLHandler} to report the statements to
+	 */
+	public static void read(ByteBuffer source, MTLHandler handler) {
+		read(source, handler, null);
 	}
 
-	private static MTLMap parseMap(String[] parts) {
-		MTLMap map = new MTLMap();
-		int pointer = 1;
-		while (pointer < parts.length) {
-			switch (parts[pointer]) {
-				case "-s ":
-					map.setScale(Float.parseFloat(parts[++pointer]));
+	/**
+	 * Reads the UTF-8 encoded MTL data from the remaining bytes of the specified {@link ByteBuffer} the same way
+	 * {@link #read(ByteBuffer, MTLHandler)} does, but in the lenient mode described in
+	 * {@link #readLenient(Reader, MTLHandler, MTLDiagnostics)}.
+	 * 
+	 * @param source      the {@link ByteBuffer} to read the MTL data from
+	 * @param handler     the {@link MTLHandler} to report the statements to
+	 * @param diagnostics the {@link MTLDiagnostics} to report the problems to
+	 */
+	public static void readLenient(ByteBuffer source, MTLHandler handler, MTLDiagnostics diagnostics) {
+		Objects.requireNonNull(diagnostics, "Diagnostics must not be null");
+		read(source, handler, diagnostics);
+	}
+
+	private static void read(ByteBuffer source, MTLHandler handler, MTLDiagnostics diagnostics) {
+		Objects.requireNonNull(source, "Source must not be null");
+		Objects.requireNonNull(handler, "Handler must not be null");
+		try {
+			read(new MTLBufferTokenizer(source), null, handler, diagnostics);
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	private static void read(MTLTokenizer tokenizer, Path file, MTLHandler handler, MTLDiagnostics diagnostics)
+			throws IOException {
+		MTLMetricsListener listener = MTLMetrics.getListener();
+		MTLParseEvent event = MTLFlightRecorder.isAvailable() ? MTLParseEvent.start(file, Objects.nonNull(diagnostics))
+				: null;
+		MTLParseMetrics.Recorder recorder = null;
+		if (Objects.nonNull(listener) || Objects.nonNull(event))
+			handler = recorder = new MTLParseMetrics.Recorder(handler, listener);
+		if (Objects.isNull(diagnostics))
+			read(tokenizer, handler);
+		else
+			readLenient(tokenizer, handler, diagnostics);
+		if (Objects.nonNull(recorder)) {
+			MTLParseMetrics metrics = recorder.report(tokenizer.consumed(), tokenizer.line);
+			if (Objects.nonNull(event))
+				event.finish(metrics);
+		}
+	}
+
+	/**
+	 * Reads the statements of the tokenizer in the strict mode and reports them to the handler, without measuring the parse.
+	 */
+	static void read(MTLTokenizer tokenizer, MTLHandler handler) throws IOException {
+		boolean material = false;
+		while (tokenizer.nextLine()) {
+			if (!tokenizer.nextToken())
+				continue;
+			MTLKeyword keyword = tokenizer.keyword();
+			if (Objects.isNull(keyword) || !tokenizer.hasMoreTokens())
+				continue;
+			if (keyword == MTLKeyword.COMMENT) {
+				handler.onComment(tokenizer.rest());
+				continue;
+			}
+			if (keyword == MTLKeyword.NEW_MATERIAL) {
+				tokenizer.nextToken();
+				handler.onNewMaterial(tokenizer.token());
+				material = true;
+				continue;
+			}
+			if (!material)
+				continue;
+			switch (keyword) {
+				case TRANSPARENCY:
+				case SPECULAR_EXPONENT:
+					handler.onScalar(keyword, tokenizer.nextFloat());
+					break;
+				case ILLUMINATION:
+					handler.onIllumination(illumination(tokenizer, tokenizer.nextInt()));
 					break;
-				case "-o ":
-					map.setOffset(Float.parseFloat(parts[++pointer]));
+				case AMBIENT_COLOR:
+				case DIFFUSE_COLOR:
+				case SPECULAR_COLOR:
+					handler.onColor(keyword, tokenizer.nextFloat(), tokenizer.nextFloat(), tokenizer.nextFloat());
 					break;
-				case "-t ":
-					map.setTransform(true);
+				case AMBIENT_MAP:
+				case DIFFUSE_MAP:
+				case SPECULAR_MAP:
+				case TRANSPARENCY_MAP:
+					handler.onMap(keyword, parseMap(tokenizer, new MTLMap()));
+					break;
+				case BUMP_MAP:
+					handler.onMap(keyword, parseMap(tokenizer, new MTLBumpMap()));
+					break;
+				default:
 					break;
 			}
-			pointer++;
 		}
-		map.setFile(parts[pointer]);
-		return map;
 	}
 
-	private static MTLBumpMap parseBumpMap(String[] parts) {
-		MTLBumpMap map = new MTLBumpMap();
-		int pointer = 1;
-		while (pointer < parts.length) {
-			switch (parts[pointer]) {
-				case "-s ":
-					map.setScale(Float.parseFloat(parts[++pointer]));
+	/**
+	 * Reads the UTF-8 encoded MTL data from the specified {@link InputStream} and reports its statements to the specified
+	 * {@link MTLHandler} as they are read. The source is closed afterwards.
+	 * 
+	 * @param source  the {@link InputStream} to read the MTL data from
+	 * @param handler the {@link MTLHandler} to report the statements to
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 * 
+	 * @see #read(Reader, MTLHandler)
+	 */
+	public static void read(InputStream source, MTLHandler handler) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		read(new InputStreamReader(source, StandardCharsets.UTF_8), handler);
+	}
+
+	/**
+	 * Reads the MTL data from the specified string and reports its statements to the specified {@link MTLHandler}.
+	 * 
+	 * @param source  the string to read the MTL data from
+	 * @param handler the {@link MTLHandler} to report the statements to
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 * 
+	 * @see #read(Reader, MTLHandler)
+	 */
+	public static void read(String source, MTLHandler handler) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		read(new StringReader(source), handler);
+	}
+
+	/**
+	 * Reads the statements the same way {@link #read(MTLTokenizer, MTLHandler)} does, validating every value before parsing
+	 * it. A statement with an invalid value is skipped, and an option of a map statement with an invalid value is ignored,
+	 * its value being read as the next option or the file.
+	 */
+	private static void readLenient(MTLTokenizer tokenizer, MTLHandler handler, MTLDiagnostics diagnostics)
+			throws IOException {
+		boolean material = false;
+		while (tokenizer.nextLine()) {
+			if (!tokenizer.nextToken())
+				continue;
+			MTLKeyword keyword = tokenizer.keyword();
+			if (Objects.isNull(keyword))
+				continue;
+			int column = tokenizer.column(tokenizer.tokenStart);
+			if (!tokenizer.hasMoreTokens()) {
+				if (keyword != MTLKeyword.COMMENT)
+					diagnostics.add(tokenizer.line, tokenizer.column(tokenizer.lineEnd), MTLDiagnosticCode.MISSING_VALUE);
+				continue;
+			}
+			if (keyword == MTLKeyword.COMMENT) {
+				handler.onComment(tokenizer.rest());
+				continue;
+			}
+			if (keyword == MTLKeyword.NEW_MATERIAL) {
+				tokenizer.nextToken();
+				handler.onNewMaterial(tokenizer.token());
+				material = true;
+				continue;
+			}
+			if (!material) {
+				diagnostics.add(tokenizer.line, column, MTLDiagnosticCode.STATEMENT_OUTSIDE_MATERIAL);
+				continue;
+			}
+			switch (keyword) {
+				case TRANSPARENCY:
+				case SPECULAR_EXPONENT:
+					if (nextFloat(tokenizer, diagnostics))
+						handler.onScalar(keyword, tokenFloat(tokenizer));
 					break;
-				case "-o ":
-					map.setOffset(Float.parseFloat(parts[++pointer]));
+				case ILLUMINATION:
+					tokenizer.nextToken();
+					if (!MTLNumbers.isInt(tokenizer, tokenizer.tokenStart, tokenizer.tokenEnd))
+						diagnostics.add(tokenizer.line, tokenizer.column(tokenizer.tokenStart),
+								MTLDiagnosticCode.INVALID_NUMBER);
+					else {
+						int model = MTLNumbers.parseInt(tokenizer, tokenizer.tokenStart, tokenizer.tokenEnd);
+						if (model >= 0 && model < ILLUMINATIONS.length)
+							handler.onIllumination(ILLUMINATIONS[model]);
+						else
+							diagnostics.add(tokenizer.line, tokenizer.column(tokenizer.tokenStart),
+									MTLDiagnosticCode.INVALID_ILLUMINATION);
+					}
 					break;
-				case "-bm ":
-					map.setIntensity(Float.parseFloat(parts[++pointer]));
+				case AMBIENT_COLOR:
+				case DIFFUSE_COLOR:
+				case SPECULAR_COLOR:
+					if (!nextFloat(tokenizer, diagnostics))
+						break;
+					float r = tokenFloat(tokenizer);
+					if (!nextFloat(tokenizer, diagnostics))
+						break;
+					float g = tokenFloat(tokenizer);
+					if (nextFloat(tokenizer, diagnostics))
+						handler.onColor(keyword, r, g, tokenFloat(tokenizer));
+					break;
+				case AMBIENT_MAP:
+				case DIFFUSE_MAP:
+				case SPECULAR_MAP:
+				case TRANSPARENCY_MAP:
+					MTLMap map = parseMap(tokenizer, new MTLMap(), diagnostics, column);
+					if (Objects.nonNull(map))
+						handler.onMap(keyword, map);
 					break;
-				case "-t ":
-					map.setTransform(true);
+				case BUMP_MAP:
+					MTLBumpMap bumpMap = parseMap(tokenizer, new MTLBumpMap(), diagnostics, column);
+					if (Objects.nonNull(bumpMap))
+						handler.onMap(keyword, bumpMap);
+					break;
+				default:
 					break;
 			}
-			pointer++;
 		}
-		map.setFile(parts[pointer]);
+	}
+
+	/**
+	 * Advances to the next token and checks that it is a number, reporting a diagnostic if it is missing or invalid.
+	 */
+	private static boolean nextFloat(MTLTokenizer tokenizer, MTLDiagnostics diagnostics) {
+		if (!tokenizer.nextToken()) {
+			diagnostics.add(tokenizer.line, tokenizer.column(tokenizer.lineEnd), MTLDiagnosticCode.MISSING_VALUE);
+			return false;
+		}
+		if (MTLNumbers.isFloat(tokenizer, tokenizer.tokenStart, tokenizer.tokenEnd))
+			return true;
+		diagnostics.add(tokenizer.line, tokenizer.column(tokenizer.tokenStart), MTLDiagnosticCode.INVALID_NUMBER);
+		return false;
+	}
+
+	private static float tokenFloat(MTLTokenizer tokenizer) {
+		return MTLNumbers.parseFloat(tokenizer, tokenizer.tokenStart, tokenizer.tokenEnd);
+	}
+
+	/**
+	 * Parses a map statement the same way {@link #parseMap(MTLTokenizer, MTLMap)} does without throwing, or returns
+	 * {@code null} if the statement has no file.
+	 */
+	private static <T extends MTLMap> T parseMap(MTLTokenizer tokenizer, T map, MTLDiagnostics diagnostics, int column) {
+		String file = null;
+		while (tokenizer.nextToken())
+			if (tokenizer.tokenEquals("-s")) {
+				if (nextOptionValue(tokenizer, diagnostics))
+					map.setScale(tokenFloat(tokenizer));
+			} else if (tokenizer.tokenEquals("-o")) {
+				if (nextOptionValue(tokenizer, diagnostics))
+					map.setOffset(tokenFloat(tokenizer));
+			} else if (tokenizer.tokenEquals("-t"))
+				map.setTransform(true);
+			else if (tokenizer.tokenEquals("-bm") && map instanceof MTLBumpMap) {
+				if (nextOptionValue(tokenizer, diagnostics))
+					((MTLBumpMap) map).setIntensity(tokenFloat(tokenizer));
+			} else
+				file = tokenizer.token();
+		if (Objects.isNull(file)) {
+			diagnostics.add(tokenizer.line, column, MTLDiagnosticCode.MISSING_MAP_FILE);
+			return null;
+		}
+		map.setFile(file);
+		return map;
+	}
+
+	/**
+	 * Advances to the value of an option, or, if it is not a valid number, goes back so that it is read as the next token.
+	 */
+	private static boolean nextOptionValue(MTLTokenizer tokenizer, MTLDiagnostics diagnostics) {
+		int option = tokenizer.position;
+		if (nextFloat(tokenizer, diagnostics))
+			return true;
+		tokenizer.position = option;
+		return false;
+	}
+
+	private static MTLIllumination illumination(MTLTokenizer tokenizer, int model) throws IOException {
+		if (model < 0 || model >= ILLUMINATIONS.length)
+			throw new IOException("Invalid illumination model " + model + " on line " + tokenizer.line);
+		return ILLUMINATIONS[model];
+	}
+
+	private static <T extends MTLMap> T parseMap(MTLTokenizer tokenizer, T map) throws IOException {
+		String file = null;
+		while (tokenizer.nextToken())
+			if (tokenizer.tokenEquals("-s"))
+				map.setScale(tokenizer.nextFloat());
+			else if (tokenizer.tokenEquals("-o"))
+				map.setOffset(tokenizer.nextFloat());
+			else if (tokenizer.tokenEquals("-t"))
+				map.setTransform(true);
+			else if (tokenizer.tokenEquals("-bm") && map instanceof MTLBumpMap)
+				((MTLBumpMap) map).setIntensity(tokenizer.nextFloat());
+			else
+				file = tokenizer.token();
+		if (Objects.isNull(file))
+			throw new IOException("Missing map file on line " + tokenizer.line);
+		map.setFile(file);
 		return map;
 	}
 
@@ -181,4 +771,39 @@ public class MTLParser {
 		return parse(new StringReader(source), target);
 	}
 
+	/**
+	 * Reads the MTL data the same way {@link #parse(String, MTLLibrary)} does, sharing repeated colors, maps, material names
+	 * and map file paths through the specified {@link MTLInterner}.
+	 * 
+	 * @param source   the string to read the MTL data from
+	 * @param target   the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * @param interner the {@link MTLInterner} to share the values through, or {@code null} not to share them
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static MTLLibrary parse(String source, MTLLibrary target, MTLInterner interner) throws IOException {
+		return parse(new StringReader(source), target, interner);
+	}
+
+	/**
+	 * Reads the MTL data from the specified string the same way {@link #parse(String, MTLLibrary)} does, but in the lenient
+	 * mode described in {@link #parseLenient(Reader, MTLLibrary, MTLDiagnostics)}.
+	 * 
+	 * @param source      the string to read the MTL data from
+	 * @param target      the {@link MTLLibrary} to convert the MTL data to, or {@code null}
+	 * @param diagnostics the {@link MTLDiagnostics} to report the problems to
+	 * 
+	 * @return the {@link MTLLibrary} containing the data, either the passed one or a newly created one if {@code target} is
+	 *             {@code null}
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static MTLLibrary parseLenient(String source, MTLLibrary target, MTLDiagnostics diagnostics)
+			throws IOException {
+		return parseLenient(new StringReader(source), target, diagnostics);
+	}
+
 }
@@ -0,0 +1,673 @@
+package com.kaba4cow.mtlfile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.kaba4cow.mtlfile.elements.MTLColor;
+import com.kaba4cow.mtlfile.elements.MTLComment;
+import com.kaba4cow.mtlfile.elements.MTLMap;
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * A set of changes turning one {@link MTLLibrary} into another, created by {@link #diff(MTLLibrary, MTLLibrary)}.
+ * Materials are matched by name, materials sharing a name by the order they appear in. The patch lists the removed
+ * materials by name, the added ones in full along with their position, and for every modified material only the
+ * statements that changed, so it is usually much smaller than the library itself. A patch is written with
+ * {@link #writeTo(MTLWriter)} in a line based format close to MTL, read back with {@link #parse(Reader)}, and applied to
+ * a library with {@link #apply(MTLLibrary)}.
+ * <p>
+ * The format consists of the following statements, the blocks of {@code add} and {@code modify} being terminated by an
+ * {@code end} line:
+ *
+ * <pre>
+ * comments 1
+ * # the new comments of the library, replacing the old ones
+ * remove name 0
+ * add 3
+ * newmtl name
+ * Kd 1.0 1.0 1.0
+ * end
+ * modify name 0
+ * Ns 10.0
+ * clear map_Kd
+ * end
+ * </pre>
+ *
+ * The number after the name of a removed or modified material is the number of materials with the same name before it.
+ */
+public final class MTLPatch implements MTLElement {
+
+	private static final MTLKeyword[] FIELDS = { //
+			MTLKeyword.TRANSPARENCY, //
+			MTLKeyword.SPECULAR_EXPONENT, //
+			MTLKeyword.ILLUMINATION, //
+			MTLKeyword.AMBIENT_COLOR, //
+			MTLKeyword.DIFFUSE_COLOR, //
+			MTLKeyword.SPECULAR_COLOR, //
+			MTLKeyword.AMBIENT_MAP, //
+			MTLKeyword.DIFFUSE_MAP, //
+			MTLKeyword.SPECULAR_MAP, //
+			MTLKeyword.TRANSPARENCY_MAP, //
+			MTLKeyword.BUMP_MAP //
+	};
+
+	private final List<MTLComment> comments;
+	private final List<Key> removed;
+	private final List<Addition> added;
+	private final List<Modification> modified;
+
+	private MTLPatch(List<MTLComment> comments, List<Key> removed, List<Addition> added, List<Modification> modified) {
+		this.comments = comments;
+		this.removed = removed;
+		this.added = added;
+		this.modified = modified;
+	}
+
+	/**
+	 * Computes the changes turning the source library into the target library. Materials are matched through a hash map,
+	 * so the time taken grows linearly with the number of materials. A material moved relative to the other matched
+	 * materials is recorded as removed and added again.
+	 *
+	 * @param source the library before the changes
+	 * @param target the library after the changes
+	 *
+	 * @return the patch turning the source into the target
+	 */
+	public static MTLPatch diff(MTLLibrary source, MTLLibrary target) {
+		Objects.requireNonNull(source, "Source must not be null");
+		Objects.requireNonNull(target, "Target must not be null");
+		List<MTLMaterial> sourceMaterials = source.getMaterials();
+		List<MTLMaterial> targetMaterials = target.getMaterials();
+		NameIndex index = new NameIndex(sourceMaterials);
+		int[] cursors = new int[sourceMaterials.size()];
+		for (int i = 0; i < cursors.length; i++)
+			cursors[i] = i;
+		boolean[] retained = new boolean[sourceMaterials.size()];
+		List<Addition> added = new ArrayList<>();
+		List<Modification> modified = new ArrayList<>();
+		int last = -1;
+		for (int i = 0; i < targetMaterials.size(); i++) {
+			MTLMaterial material = targetMaterials.get(i);
+			int first = index.first(material.getName());
+			int position = first < 0 ? -1 : cursors[first];
+			if (position >= 0)
+				cursors[first] = index.next[position];
+			if (position > last) {
+				last = position;
+				retained[position] = true;
+				Modification modification = compare(index.key(position), sourceMaterials.get(position), material);
+				if (Objects.nonNull(modification))
+					modified.add(modification);
+			} else
+				added.add(new Addition(i, material.copy()));
+		}
+		List<Key> removed = new ArrayList<>();
+		for (int i = 0; i < sourceMaterials.size(); i++)
+			if (!retained[i])
+				removed.add(index.key(i));
+		List<MTLComment> comments = null;
+		if (!Objects.equals(source.getComments(), target.getComments())) {
+			comments = new ArrayList<>();
+			for (MTLComment comment : target.getComments())
+				comments.add(comment.copy());
+		}
+		return new MTLPatch(comments, removed, added, modified);
+	}
+
+	/**
+	 * Reads a patch written by {@link #writeTo(MTLWriter)} from the specified {@link Reader}. The source is closed
+	 * afterwards.
+	 *
+	 * @param source the reader to read the patch from
+	 *
+	 * @return the patch
+	 *
+	 * @throws IOException if an I/O error occurs or the patch is malformed
+	 */
+	public static MTLPatch parse(Reader source) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		List<MTLComment> comments = null;
+		List<Key> removed = new ArrayList<>();
+		List<Addition> added = new ArrayList<>();
+		List<Modification> modified = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(source)) {
+			String line;
+			while (Objects.nonNull(line = reader.readLine())) {
+				String[] tokens = line.trim().split("\\s+");
+				try {
+					switch (tokens[0]) {
+						case "":
+							break;
+						case "comments":
+							StringBuilder lines = new StringBuilder();
+							for (int count = Integer.parseInt(tokens[1]); count > 0; count--)
+								lines.append(readLine(reader)).append('\n');
+							comments = new ArrayList<>(MTLParser.parse(lines.toString(), null).getComments());
+							break;
+						case "remove":
+							removed.add(new Key(tokens[1], Integer.parseInt(tokens[2])));
+							break;
+						case "add":
+							MTLLibrary library = MTLParser.parse(readBlock(reader, null), null);
+							if (library.getMaterials().size() != 1)
+								throw new IOException("Added block must contain exactly one material");
+							MTLMaterial material = library.getMaterial(0);
+							library.clearMaterials();
+							added.add(new Addition(Integer.parseInt(tokens[1]), material));
+							break;
+						case "modify":
+							Key key = new Key(tokens[1], Integer.parseInt(tokens[2]));
+							Set<MTLKeyword> fields = EnumSet.noneOf(MTLKeyword.class);
+							String block = "newmtl " + key.name + '\n' + readBlock(reader, fields);
+							MTLMaterial values = MTLParser.parse(block, null).getMaterial(0);
+							for (MTLKeyword field : FIELDS)
+								if (hasField(field, values))
+									fields.add(field);
+							modified.add(new Modification(key, values, fields));
+							break;
+						default:
+							throw new IOException("Unknown patch statement: " + line);
+					}
+				} catch (ArrayIndexOutOfBoundsException | NumberFormatException exception) {
+					throw new IOException("Malformed patch statement: " + line, exception);
+				}
+			}
+		}
+		return new MTLPatch(comments, removed, added, modified);
+	}
+
+	/**
+	 * Reads a patch written by {@link #writeTo(MTLWriter)} from the specified string.
+	 *
+	 * @param source the string to read the patch from
+	 *
+	 * @return the patch
+	 *
+	 * @throws IOException if the patch is malformed
+	 */
+	public static MTLPatch parse(String source) throws IOException {
+		Objects.requireNonNull(source, "Source must not be null");
+		return parse(new StringReader(source));
+	}
+
+	/**
+	 * Applies the changes to the specified library. The library should be equal to the source the patch was computed from,
+	 * at least as far as the removed and modified materials are concerned. Nothing is changed if a removed or modified
+	 * material is not found.
+	 *
+	 * @param library the library to apply the changes to
+	 *
+	 * @return the library
+	 *
+	 * @throws IllegalArgumentException      if a removed or modified material is not found in the library, or an added
+	 *                                           material does not fit in it
+	 * @throws UnsupportedOperationException if the library is frozen
+	 */
+	public MTLLibrary apply(MTLLibrary library) {
+		Objects.requireNonNull(library, "Library must not be null");
+		List<MTLMaterial> materials = library.getMaterials();
+		NameIndex index = new NameIndex(materials);
+		boolean[] dropped = new boolean[materials.size()];
+		for (Key key : removed) {
+			int position = index.find(key);
+			if (dropped[position])
+				throw new IllegalArgumentException("Material removed twice: " + key);
+			dropped[position] = true;
+		}
+		int[] targets = new int[modified.size()];
+		for (int i = 0; i < targets.length; i++)
+			targets[i] = index.find(modified.get(i).key);
+		int size = materials.size() - removed.size() + added.size();
+		int previous = -1;
+		for (Addition addition : added) {
+			if (addition.index <= previous || addition.index >= size)
+				throw new IllegalArgumentException("Material added out of place: " + addition.index);
+			previous = addition.index;
+		}
+
+		for (int i = 0; i < targets.length; i++) {
+			Modification modification = modified.get(i);
+			MTLMaterial material = library.editMaterial(targets[i]);
+			for (MTLKeyword field : modification.fields)
+				copyField(field, modification.values, material);
+		}
+		List<MTLMaterial> result = new ArrayList<>(size);
+		int next = 0;
+		int addition = 0;
+		for (int i = 0; i < size; i++)
+			if (addition < added.size() && added.get(addition).index == i)
+				result.add(added.get(addition++).material.copy());
+			else {
+				while (dropped[next])
+					next++;
+				result.add(library.getMaterial(next++));
+			}
+		library.replaceMaterials(0, materials.size(), result);
+		if (Objects.nonNull(comments)) {
+			library.clearComments();
+			for (MTLComment comment : comments)
+				library.addComment(comment.copy());
+		}
+		return library;
+	}
+
+	/**
+	 * Checks if the patch changes nothing.
+	 *
+	 * @return {@code true} if the patch is empty, {@code false} otherwise
+	 */
+	public boolean isEmpty() {
+		return Objects.isNull(comments) && removed.isEmpty() && added.isEmpty() && modified.isEmpty();
+	}
+
+	/**
+	 * Retrieves the names of the removed materials.
+	 *
+	 * @return an unmodifiable list of names
+	 */
+	public List<String> getRemovedMaterials() {
+		List<String> names = new ArrayList<>(removed.size());
+		for (Key key : removed)
+			names.add(key.name);
+		return Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * Retrieves the added materials, in the order they appear in the target library.
+	 *
+	 * @return an unmodifiable list of {@link MTLMaterial} objects
+	 */
+	public List<MTLMaterial> getAddedMaterials() {
+		List<MTLMaterial> materials = new ArrayList<>(added.size());
+		for (Addition addition : added)
+			materials.add(addition.material);
+		return Collections.unmodifiableList(materials);
+	}
+
+	/**
+	 * Retrieves the names of the modified materials.
+	 *
+	 * @return an unmodifiable list of names
+	 */
+	public List<String> getModifiedMaterials() {
+		List<String> names = new ArrayList<>(modified.size());
+		for (Modification modification : modified)
+			names.add(modification.key.name);
+		return Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * Checks if the patch replaces the comments of the library.
+	 *
+	 * @return {@code true} if the comments are changed, {@code false} otherwise
+	 */
+	public boolean areCommentsChanged() {
+		return Objects.nonNull(comments);
+	}
+
+	/**
+	 * Writes the patch in the format described in the class documentation.
+	 *
+	 * @param writer the writer to write the patch to
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void writeTo(MTLWriter writer) throws IOException {
+		if (Objects.nonNull(comments)) {
+			writer.append("comments ").append(comments.size()).append('\n');
+			for (MTLComment comment : comments) {
+				comment.writeTo(writer);
+				writer.append('\n');
+			}
+		}
+		for (Key key : removed)
+			writer.append("remove ").append(key.name).append(' ').append(key.occurrence).append('\n');
+		for (Addition addition : added) {
+			writer.append("add ").append(addition.index).append('\n');
+			addition.material.writeTo(writer);
+			writer.append("end\n");
+		}
+		for (Modification modification : modified) {
+			Key key = modification.key;
+			writer.append("modify ").append(key.name).append(' ').append(key.occurrence).append('\n');
+			for (MTLKeyword field : modification.fields)
+				if (hasField(field, modification.values))
+					writeField(writer, field, modification.values);
+				else
+					writer.append("clear ").append(field.getKeyword()).append('\n');
+			writer.append("end\n");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MTLPatch [removed=%s, added=%s, modified=%s, commentsChanged=%s]", removed.size(), added.size(),
+				modified.size(), areCommentsChanged());
+	}
+
+	/**
+	 * Reads the lines up to the next {@code end} line. The keywords of {@code clear} lines are added to the specified
+	 * fields if they are not {@code null}.
+	 */
+	private static String readBlock(BufferedReader reader, Set<MTLKeyword> fields) throws IOException {
+		StringBuilder block = new StringBuilder();
+		for (String line = readLine(reader); !line.trim().equals("end"); line = readLine(reader)) {
+			String[] tokens = line.trim().split("\\s+");
+			if (Objects.nonNull(fields) && tokens[0].equals("clear") && tokens.length > 1) {
+				MTLKeyword field = MTLKeyword.match(tokens[1], 0, tokens[1].length());
+				if (Objects.isNull(field) || field == MTLKeyword.COMMENT || field == MTLKeyword.NEW_MATERIAL)
+					throw new IOException("Unknown cleared statement: " + line);
+				fields.add(field);
+			} else
+				block.append(line).append('\n');
+		}
+		return block.toString();
+	}
+
+	private static String readLine(BufferedReader reader) throws IOException {
+		String line = reader.readLine();
+		if (Objects.isNull(line))
+			throw new IOException("Unexpected end of patch");
+		return line;
+	}
+
+	private static Modification compare(Key key, MTLMaterial source, MTLMaterial target) {
+		if (source.equals(target))
+			return null;
+		Set<MTLKeyword> fields = EnumSet.noneOf(MTLKeyword.class);
+		for (MTLKeyword field : FIELDS)
+			if (!sameField(field, source, target))
+				fields.add(field);
+		if (fields.isEmpty())
+			return null;
+		MTLMaterial values = new MTLMaterial().setName(key.name);
+		for (MTLKeyword field : fields)
+			copyField(field, target, values);
+		return new Modification(key, values, fields);
+	}
+
+	private static boolean sameField(MTLKeyword field, MTLMaterial first, MTLMaterial second) {
+		switch (field) {
+			case TRANSPARENCY:
+				return first.hasTransparency() == second.hasTransparency()
+						&& sameFloat(first.getTransparency(), second.getTransparency());
+			case SPECULAR_EXPONENT:
+				return first.hasSpecularExponent() == second.hasSpecularExponent()
+						&& sameFloat(first.getSpecularExponent(), second.getSpecularExponent());
+			case ILLUMINATION:
+				return first.getIllumination() == second.getIllumination();
+			case AMBIENT_COLOR:
+				return Objects.equals(first.getAmbientColor(), second.getAmbientColor());
+			case DIFFUSE_COLOR:
+				return Objects.equals(first.getDiffuseColor(), second.getDiffuseColor());
+			case SPECULAR_COLOR:
+				return Objects.equals(first.getSpecularColor(), second.getSpecularColor());
+			case AMBIENT_MAP:
+				return Objects.equals(first.getAmbientMap(), second.getAmbientMap());
+			case DIFFUSE_MAP:
+				return Objects.equals(first.getDiffuseMap(), second.getDiffuseMap());
+			case SPECULAR_MAP:
+				return Objects.equals(first.getSpecularMap(), second.getSpecularMap());
+			case TRANSPARENCY_MAP:
+				return Objects.equals(first.getTransparencyMap(), second.getTransparencyMap());
+			case BUMP_MAP:
+				return Objects.equals(first.getBumpMap(), second.getBumpMap());
+			default:
+				return true;
+		}
+	}
+
+	private static boolean hasField(MTLKeyword field, MTLMaterial material) {
+		switch (field) {
+			case TRANSPARENCY:
+				return material.hasTransparency();
+			case SPECULAR_EXPONENT:
+				return material.hasSpecularExponent();
+			case ILLUMINATION:
+				return material.hasIllumination();
+			case AMBIENT_COLOR:
+				return material.hasAmbientColor();
+			case DIFFUSE_COLOR:
+				return material.hasDiffuseColor();
+			case SPECULAR_COLOR:
+				return material.hasSpecularColor();
+			case AMBIENT_MAP:
+				return material.hasAmbientMap();
+			case DIFFUSE_MAP:
+				return material.hasDiffuseMap();
+			case SPECULAR_MAP:
+				return material.hasSpecularMap();
+			case TRANSPARENCY_MAP:
+				return material.hasTransparencyMap();
+			case BUMP_MAP:
+				return material.hasBumpMap();
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Sets the field of the target to a copy of the one of the source, or clears it if the source does not have it.
+	 */
+	private static void copyField(MTLKeyword field, MTLMaterial source, MTLMaterial target) {
+		switch (field) {
+			case TRANSPARENCY:
+				if (source.hasTransparency())
+					target.setTransparency(source.getTransparency());
+				else
+					target.clearTransparency();
+				break;
+			case SPECULAR_EXPONENT:
+				if (source.hasSpecularExponent())
+					target.setSpecularExponent(source.getSpecularExponent());
+				else
+					target.clearSpecularExponent();
+				break;
+			case ILLUMINATION:
+				target.setIllumination(source.getIllumination());
+				break;
+			case AMBIENT_COLOR:
+				target.setAmbientColor(copy(source.getAmbientColor()));
+				break;
+			case DIFFUSE_COLOR:
+				target.setDiffuseColor(copy(source.getDiffuseColor()));
+				break;
+			case SPECULAR_COLOR:
+				target.setSpecularColor(copy(source.getSpecularColor()));
+				break;
+			case AMBIENT_MAP:
+				target.setAmbientMap(copy(source.getAmbientMap()));
+				break;
+			case DIFFUSE_MAP:
+				target.setDiffuseMap(copy(source.getDiffuseMap()));
+				break;
+			case SPECULAR_MAP:
+				target.setSpecularMap(copy(source.getSpecularMap()));
+				break;
+			case TRANSPARENCY_MAP:
+				target.setTransparencyMap(copy(source.getTransparencyMap()));
+				break;
+			case BUMP_MAP:
+				target.setBumpMap(Objects.isNull(source.getBumpMap()) ? null : source.getBumpMap().copy());
+				break;
+			default:
+				break;
+		}
+	}
+
+	private static void writeField(MTLWriter writer, MTLKeyword field, MTLMaterial material) throws IOException {
+		writer.append(field.getKeyword()).append(' ');
+		switch (field) {
+			case TRANSPARENCY:
+				writer.append(material.getTransparency());
+				break;
+			case SPECULAR_EXPONENT:
+				writer.append(material.getSpecularExponent());
+				break;
+			case ILLUMINATION:
+				writer.append(material.getIllumination().ordinal());
+				break;
+			case AMBIENT_COLOR:
+				material.getAmbientColor().writeTo(writer);
+				break;
+			case DIFFUSE_COLOR:
+				material.getDiffuseColor().writeTo(writer);
+				break;
+			case SPECULAR_COLOR:
+				material.getSpecularColor().writeTo(writer);
+				break;
+			case AMBIENT_MAP:
+				material.getAmbientMap().writeTo(writer);
+				break;
+			case DIFFUSE_MAP:
+				material.getDiffuseMap().writeTo(writer);
+				break;
+			case SPECULAR_MAP:
+				material.getSpecularMap().writeTo(writer);
+				break;
+			case TRANSPARENCY_MAP:
+				material.getTransparencyMap().writeTo(writer);
+				break;
+			case BUMP_MAP:
+				material.getBumpMap().writeTo(writer);
+				break;
+			default:
+				break;
+		}
+		writer.append('\n');
+	}
+
+	private static boolean sameFloat(float first, float second) {
+		return Float.floatToIntBits(first) == Float.floatToIntBits(second);
+	}
+
+	private static MTLColor copy(MTLColor color) {
+		return Objects.isNull(color) ? null : color.copy();
+	}
+
+	private static MTLMap copy(MTLMap map) {
+		return Objects.isNull(map) ? null : map.copy();
+	}
+
+	private static final class Key {
+
+		private final String name;
+		private final int occurrence;
+
+		private Key(String name, int occurrence) {
+			this.name = name;
+			this.occurrence = occurrence;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * Objects.hashCode(name) + occurrence;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object)
+				return true;
+			if (!(object instanceof Key))
+				return false;
+			Key other = (Key) object;
+			return occurrence == other.occurrence && Objects.equals(name, other.name);
+		}
+
+		@Override
+		public String toString() {
+			return name + " " + occurrence;
+		}
+
+	}
+
+	/**
+	 * Finds the materials of a list by their name and the number of materials with the same name before them.
+	 */
+	private static final class NameIndex {
+
+		private final List<MTLMaterial> materials;
+		private final Map<String, Integer> first;
+		private final int[] next;
+		private final int[] occurrences;
+
+		private NameIndex(List<MTLMaterial> materials) {
+			this.materials = materials;
+			this.first = new HashMap<>();
+			this.next = new int[materials.size()];
+			this.occurrences = new int[materials.size()];
+			int[] last = new int[materials.size()];
+			for (int i = 0; i < materials.size(); i++) {
+				next[i] = -1;
+				Integer head = first.putIfAbsent(materials.get(i).getName(), i);
+				if (Objects.isNull(head))
+					last[i] = i;
+				else {
+					next[last[head]] = i;
+					occurrences[i] = occurrences[last[head]] + 1;
+					last[head] = i;
+				}
+			}
+		}
+
+		/**
+		 * Returns the position of the first material with the specified name, or {@code -1} if there is none.
+		 */
+		private int first(String name) {
+			Integer position = first.get(name);
+			return Objects.isNull(position) ? -1 : position;
+		}
+
+		private int find(Key key) {
+			int position = first(key.name);
+			for (int i = 0; i < key.occurrence && position >= 0; i++)
+				position = next[position];
+			if (position < 0)
+				throw new IllegalArgumentException("Material not found: " + key);
+			return position;
+		}
+
+		private Key key(int position) {
+			return new Key(materials.get(position).getName(), occurrences[position]);
+		}
+
+	}
+
+	private static final class Addition {
+
+		private final int index;
+		private final MTLMaterial material;
+
+		private Addition(int index, MTLMaterial material) {
+			this.index = index;
+			this.material = material;
+		}
+
+	}
+
+	private static final class Modification {
+
+		private final Key key;
+		private final MTLMaterial values;
+		private final Set<MTLKeyword> fields;
+
+		private Modification(Key key, MTLMaterial values, Set<MTLKeyword> fields) {
+			this.key = key;
+			this.values = values;
+			this.fields = fields;
+		}
+
+	}
+
+}
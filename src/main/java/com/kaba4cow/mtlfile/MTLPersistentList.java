@@ -0,0 +1,225 @@
+package com.kaba4cow.mtlfile;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An immutable list sharing structure between versions. Elements are kept in a treap ordered by a key assigned when the
+ * element is appended, with subtree sizes to look elements up by position. Every modification copies only the nodes on the
+ * path to the changed element, expected {@code O(log n)} of them, and leaves the previous version intact.
+ */
+final class MTLPersistentList<E> implements Iterable<E> {
+
+	private static final MTLPersistentList<?> EMPTY = new MTLPersistentList<>(null, 0L);
+
+	private final Node<E> root;
+	private final long nextKey;
+
+	private MTLPersistentList(Node<E> root, long nextKey) {
+		this.root = root;
+		this.nextKey = nextKey;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <E> MTLPersistentList<E> empty() {
+		return (MTLPersistentList<E>) EMPTY;
+	}
+
+	/**
+	 * Creates a list of the specified elements in linear time, building the treap with a stack instead of inserting the
+	 * elements one by one.
+	 */
+	static <E> MTLPersistentList<E> of(List<? extends E> elements) {
+		Deque<Node<E>> stack = new ArrayDeque<>();
+		long key = 0L;
+		for (E element : elements) {
+			Node<E> node = new Node<>(key++, element, priority(), null, null);
+			Node<E> last = null;
+			while (!stack.isEmpty() && stack.peek().priority < node.priority)
+				last = stack.pop();
+			node.left = last;
+			if (!stack.isEmpty())
+				stack.peek().right = node;
+			stack.push(node);
+		}
+		Node<E> root = stack.peekLast();
+		updateSizes(root);
+		return new MTLPersistentList<>(root, key);
+	}
+
+	int size() {
+		return size(root);
+	}
+
+	E get(int index) {
+		return nodeAt(index).value;
+	}
+
+	long keyAt(int index) {
+		return nodeAt(index).key;
+	}
+
+	E getByKey(long key) {
+		Node<E> node = root;
+		while (node != null) {
+			if (key < node.key)
+				node = node.left;
+			else if (key > node.key)
+				node = node.right;
+			else
+				return node.value;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the position of the element with the specified key, or {@code -1} if there is none.
+	 */
+	int indexOfKey(long key) {
+		Node<E> node = root;
+		int index = 0;
+		while (node != null) {
+			if (key < node.key)
+				node = node.left;
+			else if (key > node.key) {
+				index += size(node.left) + 1;
+				node = node.right;
+			} else
+				return index + size(node.left);
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the key the next appended element receives.
+	 */
+	long nextKey() {
+		return nextKey;
+	}
+
+	MTLPersistentList<E> add(E element) {
+		return new MTLPersistentList<>(merge(root, new Node<>(nextKey, element, priority(), null, null)), nextKey + 1L);
+	}
+
+	MTLPersistentList<E> set(long key, E element) {
+		return new MTLPersistentList<>(set(root, key, element), nextKey);
+	}
+
+	MTLPersistentList<E> remove(long key) {
+		return new MTLPersistentList<>(remove(root, key), nextKey);
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+
+			private final Deque<Node<E>> stack = new ArrayDeque<>();
+			private Node<E> next = root;
+
+			@Override
+			public boolean hasNext() {
+				return next != null || !stack.isEmpty();
+			}
+
+			@Override
+			public E next() {
+				while (next != null) {
+					stack.push(next);
+					next = next.left;
+				}
+				if (stack.isEmpty())
+					throw new NoSuchElementException();
+				Node<E> node = stack.pop();
+				next = node.right;
+				return node.value;
+			}
+
+		};
+	}
+
+	private Node<E> nodeAt(int index) {
+		if (index < 0 || index >= size())
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		Node<E> node = root;
+		while (true) {
+			int left = size(node.left);
+			if (index < left)
+				node = node.left;
+			else if (index > left) {
+				index -= left + 1;
+				node = node.right;
+			} else
+				return node;
+		}
+	}
+
+	private static <E> Node<E> set(Node<E> node, long key, E element) {
+		if (node == null)
+			throw new NoSuchElementException("Key: " + key);
+		if (key < node.key)
+			return new Node<>(node.key, node.value, node.priority, set(node.left, key, element), node.right);
+		if (key > node.key)
+			return new Node<>(node.key, node.value, node.priority, node.left, set(node.right, key, element));
+		return new Node<>(node.key, element, node.priority, node.left, node.right);
+	}
+
+	private static <E> Node<E> remove(Node<E> node, long key) {
+		if (node == null)
+			throw new NoSuchElementException("Key: " + key);
+		if (key < node.key)
+			return new Node<>(node.key, node.value, node.priority, remove(node.left, key), node.right);
+		if (key > node.key)
+			return new Node<>(node.key, node.value, node.priority, node.left, remove(node.right, key));
+		return merge(node.left, node.right);
+	}
+
+	private static <E> Node<E> merge(Node<E> left, Node<E> right) {
+		if (left == null)
+			return right;
+		if (right == null)
+			return left;
+		if (left.priority > right.priority)
+			return new Node<>(left.key, left.value, left.priority, left.left, merge(left.right, right));
+		return new Node<>(right.key, right.value, right.priority, merge(left, right.left), right.right);
+	}
+
+	private static <E> int updateSizes(Node<E> node) {
+		if (node == null)
+			return 0;
+		node.size = updateSizes(node.left) + updateSizes(node.right) + 1;
+		return node.size;
+	}
+
+	private static int size(Node<?> node) {
+		return node == null ? 0 : node.size;
+	}
+
+	private static int priority() {
+		return ThreadLocalRandom.current().nextInt();
+	}
+
+	private static final class Node<E> {
+
+		private final long key;
+		private final E value;
+		private final int priority;
+		private Node<E> left;
+		private Node<E> right;
+		private int size;
+
+		private Node(long key, E value, int priority, Node<E> left, Node<E> right) {
+			this.key = key;
+			this.value = value;
+			this.priority = priority;
+			this.left = left;
+			this.right = right;
+			this.size = size(left) + size(right) + 1;
+		}
+
+	}
+
+}
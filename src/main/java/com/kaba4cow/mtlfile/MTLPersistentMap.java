@@ -0,0 +1,179 @@
+package com.kaba4cow.mtlfile;
+
+import java.util.Objects;
+
+/**
+ * An immutable hash map from strings to values sharing structure between versions. Entries are kept in a hash trie with 32
+ * branches per level, so every modification copies only the nodes on the path to the changed entry, at most seven of them,
+ * and leaves the previous version intact. The {@code null} key is supported.
+ */
+final class MTLPersistentMap<V> {
+
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+
+	private static final MTLPersistentMap<?> EMPTY = new MTLPersistentMap<>(null, 0);
+
+	private final Branch root;
+	private final int size;
+
+	private MTLPersistentMap(Branch root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <V> MTLPersistentMap<V> empty() {
+		return (MTLPersistentMap<V>) EMPTY;
+	}
+
+	int size() {
+		return size;
+	}
+
+	@SuppressWarnings("unchecked")
+	V get(String key) {
+		int hash = hash(key);
+		Object node = root;
+		for (int shift = 0; node instanceof Branch; shift += BITS) {
+			Branch branch = (Branch) node;
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((branch.bitmap & bit) == 0)
+				return null;
+			node = branch.children[Integer.bitCount(branch.bitmap & (bit - 1))];
+		}
+		for (Leaf leaf = (Leaf) node; leaf != null; leaf = leaf.next)
+			if (leaf.hash == hash && Objects.equals(leaf.key, key))
+				return (V) leaf.value;
+		return null;
+	}
+
+	MTLPersistentMap<V> put(String key, V value) {
+		boolean[] added = new boolean[1];
+		Branch branch = Objects.isNull(root) ? new Branch(0, new Object[0]) : root;
+		Branch result = (Branch) put(branch, 0, hash(key), key, value, added);
+		return new MTLPersistentMap<>(result, added[0] ? size + 1 : size);
+	}
+
+	MTLPersistentMap<V> remove(String key) {
+		if (Objects.isNull(root))
+			return this;
+		Object result = remove(root, 0, hash(key), key);
+		if (result == root)
+			return this;
+		return new MTLPersistentMap<>((Branch) result, size - 1);
+	}
+
+	private static Object put(Object node, int shift, int hash, String key, Object value, boolean[] added) {
+		if (node instanceof Branch) {
+			Branch branch = (Branch) node;
+			int bit = 1 << ((hash >>> shift) & MASK);
+			int position = Integer.bitCount(branch.bitmap & (bit - 1));
+			if ((branch.bitmap & bit) == 0) {
+				added[0] = true;
+				Object[] children = new Object[branch.children.length + 1];
+				System.arraycopy(branch.children, 0, children, 0, position);
+				children[position] = new Leaf(hash, key, value, null);
+				System.arraycopy(branch.children, position, children, position + 1, branch.children.length - position);
+				return new Branch(branch.bitmap | bit, children);
+			}
+			Object[] children = branch.children.clone();
+			children[position] = put(children[position], shift + BITS, hash, key, value, added);
+			return new Branch(branch.bitmap, children);
+		}
+		Leaf leaf = (Leaf) node;
+		if (leaf.hash == hash)
+			return replace(leaf, key, value, added);
+		Branch branch = new Branch(1 << ((leaf.hash >>> shift) & MASK), new Object[] { leaf });
+		return put(branch, shift, hash, key, value, added);
+	}
+
+	private static Leaf replace(Leaf leaf, String key, Object value, boolean[] added) {
+		if (Objects.isNull(leaf)) {
+			added[0] = true;
+			return null;
+		}
+		if (Objects.equals(leaf.key, key))
+			return new Leaf(leaf.hash, key, value, leaf.next);
+		Leaf next = replace(leaf.next, key, value, added);
+		if (Objects.isNull(next))
+			return new Leaf(leaf.hash, leaf.key, leaf.value, new Leaf(leaf.hash, key, value, null));
+		return new Leaf(leaf.hash, leaf.key, leaf.value, next);
+	}
+
+	/**
+	 * Removes the key from the node, returning the node itself if the key is absent, or {@code null} if the node becomes
+	 * empty.
+	 */
+	private static Object remove(Object node, int shift, int hash, String key) {
+		if (node instanceof Branch) {
+			Branch branch = (Branch) node;
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((branch.bitmap & bit) == 0)
+				return branch;
+			int position = Integer.bitCount(branch.bitmap & (bit - 1));
+			Object child = branch.children[position];
+			Object result = remove(child, shift + BITS, hash, key);
+			if (result == child)
+				return branch;
+			if (Objects.nonNull(result)) {
+				Object[] children = branch.children.clone();
+				children[position] = result;
+				return new Branch(branch.bitmap, children);
+			}
+			if (branch.children.length == 1 && shift > 0)
+				return null;
+			Object[] children = new Object[branch.children.length - 1];
+			System.arraycopy(branch.children, 0, children, 0, position);
+			System.arraycopy(branch.children, position + 1, children, position, children.length - position);
+			return new Branch(branch.bitmap & ~bit, children);
+		}
+		Leaf leaf = (Leaf) node;
+		if (leaf.hash != hash)
+			return leaf;
+		return remove(leaf, key);
+	}
+
+	private static Leaf remove(Leaf leaf, String key) {
+		if (Objects.isNull(leaf))
+			return null;
+		if (Objects.equals(leaf.key, key))
+			return leaf.next;
+		Leaf next = remove(leaf.next, key);
+		return next == leaf.next ? leaf : new Leaf(leaf.hash, leaf.key, leaf.value, next);
+	}
+
+	private static int hash(String key) {
+		int hash = Objects.hashCode(key);
+		return hash ^ (hash >>> 16);
+	}
+
+	private static final class Branch {
+
+		private final int bitmap;
+		private final Object[] children;
+
+		private Branch(int bitmap, Object[] children) {
+			this.bitmap = bitmap;
+			this.children = children;
+		}
+
+	}
+
+	private static final class Leaf {
+
+		private final int hash;
+		private final String key;
+		private final Object value;
+		private final Leaf next;
+
+		private Leaf(int hash, String key, Object value, Leaf next) {
+			this.hash = hash;
+			this.key = key;
+			this.value = value;
+			this.next = next;
+		}
+
+	}
+
+}
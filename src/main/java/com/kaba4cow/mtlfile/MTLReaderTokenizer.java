@@ -0,0 +1,122 @@
+package com.kaba4cow.mtlfile;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * An {@link MTLTokenizer} reading characters from a {@link Reader} into a buffer that only grows if a line does not fit into
+ * it.
+ */
+final class MTLReaderTokenizer extends MTLTokenizer {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final Reader source;
+
+	private char[] buffer;
+	private int limit;
+	private int next;
+	private long consumed;
+	private boolean skipLineFeed;
+	private boolean endOfStream;
+
+	/**
+	 * Creates a tokenizer reading from the specified {@link Reader}.
+	 *
+	 * @param source the reader to read the MTL data from
+	 */
+	MTLReaderTokenizer(Reader source) {
+		this.source = source;
+		this.buffer = new char[BUFFER_SIZE];
+		this.limit = 0;
+		this.next = 0;
+		this.consumed = 0L;
+		this.skipLineFeed = false;
+		this.endOfStream = false;
+	}
+
+	@Override
+	boolean nextLine() throws IOException {
+		int index = next;
+		while (true) {
+			if (index == limit) {
+				int offset = next;
+				if (!fill())
+					break;
+				index -= offset - next;
+				continue;
+			}
+			char c = buffer[index];
+			if (skipLineFeed) {
+				skipLineFeed = false;
+				if (c == '\n') {
+					next = ++index;
+					continue;
+				}
+			}
+			if (c == '\n' || c == '\r') {
+				position = next;
+				lineEnd = index;
+				startLine();
+				next = index + 1;
+				skipLineFeed = c == '\r';
+				return true;
+			}
+			index++;
+		}
+		if (next == limit)
+			return false;
+		position = next;
+		lineEnd = limit;
+		startLine();
+		next = limit;
+		return true;
+	}
+
+	/**
+	 * Compacts the buffer and reads more characters into it, growing it if the current line does not fit.
+	 */
+	private boolean fill() throws IOException {
+		if (endOfStream)
+			return false;
+		if (next > 0) {
+			System.arraycopy(buffer, next, buffer, 0, limit - next);
+			limit -= next;
+			next = 0;
+		}
+		if (limit == buffer.length) {
+			char[] grown = new char[buffer.length << 1];
+			System.arraycopy(buffer, 0, grown, 0, limit);
+			buffer = grown;
+		}
+		int read = source.read(buffer, limit, buffer.length - limit);
+		if (read < 0) {
+			endOfStream = true;
+			return false;
+		}
+		limit += read;
+		consumed += read;
+		return true;
+	}
+
+	@Override
+	long consumed() {
+		return consumed;
+	}
+
+	@Override
+	String string(int start, int end) {
+		return new String(buffer, start, end - start);
+	}
+
+	@Override
+	public int length() {
+		return limit;
+	}
+
+	@Override
+	public char charAt(int index) {
+		return buffer[index];
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.kaba4cow.mtlfile;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Describes a reload of an MTL file by an {@link MTLFileWatcher}: the file, its library after the reload and the materials
+ * that were added, removed or changed by it.
+ */
+public final class MTLReloadEvent {
+
+	private final Path file;
+	private final MTLLibrary library;
+	private final MTLLibraryChanges changes;
+
+	MTLReloadEvent(Path file, MTLLibrary library, MTLLibraryChanges changes) {
+		this.file = file;
+		this.library = library;
+		this.changes = changes;
+	}
+
+	/**
+	 * Returns the reloaded file.
+	 *
+	 * @return the path of the file
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the library of the file after the reload.
+	 *
+	 * @return the frozen library, or {@code null} if the file was deleted
+	 */
+	public MTLLibrary getLibrary() {
+		return library;
+	}
+
+	/**
+	 * Returns the changes made by the reload. When a file is loaded for the first time all of its materials are reported as
+	 * added, when it is deleted all of its materials are reported as removed.
+	 *
+	 * @return the changes
+	 */
+	public MTLLibraryChanges getChanges() {
+		return changes;
+	}
+
+	/**
+	 * Checks if the file was deleted.
+	 *
+	 * @return {@code true} if the file was deleted, {@code false} otherwise
+	 */
+	public boolean isDeleted() {
+		return Objects.isNull(library);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MTLReloadEvent [file=%s, deleted=%s, changes=%s]", file, isDeleted(), changes);
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.kaba4cow.mtlfile;
+
+import java.nio.file.Path;
+
+/**
+ * Receives the reloads of the MTL files watched by an {@link MTLFileWatcher}. The methods are called on the thread that
+ * reloaded the file, never concurrently for the same file. Runtime exceptions thrown by the methods are ignored, so they
+ * neither stop the watcher nor keep the other listeners from being notified.
+ */
+public interface MTLReloadListener {
+
+	/**
+	 * Called after a file was loaded, reloaded with changes, or deleted.
+	 *
+	 * @param event the reload event
+	 */
+	public void onReload(MTLReloadEvent event);
+
+	/**
+	 * Called when a file could not be reloaded. The previous library of the file is kept. Does nothing by default.
+	 * <p>
+	 * When the executor of the watcher rejects a reload, this method is called on the watching thread with the
+	 * {@link java.util.concurrent.RejectedExecutionException}; the file is reloaded again on its next change.
+	 *
+	 * @param file      the path of the file
+	 * @param exception the exception thrown while reading or parsing the file, or rejecting its reload
+	 */
+	public default void onReloadFailed(Path file, Exception exception) {}
+
+}
@@ -0,0 +1,180 @@
+package com.kaba4cow.mtlfile;
+
+import java.io.IOException;
+
+/**
+ * A character level scanner splitting MTL data into lines and whitespace separated tokens. The tokens are kept as ranges of
+ * the underlying data, so no strings are created unless explicitly requested. The data itself is exposed as a
+ * {@link CharSequence} so numbers can be parsed in place by {@link MTLNumbers}.
+ */
+abstract class MTLTokenizer implements CharSequence {
+
+	protected int line;
+	protected int lineStart;
+	protected int position;
+	protected int lineEnd;
+	protected int tokenStart;
+	protected int tokenEnd;
+
+	/**
+	 * Advances to the next line. Lines are terminated by {@code \n}, {@code \r} or {@code \r\n}, the same way
+	 * {@link java.io.BufferedReader#readLine()} does.
+	 *
+	 * @return {@code true} if a line was read, {@code false} if the end of the data is reached
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	abstract boolean nextLine() throws IOException;
+
+	/**
+	 * Returns the amount of data consumed so far.
+	 *
+	 * @return the number of bytes or characters read from the underlying data
+	 */
+	abstract long consumed();
+
+	/**
+	 * Marks the start of a new line at the current position. Implementations call this method from {@link #nextLine()}.
+	 */
+	protected void startLine() {
+		line++;
+		lineStart = position;
+	}
+
+	/**
+	 * Returns the column of the specified index on the current line.
+	 *
+	 * @param index the index in the data
+	 *
+	 * @return the 1-based column
+	 */
+	int column(int index) {
+		return index - lineStart + 1;
+	}
+
+	/**
+	 * Creates a string from the specified range of the data.
+	 *
+	 * @param start the start index of the range, inclusive
+	 * @param end   the end index of the range, exclusive
+	 *
+	 * @return the string
+	 */
+	abstract String string(int start, int end);
+
+	/**
+	 * Advances to the next token of the current line.
+	 *
+	 * @return {@code true} if a token was found, {@code false} if the end of the line is reached
+	 */
+	boolean nextToken() {
+		skipWhitespace();
+		if (position == lineEnd)
+			return false;
+		tokenStart = position;
+		while (position < lineEnd && !isWhitespace(charAt(position)))
+			position++;
+		tokenEnd = position;
+		return true;
+	}
+
+	/**
+	 * Checks if the current line has any tokens left.
+	 *
+	 * @return {@code true} if there are more tokens on the current line, {@code false} otherwise
+	 */
+	boolean hasMoreTokens() {
+		skipWhitespace();
+		return position < lineEnd;
+	}
+
+	/**
+	 * Returns the keyword matching the current token.
+	 *
+	 * @return the matching {@link MTLKeyword}, or {@code null} if the token is not a recognized keyword
+	 */
+	MTLKeyword keyword() {
+		return MTLKeyword.match(this, tokenStart, tokenEnd);
+	}
+
+	/**
+	 * Checks if the current token is equal to the specified string.
+	 *
+	 * @param string the string to compare the token to
+	 *
+	 * @return {@code true} if the token is equal to the string, {@code false} otherwise
+	 */
+	boolean tokenEquals(String string) {
+		if (string.length() != tokenEnd - tokenStart)
+			return false;
+		for (int i = 0; i < string.length(); i++)
+			if (string.charAt(i) != charAt(tokenStart + i))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Returns the current token as a string.
+	 *
+	 * @return the current token
+	 */
+	String token() {
+		return string(tokenStart, tokenEnd);
+	}
+
+	/**
+	 * Returns the rest of the current line with the surrounding whitespace removed and advances to the end of the line.
+	 *
+	 * @return the rest of the current line
+	 */
+	String rest() {
+		skipWhitespace();
+		int end = lineEnd;
+		while (end > position && isWhitespace(charAt(end - 1)))
+			end--;
+		String rest = string(position, end);
+		position = lineEnd;
+		return rest;
+	}
+
+	/**
+	 * Advances to the next token and parses it as a float using {@link MTLNumbers#parseFloat(CharSequence, int, int)}.
+	 *
+	 * @return the parsed value
+	 *
+	 * @throws NumberFormatException if there are no more tokens or the token is not a valid number
+	 */
+	float nextFloat() {
+		if (!nextToken())
+			throw new NumberFormatException("Missing value");
+		return MTLNumbers.parseFloat(this, tokenStart, tokenEnd);
+	}
+
+	/**
+	 * Advances to the next token and parses it as an integer using {@link MTLNumbers#parseInt(CharSequence, int, int)}.
+	 *
+	 * @return the parsed value
+	 *
+	 * @throws NumberFormatException if there are no more tokens or the token is not a valid integer
+	 */
+	int nextInt() {
+		if (!nextToken())
+			throw new NumberFormatException("Missing value");
+		return MTLNumbers.parseInt(this, tokenStart, tokenEnd);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return string(start, end);
+	}
+
+	private void skipWhitespace() {
+		while (position < lineEnd && isWhitespace(charAt(position)))
+			position++;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c <= ' ';
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.kaba4cow.mtlfile;
+
+/**
+ * The flight recorder event of MTL data written through an {@link MTLWriter} on JVMs before Java 11, which records
+ * nothing. The multi-release jar replaces it with an event of the JDK Flight Recorder on Java 11 and later.
+ */
+final class MTLWriteEvent {
+
+	private MTLWriteEvent() {}
+
+	/**
+	 * Starts an event if it is enabled in a recording.
+	 *
+	 * @return {@code null}
+	 */
+	static MTLWriteEvent start() {
+		return null;
+	}
+
+	/**
+	 * Ends the event and commits it with the specified metrics if it lasted long enough to be recorded.
+	 *
+	 * @param metrics the metrics of the write
+	 */
+	void finish(MTLWriteMetrics metrics) {}
+
+}
@@ -0,0 +1,182 @@
+package com.kaba4cow.mtlfile;
+
+import java.util.Objects;
+
+/**
+ * The metrics of a single write reported to {@link MTLMetricsListener#onWrite(MTLWriteMetrics)}. The materials and
+ * comments are counted from the written lines, as the lines starting with {@code newmtl} and {@code #}.
+ */
+public final class MTLWriteMetrics {
+
+	private static final String NEW_MATERIAL = "newmtl ";
+
+	private final long chars;
+	private final int lines;
+	private final int materials;
+	private final int comments;
+	private final long timeNanos;
+	private final long allocatedBytes;
+
+	private MTLWriteMetrics(long chars, int lines, int materials, int comments, long timeNanos, long allocatedBytes) {
+		this.chars = chars;
+		this.lines = lines;
+		this.materials = materials;
+		this.comments = comments;
+		this.timeNanos = timeNanos;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * Returns the number of characters written.
+	 *
+	 * @return the number of characters
+	 */
+	public long getChars() {
+		return chars;
+	}
+
+	/**
+	 * Returns the number of lines written, including a last line without a line terminator.
+	 *
+	 * @return the number of lines
+	 */
+	public int getLines() {
+		return lines;
+	}
+
+	/**
+	 * Returns the number of materials written.
+	 *
+	 * @return the number of {@code newmtl} statements
+	 */
+	public int getMaterials() {
+		return materials;
+	}
+
+	/**
+	 * Returns the number of comments written.
+	 *
+	 * @return the number of comments
+	 */
+	public int getComments() {
+		return comments;
+	}
+
+	/**
+	 * Returns the wall time of the write, from the creation of the {@link MTLWriter} until the data was passed on to the
+	 * underlying {@link Appendable}.
+	 *
+	 * @return the elapsed time in nanoseconds
+	 */
+	public long getTimeNanos() {
+		return timeNanos;
+	}
+
+	/**
+	 * Returns an estimate of the memory allocated by the write, measured on the thread that created the
+	 * {@link MTLWriter}, including the allocations of the underlying {@link Appendable}.
+	 *
+	 * @return the number of allocated bytes, or {@code -1} if the JVM cannot measure it or the write was completed on
+	 *             another thread
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MTLWriteMetrics [chars=%s, lines=%s, materials=%s, comments=%s, time=%.3f ms, allocated=%s]",
+				chars, lines, materials, comments, timeNanos / 1e6, allocatedBytes);
+	}
+
+	/**
+	 * Counts the characters, lines, materials and comments passed through an {@link MTLWriter}, used while a listener is
+	 * installed or the write is recorded by the flight recorder. The data may be counted in pieces split anywhere, even
+	 * inside a keyword.
+	 */
+	static final class Recorder {
+
+		private final MTLMetricsListener listener;
+		private final Thread thread;
+		private final long start;
+		private final long allocated;
+		private long chars;
+		private int lines;
+		private int materials;
+		private int comments;
+		private int matched;
+		private boolean lineOpen;
+		private boolean reported;
+
+		Recorder(MTLMetricsListener listener) {
+			this.listener = listener;
+			this.thread = Thread.currentThread();
+			this.allocated = Objects.isNull(listener) ? -1L : MTLMetrics.allocatedBytes();
+			this.start = System.nanoTime();
+			this.matched = 0;
+		}
+
+		/**
+		 * Counts the specified range of written characters.
+		 *
+		 * @param data  the written characters
+		 * @param start the start index of the range, inclusive
+		 * @param end   the end index of the range, exclusive
+		 */
+		void count(CharSequence data, int start, int end) {
+			chars += end - start;
+			for (int i = start; i < end; i++) {
+				char c = data.charAt(i);
+				if (c == '\n') {
+					lines++;
+					lineOpen = false;
+					matched = 0;
+					continue;
+				}
+				if (!lineOpen) {
+					lineOpen = true;
+					if (c == '#') {
+						comments++;
+						matched = -1;
+						continue;
+					}
+				}
+				if (matched >= 0)
+					if (c != NEW_MATERIAL.charAt(matched))
+						matched = -1;
+					else if (++matched == NEW_MATERIAL.length()) {
+						materials++;
+						matched = -1;
+					}
+			}
+		}
+
+		/**
+		 * Checks if the metrics were already reported.
+		 *
+		 * @return {@code true} if {@link #report()} was called, {@code false} otherwise
+		 */
+		boolean isReported() {
+			return reported;
+		}
+
+		/**
+		 * Stops measuring and reports the metrics to the listener, if any.
+		 *
+		 * @return the metrics of the write
+		 */
+		MTLWriteMetrics report() {
+			reported = true;
+			long time = System.nanoTime() - start;
+			long allocated = this.allocated < 0L || thread != Thread.currentThread() ? -1L
+					: MTLMetrics.allocatedBytes() - this.allocated;
+			MTLWriteMetrics metrics = new MTLWriteMetrics(chars, lineOpen ? lines + 1 : lines, materials, comments, time,
+					allocated);
+			if (Objects.nonNull(listener))
+				listener.onWrite(metrics);
+			return metrics;
+		}
+
+	}
+
+}
@@ -0,0 +1,181 @@
+package com.kaba4cow.mtlfile;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A buffered sink for MTL data written by {@link MTLElement#writeTo(MTLWriter)}. Numbers are appended straight into the
+ * buffer without creating intermediate strings, and the buffer is passed on to the underlying {@link Appendable} whenever it
+ * fills up, so the memory used does not depend on the size of the written data.
+ * <p>
+ * While an {@link MTLMetricsListener} is installed, a writer reports its metrics when it is closed. Writers created by
+ * {@link MTLElement#writeTo(Appendable)} and {@link MTLElement#toMTLString()} report them when the call returns.
+ */
+public class MTLWriter implements Appendable, Flushable, Closeable {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final StringBuilder buffer;
+	private final Appendable sink;
+	private final char[] chunk;
+	private final MTLWriteMetrics.Recorder recorder;
+	private final MTLWriteEvent event;
+	private final int initialLength;
+
+	/**
+	 * Creates a writer passing the MTL data on to the specified {@link Appendable}, such as a {@link Writer}.
+	 *
+	 * @param sink the appendable to pass the MTL data on to
+	 */
+	public MTLWriter(Appendable sink) {
+		Objects.requireNonNull(sink, "Sink must not be null");
+		if (sink instanceof StringBuilder) {
+			this.buffer = (StringBuilder) sink;
+			this.sink = null;
+			this.chunk = null;
+		} else {
+			this.buffer = new StringBuilder(BUFFER_SIZE);
+			this.sink = sink;
+			this.chunk = sink instanceof Writer ? new char[BUFFER_SIZE] : null;
+		}
+		MTLMetricsListener listener = MTLMetrics.getListener();
+		this.event = MTLFlightRecorder.isAvailable() ? MTLWriteEvent.start() : null;
+		this.recorder = Objects.isNull(listener) && Objects.isNull(event) ? null : new MTLWriteMetrics.Recorder(listener);
+		this.initialLength = buffer.length();
+	}
+
+	/**
+	 * Creates a writer encoding the MTL data to the specified {@link OutputStream} as UTF-8.
+	 *
+	 * @param sink the stream to write the MTL data to
+	 */
+	public MTLWriter(OutputStream sink) {
+		this(new OutputStreamWriter(Objects.requireNonNull(sink, "Sink must not be null"), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns the specified {@link Appendable} if it is already an {@link MTLWriter}, or wraps it into a new one.
+	 *
+	 * @param target the appendable to write to
+	 *
+	 * @return a writer writing to the target
+	 */
+	static MTLWriter of(Appendable target) {
+		return target instanceof MTLWriter ? (MTLWriter) target : new MTLWriter(target);
+	}
+
+	@Override
+	public MTLWriter append(CharSequence csq) throws IOException {
+		buffer.append(csq);
+		return drainIfFull();
+	}
+
+	@Override
+	public MTLWriter append(CharSequence csq, int start, int end) throws IOException {
+		buffer.append(csq, start, end);
+		return drainIfFull();
+	}
+
+	@Override
+	public MTLWriter append(char c) throws IOException {
+		buffer.append(c);
+		return drainIfFull();
+	}
+
+	/**
+	 * Appends the shortest decimal representation of a float, the same one {@link Float#toString(float)} returns.
+	 *
+	 * @param value the value to append
+	 *
+	 * @return a reference to this object
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	public MTLWriter append(float value) throws IOException {
+		buffer.append(value);
+		return drainIfFull();
+	}
+
+	/**
+	 * Appends the decimal representation of an integer.
+	 *
+	 * @param value the value to append
+	 *
+	 * @return a reference to this object
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	public MTLWriter append(int value) throws IOException {
+		buffer.append(value);
+		return drainIfFull();
+	}
+
+	private MTLWriter drainIfFull() throws IOException {
+		if (buffer.length() >= BUFFER_SIZE)
+			drain();
+		return this;
+	}
+
+	private void drain() throws IOException {
+		if (Objects.isNull(sink) || buffer.length() == 0)
+			return;
+		int length = buffer.length();
+		if (Objects.nonNull(recorder))
+			recorder.count(buffer, 0, length);
+		if (Objects.nonNull(chunk))
+			for (int offset = 0; offset < length; offset += chunk.length) {
+				int count = Math.min(chunk.length, length - offset);
+				buffer.getChars(offset, offset + count, chunk, 0);
+				((Writer) sink).write(chunk, 0, count);
+			}
+		else
+			sink.append(buffer);
+		buffer.setLength(0);
+	}
+
+	/**
+	 * Passes the buffered MTL data on to the underlying {@link Appendable} and flushes it if it is {@link Flushable}.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void flush() throws IOException {
+		drain();
+		if (sink instanceof Flushable)
+			((Flushable) sink).flush();
+	}
+
+	/**
+	 * Passes the buffered MTL data on to the underlying {@link Appendable} and closes it if it is {@link Closeable}.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException {
+		drain();
+		if (sink instanceof Closeable)
+			((Closeable) sink).close();
+		report();
+	}
+
+	/**
+	 * Reports the metrics of this writer to the listener that was installed when it was created, if any, and commits its
+	 * flight recorder event. Only the first call reports them, and all data must have been passed on before.
+	 */
+	void report() {
+		if (Objects.isNull(recorder) || recorder.isReported())
+			return;
+		if (Objects.isNull(sink))
+			recorder.count(buffer, initialLength, buffer.length());
+		MTLWriteMetrics metrics = recorder.report();
+		if (Objects.nonNull(event))
+			event.finish(metrics);
+	}
+
+}
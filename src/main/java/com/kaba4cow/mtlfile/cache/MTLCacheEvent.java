@@ -0,0 +1,36 @@
+package com.kaba4cow.mtlfile.cache;
+
+import java.nio.file.Path;
+
+import com.kaba4cow.mtlfile.compact.MTLCompactLibrary;
+
+/**
+ * The flight recorder event of a library requested from {@link MTLLibraryCache} or {@link MTLDiskCache} on JVMs before
+ * Java 11, which records nothing. The multi-release jar replaces it with an event of the JDK Flight Recorder on Java 11
+ * and later.
+ */
+final class MTLCacheEvent {
+
+	private MTLCacheEvent() {}
+
+	/**
+	 * Starts an event if it is enabled in a recording.
+	 *
+	 * @param cache either {@code "memory"} or {@code "disk"}
+	 * @param file  the path of the requested MTL file
+	 *
+	 * @return {@code null}
+	 */
+	static MTLCacheEvent start(String cache, Path file) {
+		return null;
+	}
+
+	/**
+	 * Ends the event and commits it if it lasted long enough to be recorded.
+	 *
+	 * @param hit     whether the library was found in the cache
+	 * @param library the returned library
+	 */
+	void finish(boolean hit, MTLCompactLibrary library) {}
+
+}
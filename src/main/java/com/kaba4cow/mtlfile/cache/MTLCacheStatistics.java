@@ -0,0 +1,83 @@
+package com.kaba4cow.mtlfile.cache;
+
+/**
+ * An immutable snapshot of the statistics of a library cache.
+ */
+public final class MTLCacheStatistics {
+
+	private final long hitCount;
+	private final long missCount;
+	private final long evictionCount;
+	private final long errorCount;
+
+	MTLCacheStatistics(long hitCount, long missCount, long evictionCount, long errorCount) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.errorCount = errorCount;
+	}
+
+	/**
+	 * Returns the number of requests answered from the cache.
+	 *
+	 * @return the number of hits
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Returns the number of requests that required parsing the MTL file.
+	 *
+	 * @return the number of misses
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Returns the total number of requests.
+	 *
+	 * @return the number of hits and misses
+	 */
+	public long getRequestCount() {
+		return hitCount + missCount;
+	}
+
+	/**
+	 * Returns the ratio of requests answered from the cache.
+	 *
+	 * @return the hit rate between {@code 0} and {@code 1}, or {@code 1} if there were no requests
+	 */
+	public double getHitRate() {
+		long requests = getRequestCount();
+		return requests == 0L ? 1.0 : (double) hitCount / requests;
+	}
+
+	/**
+	 * Returns the number of entries removed from the cache to make room for new ones, or because they expired or their file
+	 * changed.
+	 *
+	 * @return the number of evictions
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Returns the number of cache entries that could not be read or written. Such errors never fail a request, the file is
+	 * parsed instead.
+	 *
+	 * @return the number of errors
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MTLCacheStatistics [hits=%s, misses=%s, evictions=%s, errors=%s]", hitCount, missCount,
+				evictionCount, errorCount);
+	}
+
+}
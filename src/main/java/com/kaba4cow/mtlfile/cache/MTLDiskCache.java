@@ -0,0 +1,284 @@
+package com.kaba4cow.mtlfile.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.kaba4cow.mtlfile.MTLFlightRecorder;
+import com.kaba4cow.mtlfile.MTLLibrary;
+import com.kaba4cow.mtlfile.compact.MTLBinaryFormat;
+import com.kaba4cow.mtlfile.compact.MTLCompactLibrary;
+
+/**
+ * A cache of parsed MTL files stored in a local directory, so that other runs and other processes can load a library
+ * without tokenizing its MTL data again. Every file is cached in the {@link MTLBinaryFormat}, together with the size and
+ * modification time the file had when it was parsed, and optionally a SHA-256 hash of its contents. A cache entry is only
+ * used while the file still matches it, otherwise the file is parsed again and the entry replaced. The cache is safe to
+ * use from several threads and processes at once.
+ */
+public class MTLDiskCache {
+
+	private static final int ENTRY_MAGIC = 0x4D544C43;
+	private static final int ENTRY_VERSION = 1;
+	private static final String ENTRY_SUFFIX = ".mtlc";
+	private static final long MAPPING_THRESHOLD = 1L << 16;
+
+	private final Path directory;
+	private volatile boolean verifyContent;
+
+	private final AtomicLong hitCount;
+	private final AtomicLong missCount;
+	private final AtomicLong errorCount;
+
+	/**
+	 * Creates a cache storing its entries in the specified directory. The directory is created if it does not exist.
+	 *
+	 * @param directory the directory to store the cache entries in
+	 *
+	 * @throws IOException if the directory cannot be created
+	 */
+	public MTLDiskCache(Path directory) throws IOException {
+		Objects.requireNonNull(directory, "Directory must not be null");
+		this.directory = Files.createDirectories(directory);
+		this.verifyContent = false;
+		this.hitCount = new AtomicLong();
+		this.missCount = new AtomicLong();
+		this.errorCount = new AtomicLong();
+	}
+
+	/**
+	 * Returns the directory the cache entries are stored in.
+	 *
+	 * @return the cache directory
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Checks if cache entries are validated by a hash of the file contents in addition to its size and modification time.
+	 *
+	 * @return {@code true} if the contents are verified, {@code false} otherwise
+	 */
+	public boolean isVerifyContent() {
+		return verifyContent;
+	}
+
+	/**
+	 * Sets whether cache entries are validated by a hash of the file contents in addition to its size and modification time.
+	 * Verifying the contents catches changes that keep the size and modification time, at the cost of reading the whole
+	 * file on every request. Files larger than 2 GB cannot be verified, and loading them fails then.
+	 *
+	 * @param verifyContent {@code true} to verify the contents, {@code false} to rely on size and modification time only
+	 *
+	 * @return a reference to this object
+	 */
+	public MTLDiskCache setVerifyContent(boolean verifyContent) {
+		this.verifyContent = verifyContent;
+		return this;
+	}
+
+	/**
+	 * Loads the specified MTL file, from its cache entry if it is still valid, or by parsing it and updating the cache
+	 * otherwise.
+	 *
+	 * @param file the path of the MTL file
+	 *
+	 * @return a new {@link MTLLibrary}
+	 *
+	 * @throws IOException if the MTL file cannot be read
+	 */
+	public MTLLibrary load(Path file) throws IOException {
+		return loadCompact(file).toLibrary();
+	}
+
+	/**
+	 * Loads the specified MTL file as a {@link MTLCompactLibrary}, from its cache entry if it is still valid, or by parsing
+	 * it and updating the cache otherwise. Cache entries that cannot be read or written are counted as errors and never fail
+	 * the request.
+	 *
+	 * @param file the path of the MTL file
+	 *
+	 * @return the compact library
+	 *
+	 * @throws IOException if the MTL file cannot be read
+	 */
+	public MTLCompactLibrary loadCompact(Path file) throws IOException {
+		Objects.requireNonNull(file, "File must not be null");
+		Path source = file.toAbsolutePath().normalize();
+		MTLCacheEvent event = MTLFlightRecorder.isAvailable() ? MTLCacheEvent.start("disk", source) : null;
+		BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+		long size = attributes.size();
+		long modified = attributes.lastModifiedTime().toMillis();
+		ByteBuffer content = verifyContent ? readFully(source) : null;
+		byte[] hash = Objects.isNull(content) ? new byte[0] : hash(content);
+
+		Path entry = entryOf(source);
+		MTLCompactLibrary cached = readEntry(entry, source, size, modified, hash);
+		if (Objects.nonNull(cached)) {
+			hitCount.incrementAndGet();
+			if (Objects.nonNull(event))
+				event.finish(true, cached);
+			return cached;
+		}
+		missCount.incrementAndGet();
+		MTLCompactLibrary library = Objects.isNull(content) ? MTLCompactLibrary.parse(source)
+				: MTLCompactLibrary.parse(content);
+		writeEntry(entry, source, size, modified, hash, library);
+		if (Objects.nonNull(event))
+			event.finish(false, library);
+		return library;
+	}
+
+	/**
+	 * Removes the cache entry of the specified MTL file, if any.
+	 *
+	 * @param file the path of the MTL file
+	 *
+	 * @throws IOException if the entry cannot be deleted
+	 */
+	public void invalidate(Path file) throws IOException {
+		Objects.requireNonNull(file, "File must not be null");
+		Files.deleteIfExists(entryOf(file.toAbsolutePath().normalize()));
+	}
+
+	/**
+	 * Removes all cache entries from the cache directory.
+	 *
+	 * @throws IOException if an entry cannot be deleted
+	 */
+	public void clear() throws IOException {
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+			for (Path entry : entries)
+				Files.deleteIfExists(entry);
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the statistics of this cache.
+	 *
+	 * @return the cache statistics
+	 */
+	public MTLCacheStatistics getStatistics() {
+		return new MTLCacheStatistics(hitCount.get(), missCount.get(), 0L, errorCount.get());
+	}
+
+	/**
+	 * Resets the statistics of this cache to zero.
+	 */
+	public void resetStatistics() {
+		hitCount.set(0L);
+		missCount.set(0L);
+		errorCount.set(0L);
+	}
+
+	private Path entryOf(Path source) {
+		byte[] digest = sha256().digest(source.toString().getBytes(StandardCharsets.UTF_8));
+		StringBuilder name = new StringBuilder(40);
+		for (int i = 0; i < 16; i++)
+			name.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+		return directory.resolve(name.append(ENTRY_SUFFIX).toString());
+	}
+
+	private MTLCompactLibrary readEntry(Path entry, Path source, long size, long modified, byte[] hash) {
+		try {
+			ByteBuffer buffer = readFully(entry);
+			if (buffer.getInt() != ENTRY_MAGIC || buffer.getInt() != ENTRY_VERSION || buffer.getLong() != size
+					|| buffer.getLong() != modified)
+				return null;
+			byte[] entryHash = new byte[buffer.get()];
+			buffer.get(entryHash);
+			byte[] path = new byte[buffer.getInt()];
+			buffer.get(path);
+			if (!Arrays.equals(entryHash, hash) || !source.toString().equals(new String(path, StandardCharsets.UTF_8)))
+				return null;
+			return MTLBinaryFormat.read(buffer);
+		} catch (NoSuchFileException exception) {
+			return null;
+		} catch (IOException | UncheckedIOException | BufferUnderflowException | NegativeArraySizeException exception) {
+			errorCount.incrementAndGet();
+			return null;
+		}
+	}
+
+	private void writeEntry(Path entry, Path source, long size, long modified, byte[] hash, MTLCompactLibrary library) {
+		Path temporary = null;
+		try {
+			temporary = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+			try (OutputStream stream = Files.newOutputStream(temporary)) {
+				DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+				byte[] path = source.toString().getBytes(StandardCharsets.UTF_8);
+				output.writeInt(ENTRY_MAGIC);
+				output.writeInt(ENTRY_VERSION);
+				output.writeLong(size);
+				output.writeLong(modified);
+				output.writeByte(hash.length);
+				output.write(hash);
+				output.writeInt(path.length);
+				output.write(path);
+				MTLBinaryFormat.write(library, output);
+				output.flush();
+			}
+			try {
+				Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException exception) {
+				Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException exception) {
+			errorCount.incrementAndGet();
+			try {
+				if (Objects.nonNull(temporary))
+					Files.deleteIfExists(temporary);
+			} catch (IOException ignored) {}
+		}
+	}
+
+	private static ByteBuffer readFully(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException("File is too large to be read: " + file);
+			if (size >= MAPPING_THRESHOLD)
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+				continue;
+			buffer.flip();
+			return buffer;
+		}
+	}
+
+	private static byte[] hash(ByteBuffer content) {
+		MessageDigest digest = sha256();
+		digest.update(content.duplicate());
+		return digest.digest();
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException exception) {
+			throw new IllegalStateException(exception);
+		}
+	}
+
+}
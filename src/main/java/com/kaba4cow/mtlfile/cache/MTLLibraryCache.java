@@ -0,0 +1,415 @@
+package com.kaba4cow.mtlfile.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.kaba4cow.mtlfile.MTLFlightRecorder;
+import com.kaba4cow.mtlfile.compact.MTLCompactLibrary;
+
+/**
+ * A thread-safe in-memory cache of parsed MTL files. Libraries are cached as {@link MTLCompactLibrary} instances, which are
+ * immutable, so the same instance is handed out to every caller and can be shared between threads. The cache can be
+ * bounded by the number of entries and by their estimated size, in which case the least recently used entries are
+ * evicted first. Entries can also expire after a time to live, and be reloaded when the size or modification time of their
+ * file changes. Concurrent requests for a file that is not cached yet parse it only once.
+ */
+public class MTLLibraryCache {
+
+	private volatile long maximumEntries;
+	private volatile long maximumSize;
+	private volatile long timeToLive;
+	private volatile boolean checkModified;
+	private volatile MTLDiskCache diskCache;
+
+	private final LinkedHashMap<Path, Entry> entries;
+	private long size;
+
+	private final AtomicLong hitCount;
+	private final AtomicLong missCount;
+	private final AtomicLong evictionCount;
+	private final AtomicLong errorCount;
+
+	/**
+	 * Creates an unbounded cache. Use the setters to bound it.
+	 */
+	public MTLLibraryCache() {
+		this.maximumEntries = Long.MAX_VALUE;
+		this.maximumSize = Long.MAX_VALUE;
+		this.timeToLive = 0L;
+		this.checkModified = false;
+		this.diskCache = null;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+		this.size = 0L;
+		this.hitCount = new AtomicLong();
+		this.missCount = new AtomicLong();
+		this.evictionCount = new AtomicLong();
+		this.errorCount = new AtomicLong();
+	}
+
+	/**
+	 * Returns the maximum number of cached libraries.
+	 *
+	 * @return the maximum number of entries
+	 */
+	public long getMaximumEntries() {
+		return maximumEntries;
+	}
+
+	/**
+	 * Sets the maximum number of cached libraries. The least recently used libraries are evicted once the limit is exceeded.
+	 *
+	 * @param maximumEntries the maximum number of entries
+	 *
+	 * @return a reference to this object
+	 *
+	 * @throws IllegalArgumentException if the maximum is not positive
+	 */
+	public MTLLibraryCache setMaximumEntries(long maximumEntries) {
+		if (maximumEntries < 1L)
+			throw new IllegalArgumentException("Maximum entries must be positive");
+		synchronized (entries) {
+			this.maximumEntries = maximumEntries;
+			evict();
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the maximum total estimated size of the cached libraries in bytes.
+	 *
+	 * @return the maximum size in bytes
+	 *
+	 * @see MTLCompactLibrary#getEstimatedSize()
+	 */
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Sets the maximum total estimated size of the cached libraries in bytes. The least recently used libraries are evicted
+	 * once the limit is exceeded.
+	 *
+	 * @param maximumSize the maximum size in bytes
+	 *
+	 * @return a reference to this object
+	 *
+	 * @throws IllegalArgumentException if the maximum is not positive
+	 *
+	 * @see MTLCompactLibrary#getEstimatedSize()
+	 */
+	public MTLLibraryCache setMaximumSize(long maximumSize) {
+		if (maximumSize < 1L)
+			throw new IllegalArgumentException("Maximum size must be positive");
+		synchronized (entries) {
+			this.maximumSize = maximumSize;
+			evict();
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the time after which a cached library is parsed again.
+	 *
+	 * @return the time to live, or {@code null} if libraries do not expire
+	 */
+	public Duration getTimeToLive() {
+		return timeToLive == 0L ? null : Duration.ofNanos(timeToLive);
+	}
+
+	/**
+	 * Sets the time after which a cached library is parsed again, counted from the moment it was loaded.
+	 *
+	 * @param timeToLive the time to live, or {@code null} if libraries should not expire
+	 *
+	 * @return a reference to this object
+	 *
+	 * @throws IllegalArgumentException if the time to live is not positive
+	 */
+	public MTLLibraryCache setTimeToLive(Duration timeToLive) {
+		if (Objects.nonNull(timeToLive) && (timeToLive.isNegative() || timeToLive.isZero()))
+			throw new IllegalArgumentException("Time to live must be positive");
+		this.timeToLive = Objects.isNull(timeToLive) ? 0L : timeToLive.toNanos();
+		return this;
+	}
+
+	/**
+	 * Checks if the size and modification time of a file are checked on every request.
+	 *
+	 * @return {@code true} if files are checked for changes, {@code false} otherwise
+	 */
+	public boolean isCheckModified() {
+		return checkModified;
+	}
+
+	/**
+	 * Sets whether the size and modification time of a file are checked on every request, so that a library is parsed
+	 * again as soon as its file changes.
+	 *
+	 * @param checkModified {@code true} to check files for changes, {@code false} otherwise
+	 *
+	 * @return a reference to this object
+	 */
+	public MTLLibraryCache setCheckModified(boolean checkModified) {
+		this.checkModified = checkModified;
+		return this;
+	}
+
+	/**
+	 * Returns the disk cache libraries are loaded through.
+	 *
+	 * @return the disk cache, or {@code null} if files are parsed directly
+	 */
+	public MTLDiskCache getDiskCache() {
+		return diskCache;
+	}
+
+	/**
+	 * Sets a disk cache to load libraries through when they are not cached in memory.
+	 *
+	 * @param diskCache the disk cache, or {@code null} to parse files directly
+	 *
+	 * @return a reference to this object
+	 */
+	public MTLLibraryCache setDiskCache(MTLDiskCache diskCache) {
+		this.diskCache = diskCache;
+		return this;
+	}
+
+	/**
+	 * Returns the library of the specified MTL file, parsing it if it is not cached or its entry is no longer valid.
+	 *
+	 * @param file the path of the MTL file
+	 *
+	 * @return the shared compact library
+	 *
+	 * @throws IOException if the MTL file cannot be read
+	 */
+	public MTLCompactLibrary get(Path file) throws IOException {
+		Objects.requireNonNull(file, "File must not be null");
+		Path source = file.toAbsolutePath().normalize();
+		boolean checkModified = this.checkModified;
+		long fileSize = -1L;
+		long fileModified = -1L;
+		if (checkModified) {
+			BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+			fileSize = attributes.size();
+			fileModified = attributes.lastModifiedTime().toMillis();
+		}
+		long now = System.nanoTime();
+		MTLCacheEvent event = MTLFlightRecorder.isAvailable() ? MTLCacheEvent.start("memory", source) : null;
+
+		Entry entry;
+		boolean load = false;
+		synchronized (entries) {
+			entry = entries.get(source);
+			if (Objects.nonNull(entry) && isStale(entry, checkModified, fileSize, fileModified, now)) {
+				remove(source);
+				evictionCount.incrementAndGet();
+				entry = null;
+			}
+			if (Objects.isNull(entry)) {
+				entry = new Entry(fileSize, fileModified, now);
+				entries.put(source, entry);
+				load = true;
+			}
+		}
+		if (!load) {
+			hitCount.incrementAndGet();
+			MTLCompactLibrary library = entry.await();
+			if (Objects.nonNull(event))
+				event.finish(true, library);
+			return library;
+		}
+
+		missCount.incrementAndGet();
+		MTLCompactLibrary library;
+		try {
+			MTLDiskCache diskCache = this.diskCache;
+			library = Objects.isNull(diskCache) ? MTLCompactLibrary.parse(source) : diskCache.loadCompact(source);
+		} catch (IOException | RuntimeException | Error exception) {
+			errorCount.incrementAndGet();
+			synchronized (entries) {
+				if (entries.get(source) == entry)
+					entries.remove(source);
+			}
+			entry.future.completeExceptionally(exception);
+			throw exception;
+		}
+		synchronized (entries) {
+			if (entries.get(source) == entry) {
+				entry.size = library.getEstimatedSize();
+				size += entry.size;
+				evict();
+			}
+		}
+		entry.future.complete(library);
+		if (Objects.nonNull(event))
+			event.finish(false, library);
+		return library;
+	}
+
+	/**
+	 * Returns the library of the specified MTL file if it is cached, without parsing it otherwise.
+	 *
+	 * @param file the path of the MTL file
+	 *
+	 * @return the shared compact library, or {@code null} if it is not cached, still being parsed, or no longer valid as
+	 *             {@link #get(Path)} would reload it
+	 */
+	public MTLCompactLibrary getIfPresent(Path file) {
+		Objects.requireNonNull(file, "File must not be null");
+		Path source = file.toAbsolutePath().normalize();
+		boolean checkModified = this.checkModified;
+		long fileSize = -1L;
+		long fileModified = -1L;
+		if (checkModified)
+			try {
+				BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+				fileSize = attributes.size();
+				fileModified = attributes.lastModifiedTime().toMillis();
+			} catch (IOException exception) {
+				return null;
+			}
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(source);
+		}
+		if (Objects.isNull(entry) || isStale(entry, checkModified, fileSize, fileModified, System.nanoTime()))
+			return null;
+		return entry.future.getNow(null);
+	}
+
+	/**
+	 * Removes the library of the specified MTL file from the cache, if any.
+	 *
+	 * @param file the path of the MTL file
+	 */
+	public void invalidate(Path file) {
+		Objects.requireNonNull(file, "File must not be null");
+		synchronized (entries) {
+			remove(file.toAbsolutePath().normalize());
+		}
+	}
+
+	/**
+	 * Removes all libraries from the cache.
+	 */
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+			size = 0L;
+		}
+	}
+
+	/**
+	 * Returns the number of cached libraries, including those still being parsed.
+	 *
+	 * @return the number of entries
+	 */
+	public int getEntryCount() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Returns the total estimated size of the cached libraries in bytes.
+	 *
+	 * @return the estimated size in bytes
+	 *
+	 * @see MTLCompactLibrary#getEstimatedSize()
+	 */
+	public long getSize() {
+		synchronized (entries) {
+			return size;
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the statistics of this cache.
+	 *
+	 * @return the cache statistics
+	 */
+	public MTLCacheStatistics getStatistics() {
+		return new MTLCacheStatistics(hitCount.get(), missCount.get(), evictionCount.get(), errorCount.get());
+	}
+
+	/**
+	 * Resets the statistics of this cache to zero.
+	 */
+	public void resetStatistics() {
+		hitCount.set(0L);
+		missCount.set(0L);
+		evictionCount.set(0L);
+		errorCount.set(0L);
+	}
+
+	private boolean isStale(Entry entry, boolean checkModified, long fileSize, long fileModified, long now) {
+		if (!entry.future.isDone())
+			return false;
+		long timeToLive = this.timeToLive;
+		if (timeToLive != 0L && now - entry.loaded >= timeToLive)
+			return true;
+		return checkModified && (entry.fileSize != fileSize || entry.fileModified != fileModified);
+	}
+
+	private void remove(Path source) {
+		Entry entry = entries.remove(source);
+		if (Objects.nonNull(entry))
+			size -= entry.size;
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<Path, Entry>> iterator = entries.entrySet().iterator();
+		while ((entries.size() > maximumEntries || size > maximumSize) && iterator.hasNext()) {
+			Entry entry = iterator.next().getValue();
+			iterator.remove();
+			size -= entry.size;
+			evictionCount.incrementAndGet();
+		}
+	}
+
+	private static class Entry {
+
+		private final CompletableFuture<MTLCompactLibrary> future;
+		private final long fileSize;
+		private final long fileModified;
+		private final long loaded;
+		private long size;
+
+		private Entry(long fileSize, long fileModified, long loaded) {
+			this.future = new CompletableFuture<>();
+			this.fileSize = fileSize;
+			this.fileModified = fileModified;
+			this.loaded = loaded;
+			this.size = 0L;
+		}
+
+		private MTLCompactLibrary await() throws IOException {
+			try {
+				return future.join();
+			} catch (CompletionException exception) {
+				Throwable cause = exception.getCause();
+				if (cause instanceof IOException)
+					throw new IOException(cause.getMessage(), cause);
+				if (cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				if (cause instanceof Error)
+					throw (Error) cause;
+				throw exception;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,461 @@
+package com.kaba4cow.mtlfile.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import com.kaba4cow.mtlfile.MTLLibrary;
+import com.kaba4cow.mtlfile.MTLParser;
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * A persistent index of the materials of an MTL file, stored in a sidecar file next to it, that allows single materials to
+ * be read from files too large to be scanned on every start. The index records the name, byte offset, length and first
+ * line of the statements of every material, together with the size and modification time the file had when it was indexed. It is
+ * built once, with a single sequential scan of the file, and memory-mapped when opened; a material is then read with a
+ * positional read of its statements only and parsed on its own.
+ * <p>
+ * The sidecar file is only used while the MTL file still matches it, otherwise {@link #open(Path)} builds it again. The
+ * MTL file must not be modified while the index is open. Instances are safe to use from several threads at once.
+ */
+public final class MTLSidecarIndex implements Closeable {
+
+	private static final int INDEX_MAGIC = 0x4D544C49;
+	private static final int INDEX_VERSION = 2;
+	private static final String INDEX_SUFFIX = ".mtli";
+	private static final int HEADER_SIZE = 32;
+	private static final int ENTRY_SIZE = 20;
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final byte[] NEW_MATERIAL = "newmtl".getBytes(StandardCharsets.US_ASCII);
+
+	private final Path file;
+	private final FileChannel channel;
+	private final ByteBuffer index;
+	private final int count;
+	private final int slots;
+	private final int names;
+
+	private MTLSidecarIndex(Path file, FileChannel channel, ByteBuffer index) {
+		this.file = file;
+		this.channel = channel;
+		this.index = index;
+		this.count = index.getInt(24);
+		this.slots = index.getInt(28);
+		this.names = HEADER_SIZE + ENTRY_SIZE * count + 4 * slots;
+	}
+
+	/**
+	 * Returns the path of the sidecar file of the specified MTL file: the path of the file with {@code .mtli} appended.
+	 *
+	 * @param file the path of the MTL file
+	 *
+	 * @return the path of the sidecar file
+	 */
+	public static Path sidecarOf(Path file) {
+		Objects.requireNonNull(file, "File must not be null");
+		return file.resolveSibling(file.getFileName() + INDEX_SUFFIX);
+	}
+
+	/**
+	 * Opens the index of the specified MTL file from its {@link #sidecarOf(Path) sidecar file}, building the sidecar file
+	 * first if it does not exist or no longer matches the MTL file.
+	 *
+	 * @param file the path of the MTL file
+	 *
+	 * @return the index
+	 *
+	 * @throws IOException if the MTL file cannot be read, or the sidecar file is corrupted or cannot be written
+	 */
+	public static MTLSidecarIndex open(Path file) throws IOException {
+		return open(file, sidecarOf(file));
+	}
+
+	/**
+	 * Opens the index of the specified MTL file from the specified sidecar file, building the sidecar file first if it does
+	 * not exist or no longer matches the MTL file.
+	 *
+	 * @param file    the path of the MTL file
+	 * @param sidecar the path of the sidecar file
+	 *
+	 * @return the index
+	 *
+	 * @throws IOException if the MTL file cannot be read, or the sidecar file is corrupted or cannot be written
+	 */
+	public static MTLSidecarIndex open(Path file, Path sidecar) throws IOException {
+		Objects.requireNonNull(file, "File must not be null");
+		Objects.requireNonNull(sidecar, "Sidecar must not be null");
+		ByteBuffer index = read(sidecar, file);
+		if (Objects.isNull(index)) {
+			build(file, sidecar);
+			index = read(sidecar, file);
+			if (Objects.isNull(index))
+				throw new IOException("File was modified while it was indexed: " + file);
+		}
+		return new MTLSidecarIndex(file, FileChannel.open(file, StandardOpenOption.READ), index);
+	}
+
+	/**
+	 * Scans the specified MTL file and writes its index to the specified sidecar file, replacing any previous one.
+	 *
+	 * @param file    the path of the MTL file
+	 * @param sidecar the path of the sidecar file
+	 *
+	 * @throws IOException if the MTL file cannot be read or the sidecar file cannot be written
+	 */
+	public static void build(Path file, Path sidecar) throws IOException {
+		Objects.requireNonNull(file, "File must not be null");
+		Objects.requireNonNull(sidecar, "Sidecar must not be null");
+		BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		Scanner scanner = new Scanner();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			scanner.scan(channel);
+		}
+		write(sidecar, attributes.size(), attributes.lastModifiedTime().toMillis(), scanner);
+	}
+
+	/**
+	 * Returns the indexed MTL file.
+	 *
+	 * @return the path of the MTL file
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the number of materials in the file.
+	 *
+	 * @return the number of materials
+	 */
+	public int getMaterialCount() {
+		return count;
+	}
+
+	/**
+	 * Retrieves the name of a material without reading the MTL file.
+	 *
+	 * @param index the index of the material
+	 *
+	 * @return the material name
+	 *
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public String getMaterialName(int index) {
+		int position = names + this.index.getInt(entry(index) + 12);
+		byte[] bytes = new byte[this.index.getInt(position)];
+		for (int i = 0; i < bytes.length; i++)
+			bytes[i] = this.index.get(position + 4 + i);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Finds the index of a material by its name without reading the MTL file. If several materials share the name, the
+	 * index of the first one is returned.
+	 *
+	 * @param name the name of the material to find
+	 *
+	 * @return the index of the material with the specified name, or {@code -1} if not found
+	 */
+	public int indexOf(String name) {
+		if (Objects.isNull(name) || count == 0)
+			return -1;
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		int mask = slots - 1;
+		for (int slot = hash(name) & mask;; slot = (slot + 1) & mask) {
+			int entry = index.getInt(HEADER_SIZE + ENTRY_SIZE * count + 4 * slot);
+			if (entry == 0)
+				return -1;
+			if (nameEquals(entry - 1, bytes))
+				return entry - 1;
+		}
+	}
+
+	/**
+	 * Reads and parses a material. Only the statements of the material are read from the MTL file. Errors report the line
+	 * of the MTL file.
+	 *
+	 * @param index the index of the material
+	 *
+	 * @return a new material
+	 *
+	 * @throws IOException               if the MTL file cannot be read, no longer matches the index, or the material has an
+	 *                                   invalid statement
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public MTLMaterial getMaterial(int index) throws IOException {
+		int entry = entry(index);
+		long offset = this.index.getLong(entry);
+		ByteBuffer block = ByteBuffer.allocate(this.index.getInt(entry + 8));
+		while (block.hasRemaining())
+			if (channel.read(block, offset + block.position()) < 0)
+				throw new IOException("File is shorter than its index: " + file);
+		block.flip();
+		MTLLibrary library = MTLParser.parseBlock(block, this.index.getInt(entry + 16), null);
+		if (library.getMaterials().size() != 1 || !getMaterialName(index).equals(library.getMaterial(0).getName()))
+			throw new IOException("File no longer matches its index: " + file);
+		MTLMaterial material = library.getMaterial(0);
+		library.clearMaterials();
+		return material;
+	}
+
+	/**
+	 * Reads and parses a material by its name. Only the statements of the material are read from the MTL file. If several
+	 * materials share the name, the first one is returned.
+	 *
+	 * @param name the name of the material to read
+	 *
+	 * @return a new material, or {@code null} if not found
+	 *
+	 * @throws IOException if the MTL file cannot be read, no longer matches the index, or the material has an invalid
+	 *                     statement
+	 */
+	public MTLMaterial getMaterial(String name) throws IOException {
+		int index = indexOf(name);
+		return index < 0 ? null : getMaterial(index);
+	}
+
+	/**
+	 * Closes the MTL file.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MTLSidecarIndex [file=%s, materials=%s]", file, count);
+	}
+
+	private int entry(int index) {
+		if (index < 0 || index >= count)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+		return HEADER_SIZE + ENTRY_SIZE * index;
+	}
+
+	private boolean nameEquals(int index, byte[] bytes) {
+		int position = names + this.index.getInt(HEADER_SIZE + ENTRY_SIZE * index + 12);
+		if (this.index.getInt(position) != bytes.length)
+			return false;
+		for (int i = 0; i < bytes.length; i++)
+			if (this.index.get(position + 4 + i) != bytes[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Maps the specified sidecar file if it exists and matches the current size and modification time of the MTL file. The
+	 * slot count must be a power of two greater than the material count, so that every probe of the hash table stays in
+	 * range and ends at an empty slot.
+	 */
+	private static ByteBuffer read(Path sidecar, Path file) throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		try (FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_SIZE || size > Integer.MAX_VALUE)
+				return null;
+			ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+			if (index.getInt(0) != INDEX_MAGIC || index.getInt(4) != INDEX_VERSION
+					|| index.getLong(8) != attributes.size()
+					|| index.getLong(16) != attributes.lastModifiedTime().toMillis())
+				return null;
+			int count = index.getInt(24);
+			int slots = index.getInt(28);
+			if (count < 0)
+				throw new StreamCorruptedException("Invalid material count: " + count);
+			if (slots <= count || Integer.bitCount(slots) != 1)
+				throw new StreamCorruptedException("Invalid slot count: " + slots);
+			if (HEADER_SIZE + ENTRY_SIZE * (long) count + 4L * slots > size)
+				throw new StreamCorruptedException("Truncated index: " + sidecar);
+			return index;
+		} catch (NoSuchFileException exception) {
+			return null;
+		}
+	}
+
+	private static void write(Path sidecar, long size, long modified, Scanner scanner) throws IOException {
+		int count = scanner.names.size();
+		int slots = Integer.highestOneBit(Math.max(2 * count, 1) * 2 - 1);
+		int[] table = new int[slots];
+		for (int i = 0; i < count; i++)
+			for (int slot = hash(scanner.names.get(i)) & (slots - 1);; slot = (slot + 1) & (slots - 1)) {
+				if (table[slot] == 0) {
+					table[slot] = i + 1;
+					break;
+				}
+				if (scanner.names.get(table[slot] - 1).equals(scanner.names.get(i)))
+					break;
+			}
+		long length = HEADER_SIZE + ENTRY_SIZE * (long) count + 4L * slots;
+		byte[][] names = new byte[count][];
+		for (int i = 0; i < count; i++) {
+			names[i] = scanner.names.get(i).getBytes(StandardCharsets.UTF_8);
+			length += 4L + names[i].length;
+		}
+		if (length > Integer.MAX_VALUE)
+			throw new IOException("Index is too large: " + sidecar);
+
+		Path directory = sidecar.toAbsolutePath().getParent();
+		Path temporary = Files.createTempFile(directory, sidecar.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream stream = Files.newOutputStream(temporary)) {
+				DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+				output.writeInt(INDEX_MAGIC);
+				output.writeInt(INDEX_VERSION);
+				output.writeLong(size);
+				output.writeLong(modified);
+				output.writeInt(count);
+				output.writeInt(slots);
+				int position = 0;
+				for (int i = 0; i < count; i++) {
+					long block = scanner.offsets[i + 1] - scanner.offsets[i];
+					if (block > Integer.MAX_VALUE)
+						throw new IOException("Material is too large: " + scanner.names.get(i));
+					output.writeLong(scanner.offsets[i]);
+					output.writeInt((int) block);
+					output.writeInt(position);
+					output.writeInt(scanner.lines[i]);
+					position += 4 + names[i].length;
+				}
+				for (int entry : table)
+					output.writeInt(entry);
+				for (byte[] name : names) {
+					output.writeInt(name.length);
+					output.write(name);
+				}
+				output.flush();
+			}
+			try {
+				Files.move(temporary, sidecar, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException exception) {
+				Files.move(temporary, sidecar, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	private static int hash(String name) {
+		int hash = name.hashCode();
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Finds the {@code newmtl} statements of an MTL file in a single pass over its bytes, read in blocks so that files of
+	 * any size can be scanned. Lines are split and tokens recognized the same way the parser does.
+	 */
+	private static final class Scanner {
+
+		private final List<String> names;
+		private long[] offsets;
+		private int[] lines;
+		private int line;
+		private boolean carriageReturn;
+
+		private Scanner() {
+			this.names = new ArrayList<>();
+			this.offsets = new long[16];
+			this.lines = new int[16];
+			this.line = 0;
+			this.carriageReturn = false;
+		}
+
+		private void scan(FileChannel channel) throws IOException {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			long base = 0L;
+			int length = 0;
+			int scanned = 0;
+			while (true) {
+				if (length == buffer.length)
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				int read = channel.read(ByteBuffer.wrap(buffer, length, buffer.length - length));
+				if (read > 0)
+					length += read;
+				int start = 0;
+				for (int i = scanned; i < length; i++)
+					if (buffer[i] == '\n' || buffer[i] == '\r') {
+						if (buffer[i] == '\r' || !carriageReturn || start != i)
+							nextLine(buffer, start, i, base);
+						carriageReturn = buffer[i] == '\r';
+						start = i + 1;
+					}
+				if (read < 0) {
+					if (start < length)
+						line(buffer, start, length, base);
+					offsets[names.size()] = base + length;
+					return;
+				}
+				System.arraycopy(buffer, start, buffer, 0, length - start);
+				base += start;
+				length -= start;
+				scanned = length;
+			}
+		}
+
+		/**
+		 * Looks at a line ended by a terminator and counts it. The {@code \n} of a {@code \r\n} pair does not end a line.
+		 */
+		private void nextLine(byte[] buffer, int start, int end, long base) throws IOException {
+			line(buffer, start, end, base);
+			if (line == Integer.MAX_VALUE)
+				throw new IOException("File has too many lines");
+			line++;
+		}
+
+		private void line(byte[] buffer, int start, int end, long base) {
+			int position = skipWhitespace(buffer, start, end);
+			if (end - position <= NEW_MATERIAL.length)
+				return;
+			for (int i = 0; i < NEW_MATERIAL.length; i++)
+				if (buffer[position + i] != NEW_MATERIAL[i])
+					return;
+			int nameStart = position + NEW_MATERIAL.length;
+			if (!isWhitespace(buffer[nameStart]))
+				return;
+			nameStart = skipWhitespace(buffer, nameStart, end);
+			if (nameStart == end)
+				return;
+			int nameEnd = nameStart;
+			while (nameEnd < end && !isWhitespace(buffer[nameEnd]))
+				nameEnd++;
+			if (names.size() == offsets.length - 1) {
+				offsets = Arrays.copyOf(offsets, offsets.length * 2);
+				lines = Arrays.copyOf(lines, lines.length * 2);
+			}
+			offsets[names.size()] = base + start;
+			lines[names.size()] = line;
+			names.add(new String(buffer, nameStart, nameEnd - nameStart, StandardCharsets.UTF_8));
+		}
+
+		private static int skipWhitespace(byte[] buffer, int position, int end) {
+			while (position < end && isWhitespace(buffer[position]))
+				position++;
+			return position;
+		}
+
+		private static boolean isWhitespace(byte b) {
+			return (b & 0xFF) <= ' ';
+		}
+
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.kaba4cow.mtlfile.compact;
+
+import java.nio.file.Path;
+
+/**
+ * The flight recorder event of a library read or written by {@link MTLBinaryFormat} on JVMs before Java 11, which
+ * records nothing. The multi-release jar replaces it with an event of the JDK Flight Recorder on Java 11 and later.
+ */
+final class MTLBinaryFormatEvent {
+
+	private MTLBinaryFormatEvent() {}
+
+	/**
+	 * Starts an event if it is enabled in a recording.
+	 *
+	 * @param operation either {@code "read"} or {@code "write"}
+	 * @param file      the path of the file, or {@code null}
+	 *
+	 * @return {@code null}
+	 */
+	static MTLBinaryFormatEvent start(String operation, Path file) {
+		return null;
+	}
+
+	/**
+	 * Ends the event and commits it if it lasted long enough to be recorded.
+	 *
+	 * @param bytes     the number of bytes read or written
+	 * @param materials the number of materials
+	 */
+	void finish(long bytes, int materials) {}
+
+}
@@ -0,0 +1,580 @@
+package com.kaba4cow.mtlfile.compact;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.kaba4cow.mtlfile.MTLHandler;
+import com.kaba4cow.mtlfile.MTLIllumination;
+import com.kaba4cow.mtlfile.MTLKeyword;
+import com.kaba4cow.mtlfile.MTLLibrary;
+import com.kaba4cow.mtlfile.MTLParser;
+import com.kaba4cow.mtlfile.elements.MTLBumpMap;
+import com.kaba4cow.mtlfile.elements.MTLColor;
+import com.kaba4cow.mtlfile.elements.MTLComment;
+import com.kaba4cow.mtlfile.elements.MTLMap;
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * An immutable, column oriented representation of an {@link MTLLibrary}. Instead of an object graph per material, every
+ * property is stored in a primitive array indexed by material: scalars in {@code float[]}, colors packed in a single
+ * {@code float[]}, illumination models in a {@code byte[]} and the presence of the optional properties in a bit mask per
+ * material. Maps are stored once per distinct map and file paths once per distinct path. Materials are accessed through
+ * {@link MTLCompactMaterial} flyweights. Instances are safe to share between threads.
+ */
+public final class MTLCompactLibrary {
+
+	static final int TRANSPARENCY = 1;
+	static final int SPECULAR_EXPONENT = 1 << 1;
+	static final int AMBIENT_COLOR = 1 << 2;
+	static final int DIFFUSE_COLOR = 1 << 3;
+	static final int SPECULAR_COLOR = 1 << 4;
+
+	static final int MAP_SCALE = 1;
+	static final int MAP_OFFSET = 1 << 1;
+	static final int MAP_TRANSFORM = 1 << 2;
+	static final int MAP_INTENSITY = 1 << 3;
+
+	static final int AMBIENT = 0;
+	static final int DIFFUSE = 1;
+	static final int SPECULAR = 2;
+	static final int TRANSPARENCY_MAP = 3;
+	static final int BUMP = 4;
+	static final int COLORS = 3;
+	static final int MAPS = 5;
+
+	final String[] comments;
+	final int size;
+	final String[] names;
+	final short[] presence;
+	final float[] transparencies;
+	final float[] specularExponents;
+	final byte[] illuminations;
+	final float[] colors;
+	final int[] maps;
+
+	final String[] files;
+	final int[] mapFiles;
+	final byte[] mapOptions;
+	final float[] mapScales;
+	final float[] mapOffsets;
+	final float[] mapIntensities;
+
+	private final int[] index;
+
+	MTLCompactLibrary(String[] comments, String[] names, short[] presence, float[] transparencies,
+			float[] specularExponents, byte[] illuminations, float[] colors, int[] maps, String[] files, int[] mapFiles,
+			byte[] mapOptions, float[] mapScales, float[] mapOffsets, float[] mapIntensities) {
+		this.comments = comments;
+		this.size = names.length;
+		this.names = names;
+		this.presence = presence;
+		this.transparencies = transparencies;
+		this.specularExponents = specularExponents;
+		this.illuminations = illuminations;
+		this.colors = colors;
+		this.maps = maps;
+		this.files = files;
+		this.mapFiles = mapFiles;
+		this.mapOptions = mapOptions;
+		this.mapScales = mapScales;
+		this.mapOffsets = mapOffsets;
+		this.mapIntensities = mapIntensities;
+		this.index = buildIndex(names, size);
+	}
+
+	/**
+	 * Creates a compact copy of the specified library.
+	 *
+	 * @param library the library to copy
+	 * 
+	 * @return the compact library
+	 */
+	public static MTLCompactLibrary of(MTLLibrary library) {
+		Objects.requireNonNull(library, "Library must not be null");
+		Builder builder = new Builder();
+		for (MTLComment comment : library.getComments())
+			builder.onComment(comment.getText());
+		for (MTLMaterial material : library.getMaterials())
+			builder.add(material);
+		return builder.build();
+	}
+
+	/**
+	 * Parses MTL data from a {@link Reader} straight into a compact library, without building an {@link MTLLibrary} first.
+	 *
+	 * @param source the reader to read the MTL data from
+	 * 
+	 * @return the compact library
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static MTLCompactLibrary parse(Reader source) throws IOException {
+		Builder builder = new Builder();
+		MTLParser.read(source, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Parses an MTL file straight into a compact library, without building an {@link MTLLibrary} first.
+	 *
+	 * @param source the path of the file to read the MTL data from
+	 * 
+	 * @return the compact library
+	 * 
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static MTLCompactLibrary parse(Path source) throws IOException {
+		Builder builder = new Builder();
+		MTLParser.read(source, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Parses MTL data from the remaining bytes of a {@link ByteBuffer} straight into a compact library, without building an
+	 * {@link MTLLibrary} first.
+	 *
+	 * @param source the buffer to read the MTL data from
+	 * 
+	 * @return the compact library
+	 */
+	public static MTLCompactLibrary parse(ByteBuffer source) {
+		Builder builder = new Builder();
+		MTLParser.read(source, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Retrieves an unmodifiable list of the comment texts in the library.
+	 *
+	 * @return an unmodifiable list of the comment texts
+	 */
+	public List<String> getComments() {
+		return Collections.unmodifiableList(Arrays.asList(comments));
+	}
+
+	/**
+	 * Returns the number of materials in the library.
+	 *
+	 * @return the number of materials
+	 */
+	public int getMaterialCount() {
+		return size;
+	}
+
+	/**
+	 * Retrieves a material from the library by its index.
+	 *
+	 * @param index the index of the material
+	 * 
+	 * @return a flyweight {@link MTLCompactMaterial} for the material at the specified index
+	 * 
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public MTLCompactMaterial getMaterial(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		return new MTLCompactMaterial(this, index);
+	}
+
+	/**
+	 * Retrieves a material from the library by its name. If several materials share the name, the first one is returned.
+	 *
+	 * @param name the name of the material to retrieve
+	 * 
+	 * @return a flyweight {@link MTLCompactMaterial} for the material with the specified name, or {@code null} if not found
+	 */
+	public MTLCompactMaterial getMaterial(String name) {
+		int index = indexOf(name);
+		return index < 0 ? null : new MTLCompactMaterial(this, index);
+	}
+
+	/**
+	 * Finds the index of a material by its name. If several materials share the name, the index of the first one is
+	 * returned.
+	 *
+	 * @param name the name of the material to find
+	 * 
+	 * @return the index of the material with the specified name, or {@code -1} if not found
+	 */
+	public int indexOf(String name) {
+		int mask = index.length - 1;
+		for (int slot = hash(name) & mask;; slot = (slot + 1) & mask) {
+			int entry = index[slot];
+			if (entry == 0)
+				return -1;
+			if (Objects.equals(names[entry - 1], name))
+				return entry - 1;
+		}
+	}
+
+	/**
+	 * Estimates the number of bytes of heap memory the library occupies, including its strings.
+	 *
+	 * @return the estimated size in bytes
+	 */
+	public long getEstimatedSize() {
+		long size = 64L;
+		size += 16L + 4L * index.length;
+		size += 16L + 2L * presence.length + 4L * transparencies.length + 4L * specularExponents.length;
+		size += 16L + illuminations.length + 4L * colors.length + 4L * maps.length;
+		size += 16L + 4L * mapFiles.length + mapOptions.length + 4L * mapScales.length + 4L * mapOffsets.length
+				+ 4L * mapIntensities.length;
+		size += estimateSize(comments) + estimateSize(names) + estimateSize(files);
+		return size;
+	}
+
+	/**
+	 * Converts the library back to a mutable {@link MTLLibrary}.
+	 *
+	 * @return a new {@link MTLLibrary} equivalent to this one
+	 */
+	public MTLLibrary toLibrary() {
+		MTLLibrary library = new MTLLibrary();
+		for (String comment : comments)
+			library.addComment(new MTLComment().setText(comment));
+		for (int i = 0; i < size; i++)
+			library.addMaterial(new MTLCompactMaterial(this, i).toMaterial());
+		return library;
+	}
+
+	private static long estimateSize(String[] strings) {
+		long size = 16L + 4L * strings.length;
+		for (String string : strings)
+			if (Objects.nonNull(string))
+				size += 40L + 2L * string.length();
+		return size;
+	}
+
+	private static int[] buildIndex(String[] names, int size) {
+		int capacity = Integer.highestOneBit(Math.max(2, size * 2 - 1)) << 1;
+		int[] index = new int[capacity];
+		int mask = capacity - 1;
+		for (int i = 0; i < size; i++)
+			for (int slot = hash(names[i]) & mask;; slot = (slot + 1) & mask) {
+				int entry = index[slot];
+				if (entry == 0) {
+					index[slot] = i + 1;
+					break;
+				}
+				if (Objects.equals(names[entry - 1], names[i]))
+					break;
+			}
+		return index;
+	}
+
+	private static int hash(String name) {
+		int hash = Objects.hashCode(name);
+		return hash ^ (hash >>> 16);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MTLCompactLibrary [comments=%s, materials=%s, maps=%s, files=%s]", comments.length, size,
+				mapFiles.length, files.length);
+	}
+
+	/**
+	 * An {@link MTLHandler} collecting statements into growing arrays, used to create compact libraries straight from the
+	 * parser.
+	 */
+	public static final class Builder implements MTLHandler {
+
+		private static final int INITIAL_CAPACITY = 16;
+
+		private String[] comments;
+		private int commentCount;
+
+		private int size;
+		private String[] names;
+		private short[] presence;
+		private float[] transparencies;
+		private float[] specularExponents;
+		private byte[] illuminations;
+		private float[] colors;
+		private int[] maps;
+
+		private final List<String> files;
+		private final Map<String, Integer> fileIndex;
+		private final Map<MapKey, Integer> mapIndex;
+		private int mapCount;
+		private int[] mapFiles;
+		private byte[] mapOptions;
+		private float[] mapScales;
+		private float[] mapOffsets;
+		private float[] mapIntensities;
+
+		/**
+		 * Creates an empty builder.
+		 */
+		public Builder() {
+			this.comments = new String[INITIAL_CAPACITY];
+			this.commentCount = 0;
+			this.size = 0;
+			this.names = new String[INITIAL_CAPACITY];
+			this.presence = new short[INITIAL_CAPACITY];
+			this.transparencies = new float[INITIAL_CAPACITY];
+			this.specularExponents = new float[INITIAL_CAPACITY];
+			this.illuminations = new byte[INITIAL_CAPACITY];
+			this.colors = new float[INITIAL_CAPACITY * COLORS * 3];
+			this.maps = new int[INITIAL_CAPACITY * MAPS];
+			this.files = new ArrayList<>();
+			this.fileIndex = new HashMap<>();
+			this.mapIndex = new HashMap<>();
+			this.mapCount = 0;
+			this.mapFiles = new int[INITIAL_CAPACITY];
+			this.mapOptions = new byte[INITIAL_CAPACITY];
+			this.mapScales = new float[INITIAL_CAPACITY];
+			this.mapOffsets = new float[INITIAL_CAPACITY];
+			this.mapIntensities = new float[INITIAL_CAPACITY];
+		}
+
+		/**
+		 * Creates the compact library from the statements received so far.
+		 *
+		 * @return the compact library
+		 */
+		public MTLCompactLibrary build() {
+			return new MTLCompactLibrary(//
+					Arrays.copyOf(comments, commentCount), //
+					Arrays.copyOf(names, size), //
+					Arrays.copyOf(presence, size), //
+					Arrays.copyOf(transparencies, size), //
+					Arrays.copyOf(specularExponents, size), //
+					Arrays.copyOf(illuminations, size), //
+					Arrays.copyOf(colors, size * COLORS * 3), //
+					Arrays.copyOf(maps, size * MAPS), //
+					files.toArray(new String[0]), //
+					Arrays.copyOf(mapFiles, mapCount), //
+					Arrays.copyOf(mapOptions, mapCount), //
+					Arrays.copyOf(mapScales, mapCount), //
+					Arrays.copyOf(mapOffsets, mapCount), //
+					Arrays.copyOf(mapIntensities, mapCount));
+		}
+
+		@Override
+		public void onComment(String text) {
+			if (commentCount == comments.length)
+				comments = Arrays.copyOf(comments, commentCount << 1);
+			comments[commentCount++] = text;
+		}
+
+		@Override
+		public void onNewMaterial(String name) {
+			if (size == names.length) {
+				int capacity = size << 1;
+				names = Arrays.copyOf(names, capacity);
+				presence = Arrays.copyOf(presence, capacity);
+				transparencies = Arrays.copyOf(transparencies, capacity);
+				specularExponents = Arrays.copyOf(specularExponents, capacity);
+				illuminations = Arrays.copyOf(illuminations, capacity);
+				colors = Arrays.copyOf(colors, capacity * COLORS * 3);
+				maps = Arrays.copyOf(maps, capacity * MAPS);
+			}
+			names[size] = name;
+			illuminations[size] = -1;
+			Arrays.fill(maps, size * MAPS, (size + 1) * MAPS, -1);
+			size++;
+		}
+
+		@Override
+		public void onScalar(MTLKeyword keyword, float value) {
+			int material = size - 1;
+			if (material < 0)
+				return;
+			if (keyword == MTLKeyword.TRANSPARENCY) {
+				transparencies[material] = value;
+				presence[material] |= TRANSPARENCY;
+			} else if (keyword == MTLKeyword.SPECULAR_EXPONENT) {
+				specularExponents[material] = value;
+				presence[material] |= SPECULAR_EXPONENT;
+			}
+		}
+
+		@Override
+		public void onIllumination(MTLIllumination illumination) {
+			if (size > 0)
+				illuminations[size - 1] = (byte) illumination.ordinal();
+		}
+
+		@Override
+		public void onColor(MTLKeyword keyword, float r, float g, float b) {
+			int material = size - 1;
+			if (material < 0)
+				return;
+			int color;
+			switch (keyword) {
+				case AMBIENT_COLOR:
+					color = AMBIENT;
+					presence[material] |= AMBIENT_COLOR;
+					break;
+				case DIFFUSE_COLOR:
+					color = DIFFUSE;
+					presence[material] |= DIFFUSE_COLOR;
+					break;
+				case SPECULAR_COLOR:
+					color = SPECULAR;
+					presence[material] |= SPECULAR_COLOR;
+					break;
+				default:
+					return;
+			}
+			int offset = (material * COLORS + color) * 3;
+			colors[offset] = r;
+			colors[offset + 1] = g;
+			colors[offset + 2] = b;
+		}
+
+		@Override
+		public void onMap(MTLKeyword keyword, MTLMap map) {
+			int material = size - 1;
+			if (material < 0)
+				return;
+			int slot;
+			switch (keyword) {
+				case AMBIENT_MAP:
+					slot = AMBIENT;
+					break;
+				case DIFFUSE_MAP:
+					slot = DIFFUSE;
+					break;
+				case SPECULAR_MAP:
+					slot = SPECULAR;
+					break;
+				case TRANSPARENCY_MAP:
+					slot = TRANSPARENCY_MAP;
+					break;
+				case BUMP_MAP:
+					slot = BUMP;
+					break;
+				default:
+					return;
+			}
+			maps[material * MAPS + slot] = addMap(map);
+		}
+
+		private void add(MTLMaterial material) {
+			onNewMaterial(material.getName());
+			if (material.hasTransparency())
+				onScalar(MTLKeyword.TRANSPARENCY, material.getTransparency());
+			if (material.hasSpecularExponent())
+				onScalar(MTLKeyword.SPECULAR_EXPONENT, material.getSpecularExponent());
+			if (material.hasIllumination())
+				onIllumination(material.getIllumination());
+			addColor(MTLKeyword.AMBIENT_COLOR, material.getAmbientColor());
+			addColor(MTLKeyword.DIFFUSE_COLOR, material.getDiffuseColor());
+			addColor(MTLKeyword.SPECULAR_COLOR, material.getSpecularColor());
+			if (material.hasAmbientMap())
+				onMap(MTLKeyword.AMBIENT_MAP, material.getAmbientMap());
+			if (material.hasDiffuseMap())
+				onMap(MTLKeyword.DIFFUSE_MAP, material.getDiffuseMap());
+			if (material.hasSpecularMap())
+				onMap(MTLKeyword.SPECULAR_MAP, material.getSpecularMap());
+			if (material.hasTransparencyMap())
+				onMap(MTLKeyword.TRANSPARENCY_MAP, material.getTransparencyMap());
+			if (material.hasBumpMap())
+				onMap(MTLKeyword.BUMP_MAP, material.getBumpMap());
+		}
+
+		private void addColor(MTLKeyword keyword, MTLColor color) {
+			if (Objects.nonNull(color))
+				onColor(keyword, color.getR(), color.getG(), color.getB());
+		}
+
+		private int addMap(MTLMap map) {
+			int file = addFile(map.getFile());
+			int options = 0;
+			if (map.hasScale())
+				options |= MAP_SCALE;
+			if (map.hasOffset())
+				options |= MAP_OFFSET;
+			if (map.hasTransform())
+				options |= MAP_TRANSFORM;
+			float intensity = 0.0f;
+			if (map instanceof MTLBumpMap && ((MTLBumpMap) map).hasIntensity()) {
+				options |= MAP_INTENSITY;
+				intensity = ((MTLBumpMap) map).getIntensity();
+			}
+			float scale = map.hasScale() ? map.getScale() : 0.0f;
+			float offset = map.hasOffset() ? map.getOffset() : 0.0f;
+			MapKey key = new MapKey(file, options, scale, offset, intensity);
+			Integer existing = mapIndex.get(key);
+			if (Objects.nonNull(existing))
+				return existing;
+			if (mapCount == mapFiles.length) {
+				int capacity = mapCount << 1;
+				mapFiles = Arrays.copyOf(mapFiles, capacity);
+				mapOptions = Arrays.copyOf(mapOptions, capacity);
+				mapScales = Arrays.copyOf(mapScales, capacity);
+				mapOffsets = Arrays.copyOf(mapOffsets, capacity);
+				mapIntensities = Arrays.copyOf(mapIntensities, capacity);
+			}
+			mapFiles[mapCount] = file;
+			mapOptions[mapCount] = (byte) options;
+			mapScales[mapCount] = scale;
+			mapOffsets[mapCount] = offset;
+			mapIntensities[mapCount] = intensity;
+			mapIndex.put(key, mapCount);
+			return mapCount++;
+		}
+
+		private int addFile(String file) {
+			if (Objects.isNull(file))
+				return -1;
+			Integer existing = fileIndex.get(file);
+			if (Objects.nonNull(existing))
+				return existing;
+			files.add(file);
+			fileIndex.put(file, files.size() - 1);
+			return files.size() - 1;
+		}
+
+	}
+
+	private static final class MapKey {
+
+		private final int file;
+		private final int options;
+		private final int scale;
+		private final int offset;
+		private final int intensity;
+
+		private MapKey(int file, int options, float scale, float offset, float intensity) {
+			this.file = file;
+			this.options = options;
+			this.scale = Float.floatToIntBits(scale);
+			this.offset = Float.floatToIntBits(offset);
+			this.intensity = Float.floatToIntBits(intensity);
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = file;
+			hash = 31 * hash + options;
+			hash = 31 * hash + scale;
+			hash = 31 * hash + offset;
+			return 31 * hash + intensity;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object)
+				return true;
+			if (!(object instanceof MapKey))
+				return false;
+			MapKey other = (MapKey) object;
+			return file == other.file && options == other.options && scale == other.scale && offset == other.offset
+					&& intensity == other.intensity;
+		}
+
+	}
+
+}
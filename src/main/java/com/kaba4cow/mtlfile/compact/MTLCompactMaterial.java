@@ -0,0 +1,397 @@
+package com.kaba4cow.mtlfile.compact;
+
+import com.kaba4cow.mtlfile.MTLIllumination;
+import com.kaba4cow.mtlfile.elements.MTLBumpMap;
+import com.kaba4cow.mtlfile.elements.MTLColor;
+import com.kaba4cow.mtlfile.elements.MTLMap;
+import com.kaba4cow.mtlfile.elements.MTLMaterial;
+
+/**
+ * A lightweight read-only view of a material stored in an {@link MTLCompactLibrary}. The view holds no data of its own, it
+ * only refers to a row of the library's columns. The getters mirror those of {@link MTLMaterial}; the colors and maps they
+ * return are new objects created on every call, so changing them does not affect the library.
+ */
+public final class MTLCompactMaterial {
+
+	private static final MTLIllumination[] ILLUMINATIONS = MTLIllumination.values();
+
+	private final MTLCompactLibrary library;
+	private final int index;
+
+	MTLCompactMaterial(MTLCompactLibrary library, int index) {
+		this.library = library;
+		this.index = index;
+	}
+
+	/**
+	 * Returns the index of the material in its library.
+	 *
+	 * @return the index of the material
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the material name.
+	 *
+	 * @return the material name
+	 */
+	public String getName() {
+		return library.names[index];
+	}
+
+	/**
+	 * Returns the transparency.
+	 *
+	 * @return the transparency
+	 */
+	public float getTransparency() {
+		return library.transparencies[index];
+	}
+
+	/**
+	 * Checks if the transparency is set.
+	 *
+	 * @return {@code true} if the transparency is set, {@code false} otherwise
+	 */
+	public boolean hasTransparency() {
+		return has(MTLCompactLibrary.TRANSPARENCY);
+	}
+
+	/**
+	 * Returns the specular exponent.
+	 *
+	 * @return the specular exponent
+	 */
+	public float getSpecularExponent() {
+		return library.specularExponents[index];
+	}
+
+	/**
+	 * Checks if the specular exponent is set.
+	 *
+	 * @return {@code true} if the specular exponent is set, {@code false} otherwise
+	 */
+	public boolean hasSpecularExponent() {
+		return has(MTLCompactLibrary.SPECULAR_EXPONENT);
+	}
+
+	/**
+	 * Returns the illumination model.
+	 *
+	 * @return the illumination model, or {@code null} if not set
+	 */
+	public MTLIllumination getIllumination() {
+		byte illumination = library.illuminations[index];
+		return illumination < 0 ? null : ILLUMINATIONS[illumination];
+	}
+
+	/**
+	 * Checks if the illumination model is set.
+	 *
+	 * @return {@code true} if the illumination model is set, {@code false} otherwise
+	 */
+	public boolean hasIllumination() {
+		return library.illuminations[index] >= 0;
+	}
+
+	/**
+	 * Returns a copy of the ambient color.
+	 *
+	 * @return the ambient color, or {@code null} if not set
+	 */
+	public MTLColor getAmbientColor() {
+		return color(MTLCompactLibrary.AMBIENT, MTLCompactLibrary.AMBIENT_COLOR);
+	}
+
+	/**
+	 * Returns a single component of the ambient color without creating a {@link MTLColor}.
+	 *
+	 * @param component the component index, {@code 0} for red, {@code 1} for green and {@code 2} for blue
+	 * 
+	 * @return the component value, or {@code 0} if the color is not set
+	 */
+	public float getAmbientColor(int component) {
+		return component(MTLCompactLibrary.AMBIENT, component);
+	}
+
+	/**
+	 * Checks if the ambient color is set.
+	 *
+	 * @return {@code true} if the ambient color is set, {@code false} otherwise
+	 */
+	public boolean hasAmbientColor() {
+		return has(MTLCompactLibrary.AMBIENT_COLOR);
+	}
+
+	/**
+	 * Returns a copy of the diffuse color.
+	 *
+	 * @return the diffuse color, or {@code null} if not set
+	 */
+	public MTLColor getDiffuseColor() {
+		return color(MTLCompactLibrary.DIFFUSE, MTLCompactLibrary.DIFFUSE_COLOR);
+	}
+
+	/**
+	 * Returns a single component of the diffuse color without creating a {@link MTLColor}.
+	 *
+	 * @param component the component index, {@code 0} for red, {@code 1} for green and {@code 2} for blue
+	 * 
+	 * @return the component value, or {@code 0} if the color is not set
+	 */
+	public float getDiffuseColor(int component) {
+		return component(MTLCompactLibrary.DIFFUSE, component);
+	}
+
+	/**
+	 * Checks if the diffuse color is set.
+	 *
+	 * @return {@code true} if the diffuse color is set, {@code false} otherwise
+	 */
+	public boolean hasDiffuseColor() {
+		return has(MTLCompactLibrary.DIFFUSE_COLOR);
+	}
+
+	/**
+	 * Returns a copy of the specular color.
+	 *
+	 * @return the specular color, or {@code null} if not set
+	 */
+	public MTLColor getSpecularColor() {
+		return color(MTLCompactLibrary.SPECULAR, MTLCompactLibrary.SPECULAR_COLOR);
+	}
+
+	/**
+	 * Returns a single component of the specular color without creating a {@link MTLColor}.
+	 *
+	 * @param component the component index, {@code 0} for red, {@code 1} for green and {@code 2} for blue
+	 * 
+	 * @return the component value, or {@code 0} if the color is not set
+	 */
+	public float getSpecularColor(int component) {
+		return component(MTLCompactLibrary.SPECULAR, component);
+	}
+
+	/**
+	 * Checks if the specular color is set.
+	 *
+	 * @return {@code true} if the specular color is set, {@code false} otherwise
+	 */
+	public boolean hasSpecularColor() {
+		return has(MTLCompactLibrary.SPECULAR_COLOR);
+	}
+
+	/**
+	 * Returns a copy of the ambient map.
+	 *
+	 * @return the ambient map, or {@code null} if not set
+	 */
+	public MTLMap getAmbientMap() {
+		return map(MTLCompactLibrary.AMBIENT);
+	}
+
+	/**
+	 * Returns the file path of the ambient map without creating an {@link MTLMap}.
+	 *
+	 * @return the ambient map file path, or {@code null} if not set
+	 */
+	public String getAmbientMapFile() {
+		return file(MTLCompactLibrary.AMBIENT);
+	}
+
+	/**
+	 * Checks if the ambient map is set.
+	 *
+	 * @return {@code true} if the ambient map is set, {@code false} otherwise
+	 */
+	public boolean hasAmbientMap() {
+		return library.maps[index * MTLCompactLibrary.MAPS + MTLCompactLibrary.AMBIENT] >= 0;
+	}
+
+	/**
+	 * Returns a copy of the diffuse map.
+	 *
+	 * @return the diffuse map, or {@code null} if not set
+	 */
+	public MTLMap getDiffuseMap() {
+		return map(MTLCompactLibrary.DIFFUSE);
+	}
+
+	/**
+	 * Returns the file path of the diffuse map without creating an {@link MTLMap}.
+	 *
+	 * @return the diffuse map file path, or {@code null} if not set
+	 */
+	public String getDiffuseMapFile() {
+		return file(MTLCompactLibrary.DIFFUSE);
+	}
+
+	/**
+	 * Checks if the diffuse map is set.
+	 *
+	 * @return {@code true} if the diffuse map is set, {@code false} otherwise
+	 */
+	public boolean hasDiffuseMap() {
+		return library.maps[index * MTLCompactLibrary.MAPS + MTLCompactLibrary.DIFFUSE] >= 0;
+	}
+
+	/**
+	 * Returns a copy of the specular map.
+	 *
+	 * @return the specular map, or {@code null} if not set
+	 */
+	public MTLMap getSpecularMap() {
+		return map(MTLCompactLibrary.SPECULAR);
+	}
+
+	/**
+	 * Returns the file path of the specular map without creating an {@link MTLMap}.
+	 *
+	 * @return the specular map file path, or {@code null} if not set
+	 */
+	public String getSpecularMapFile() {
+		return file(MTLCompactLibrary.SPECULAR);
+	}
+
+	/**
+	 * Checks if the specular map is set.
+	 *
+	 * @return {@code true} if the specular map is set, {@code false} otherwise
+	 */
+	public boolean hasSpecularMap() {
+		return library.maps[index * MTLCompactLibrary.MAPS + MTLCompactLibrary.SPECULAR] >= 0;
+	}
+
+	/**
+	 * Returns a copy of the transparency map.
+	 *
+	 * @return the transparency map, or {@code null} if not set
+	 */
+	public MTLMap getTransparencyMap() {
+		return map(MTLCompactLibrary.TRANSPARENCY_MAP);
+	}
+
+	/**
+	 * Returns the file path of the transparency map without creating an {@link MTLMap}.
+	 *
+	 * @return the transparency map file path, or {@code null} if not set
+	 */
+	public String getTransparencyMapFile() {
+		return file(MTLCompactLibrary.TRANSPARENCY_MAP);
+	}
+
+	/**
+	 * Checks if the transparency map is set.
+	 *
+	 * @return {@code true} if the transparency map is set, {@code false} otherwise
+	 */
+	public boolean hasTransparencyMap() {
+		return library.maps[index * MTLCompactLibrary.MAPS + MTLCompactLibrary.TRANSPARENCY_MAP] >= 0;
+	}
+
+	/**
+	 * Returns a copy of the bump map.
+	 *
+	 * @return the bump map, or {@code null} if not set
+	 */
+	public MTLBumpMap getBumpMap() {
+		return (MTLBumpMap) map(MTLCompactLibrary.BUMP);
+	}
+
+	/**
+	 * Returns the file path of the bump map without creating an {@link MTLMap}.
+	 *
+	 * @return the bump map file path, or {@code null} if not set
+	 */
+	public String getBumpMapFile() {
+		return file(MTLCompactLibrary.BUMP);
+	}
+
+	/**
+	 * Checks if the bump map is set.
+	 *
+	 * @return {@code true} if the bump map is set, {@code false} otherwise
+	 */
+	public boolean hasBumpMap() {
+		return library.maps[index * MTLCompactLibrary.MAPS + MTLCompactLibrary.BUMP] >= 0;
+	}
+
+	/**
+	 * Creates a mutable {@link MTLMaterial} with the same properties as this one.
+	 *
+	 * @return a new {@link MTLMaterial}
+	 */
+	public MTLMaterial toMaterial() {
+		MTLMaterial material = new MTLMaterial().setName(getName());
+		if (hasTransparency())
+			material.setTransparency(getTransparency());
+		if (hasSpecularExponent())
+			material.setSpecularExponent(getSpecularExponent());
+		return material//
+				.setIllumination(getIllumination())//
+				.setAmbientColor(getAmbientColor())//
+				.setDiffuseColor(getDiffuseColor())//
+				.setSpecularColor(getSpecularColor())//
+				.setAmbientMap(getAmbientMap())//
+				.setDiffuseMap(getDiffuseMap())//
+				.setSpecularMap(getSpecularMap())//
+				.setTransparencyMap(getTransparencyMap())//
+				.setBumpMap(getBumpMap());
+	}
+
+	private boolean has(int property) {
+		return (library.presence[index] & property) != 0;
+	}
+
+	private float component(int color, int component) {
+		if (component < 0 || component > 2)
+			throw new IndexOutOfBoundsException("Component: " + component);
+		return library.colors[(index * MTLCompactLibrary.COLORS + color) * 3 + component];
+	}
+
+	private MTLColor color(int color, int property) {
+		if (!has(property))
+			return null;
+		int offset = (index * MTLCompactLibrary.COLORS + color) * 3;
+		return new MTLColor().set(library.colors[offset], library.colors[offset + 1], library.colors[offset + 2]);
+	}
+
+	private String file(int slot) {
+		int map = library.maps[index * MTLCompactLibrary.MAPS + slot];
+		if (map < 0)
+			return null;
+		int file = library.mapFiles[map];
+		return file < 0 ? null : library.files[file];
+	}
+
+	private MTLMap map(int slot) {
+		int map = library.maps[index * MTLCompactLibrary.MAPS + slot];
+		if (map < 0)
+			return null;
+		MTLMap result;
+		if (slot == MTLCompactLibrary.BUMP) {
+			MTLBumpMap bumpMap = new MTLBumpMap();
+			if ((library.mapOptions[map] & MTLCompactLibrary.MAP_INTENSITY) != 0)
+				bumpMap.setIntensity(library.mapIntensities[map]);
+			result = bumpMap;
+		} else
+			result = new MTLMap();
+		byte options = library.mapOptions[map];
+		if ((options & MTLCompactLibrary.MAP_SCALE) != 0)
+			result.setScale(library.mapScales[map]);
+		if ((options & MTLCompactLibrary.MAP_OFFSET) != 0)
+			result.setOffset(library.mapOffsets[map]);
+		if ((options & MTLCompactLibrary.MAP_TRANSFORM) != 0)
+			result.setTransform(true);
+		int file = library.mapFiles[map];
+		return result.setFile(file < 0 ? null : library.files[file]);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MTLCompactMaterial [index=%s, name=%s]", index, getName());
+	}
+
+}
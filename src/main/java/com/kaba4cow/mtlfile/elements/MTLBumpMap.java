@@ -1,20 +1,25 @@
 package com.kaba4cow.mtlfile.elements;
 
-import java.util.Objects;
+import java.io.IOException;
+
+import com.kaba4cow.mtlfile.MTLFingerprint;
+import com.kaba4cow.mtlfile.MTLWriter;
 
 /**
  * Represents a bump map in an MTL file.
  */
 public class MTLBumpMap extends MTLMap {
 
-	private Float intensity;
+	private float intensity;
+	private boolean intensitySet;
 
 	/**
 	 * Creates a new MTL bump map.
 	 */
 	public MTLBumpMap() {
 		super();
-		this.intensity = null;
+		this.intensity = 0.0f;
+		this.intensitySet = false;
 	}
 
 	/**
@@ -34,7 +39,9 @@ public class MTLBumpMap extends MTLMap {
 	 * @return a reference to this object
 	 */
 	public MTLBumpMap setIntensity(float intensity) {
+		checkNotFrozen();
 		this.intensity = intensity;
+		this.intensitySet = true;
 		return this;
 	}
 
@@ -44,7 +51,9 @@ public class MTLBumpMap extends MTLMap {
 	 * @return a reference to this object
 	 */
 	public MTLBumpMap clearIntensity() {
-		this.intensity = null;
+		checkNotFrozen();
+		this.intensity = 0.0f;
+		this.intensitySet = false;
 		return this;
 	}
 
@@ -54,21 +63,72 @@ public class MTLBumpMap extends MTLMap {
 	 * @return {@code true} if the intensity is set, {@code false} otherwise
 	 */
 	public boolean hasIntensity() {
-		return Objects.nonNull(intensity);
+		return intensitySet;
+	}
+
+	@Override
+	public MTLBumpMap freeze() {
+		super.freeze();
+		return this;
+	}
+
+	@Override
+	public MTLBumpMap snapshot() {
+		return isFrozen() ? this : copy().freeze();
+	}
+
+	/**
+	 * Creates a mutable copy of this bump map.
+	 *
+	 * @return a new bump map with the same file and options
+	 */
+	@Override
+	public MTLBumpMap copy() {
+		MTLBumpMap copy = copyTo(new MTLBumpMap());
+		copy.intensity = intensity;
+		copy.intensitySet = intensitySet;
+		return copy;
 	}
 
 	/**
-	 * Converts the bump map to its MTL string representation.
+	 * Compares the file and options of this bump map, including the intensity, with another bump map.
+	 *
+	 * @param object the object to compare with
+	 *
+	 * @return {@code true} if the object is a bump map with the same file and options, {@code false} otherwise
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (!super.equals(object))
+			return false;
+		MTLBumpMap other = (MTLBumpMap) object;
+		return intensitySet == other.intensitySet
+				&& Float.floatToIntBits(intensity) == Float.floatToIntBits(other.intensity);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	@Override
+	protected long mixContent(long hash) {
+		hash = MTLFingerprint.mix(super.mixContent(hash), intensitySet);
+		return MTLFingerprint.mix(hash, intensity);
+	}
+
+	/**
+	 * Writes the bump map options followed by the map file in the MTL format.
+	 *
+	 * @param writer the writer to write the bump map to
 	 *
-	 * @return the MTL string representation of this bump map
+	 * @throws IOException if an I/O error occurs
 	 */
 	@Override
-	public String toMTLString() {
-		StringBuilder builder = new StringBuilder();
+	public void writeTo(MTLWriter writer) throws IOException {
 		if (hasIntensity())
-			builder.append("-bm ").append(intensity);
-		builder.append(super.toString());
-		return builder.toString();
+			writer.append("-bm ").append(intensity).append(' ');
+		super.writeTo(writer);
 	}
 
 }
@@ -1,6 +1,11 @@
 package com.kaba4cow.mtlfile.elements;
 
+import java.io.IOException;
+import java.util.Objects;
+
 import com.kaba4cow.mtlfile.MTLElement;
+import com.kaba4cow.mtlfile.MTLFingerprint;
+import com.kaba4cow.mtlfile.MTLWriter;
 
 /**
  * Represents a color in an MTL file. A color is defined by three floating-point components (r, g, b).
@@ -10,6 +15,9 @@ public class MTLColor implements MTLElement {
 	private float r;
 	private float g;
 	private float b;
+	private boolean frozen;
+
+	int modifications;
 
 	/**
 	 * Creates a new {@code MTLColor} with all components initialized to 0.0.
@@ -18,6 +26,8 @@ public class MTLColor implements MTLElement {
 		this.r = 0.0f;
 		this.g = 0.0f;
 		this.b = 0.0f;
+		this.frozen = false;
+		this.modifications = 0;
 	}
 
 	/**
@@ -37,6 +47,7 @@ public class MTLColor implements MTLElement {
 	 * @return a reference to this color
 	 */
 	public MTLColor setR(float r) {
+		checkNotFrozen();
 		this.r = r;
 		return this;
 	}
@@ -58,6 +69,7 @@ public class MTLColor implements MTLElement {
 	 * @return a reference to this color
 	 */
 	public MTLColor setG(float g) {
+		checkNotFrozen();
 		this.g = g;
 		return this;
 	}
@@ -79,6 +91,7 @@ public class MTLColor implements MTLElement {
 	 * @return a reference to this color
 	 */
 	public MTLColor setB(float b) {
+		checkNotFrozen();
 		this.b = b;
 		return this;
 	}
@@ -97,13 +110,104 @@ public class MTLColor implements MTLElement {
 	}
 
 	/**
-	 * Converts this color to its string representation in the MTL format.
+	 * Makes this color immutable. Any further attempt to modify it throws an {@link UnsupportedOperationException}.
+	 *
+	 * @return a reference to this object
+	 */
+	public MTLColor freeze() {
+		this.frozen = true;
+		return this;
+	}
+
+	/**
+	 * Checks if this color is frozen.
+	 *
+	 * @return {@code true} if the color is immutable, {@code false} otherwise
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * Returns an immutable version of this color: this object if it is already frozen, or a frozen copy otherwise.
+	 *
+	 * @return a frozen color
+	 */
+	public MTLColor snapshot() {
+		return isFrozen() ? this : copy().freeze();
+	}
+
+	/**
+	 * Creates a mutable copy of this color.
+	 *
+	 * @return a new color with the same components
+	 */
+	public MTLColor copy() {
+		return new MTLColor().set(r, g, b);
+	}
+
+	/**
+	 * Writes this color in the MTL format.
+	 *
+	 * @param writer the writer to write the color to
 	 *
-	 * @return the MTL format string for this color
+	 * @throws IOException if an I/O error occurs
 	 */
 	@Override
-	public String toMTLString() {
-		return String.format("%s %s %s", r, g, b);
+	public void writeTo(MTLWriter writer) throws IOException {
+		writer.append(r).append(' ').append(g).append(' ').append(b);
+	}
+
+	/**
+	 * Computes the content fingerprint of this color.
+	 *
+	 * @return the fingerprint of the components
+	 *
+	 * @see MTLFingerprint
+	 */
+	public long fingerprint() {
+		return MTLFingerprint.finish(mixContent(MTLFingerprint.INITIAL));
+	}
+
+	/**
+	 * Compares the components of this color with another color. Components are compared by their bits, like
+	 * {@link Float#equals(Object)} does.
+	 *
+	 * @param object the object to compare with
+	 *
+	 * @return {@code true} if the object is a color with the same components, {@code false} otherwise
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (this == object)
+			return true;
+		if (Objects.isNull(object) || getClass() != object.getClass())
+			return false;
+		MTLColor other = (MTLColor) object;
+		return Float.floatToIntBits(r) == Float.floatToIntBits(other.r)
+				&& Float.floatToIntBits(g) == Float.floatToIntBits(other.g)
+				&& Float.floatToIntBits(b) == Float.floatToIntBits(other.b);
+	}
+
+	/**
+	 * Returns a hash code of the components. Since a mutable color changes its hash code when modified, only frozen
+	 * colors should be used as keys of hash-based collections.
+	 *
+	 * @return the hash code
+	 */
+	@Override
+	public int hashCode() {
+		return MTLFingerprint.hashCode(fingerprint());
+	}
+
+	long mixContent(long hash) {
+		return MTLFingerprint.mix(MTLFingerprint.mix(MTLFingerprint.mix(hash, r), g), b);
+	}
+
+	private void checkNotFrozen() {
+		if (frozen)
+			throw new UnsupportedOperationException("Color is frozen");
+		modifications++;
 	}
 
 }
@@ -1,8 +1,11 @@
 package com.kaba4cow.mtlfile.elements;
 
+import java.io.IOException;
 import java.util.Objects;
 
 import com.kaba4cow.mtlfile.MTLElement;
+import com.kaba4cow.mtlfile.MTLFingerprint;
+import com.kaba4cow.mtlfile.MTLWriter;
 
 /**
  * Represents a comment in an MTL file. Comments are prefixed with {@code #} in the MTL format.
@@ -10,12 +13,16 @@ import com.kaba4cow.mtlfile.MTLElement;
 public class MTLComment implements MTLElement {
 
 	private String text;
+	private boolean frozen;
+	private int modifications;
 
 	/**
 	 * Creates an empty comment.
 	 */
 	public MTLComment() {
 		this.text = null;
+		this.frozen = false;
+		this.modifications = 0;
 	}
 
 	/**
@@ -35,6 +42,7 @@ public class MTLComment implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLComment setText(String text) {
+		checkNotFrozen();
 		this.text = text;
 		return this;
 	}
@@ -54,18 +62,106 @@ public class MTLComment implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLComment clearText() {
+		checkNotFrozen();
 		this.text = null;
 		return this;
 	}
 
 	/**
-	 * Converts the comment to its MTL string representation.
+	 * Makes this comment immutable. Any further attempt to modify it throws an {@link UnsupportedOperationException}.
 	 *
-	 * @return the MTL string representation of this comment
+	 * @return a reference to this object
+	 */
+	public MTLComment freeze() {
+		this.frozen = true;
+		return this;
+	}
+
+	/**
+	 * Checks if this comment is frozen.
+	 *
+	 * @return {@code true} if the comment is immutable, {@code false} otherwise
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * Returns an immutable version of this comment: this object if it is already frozen, or a frozen copy otherwise.
+	 *
+	 * @return a frozen comment
+	 */
+	public MTLComment snapshot() {
+		return isFrozen() ? this : copy().freeze();
+	}
+
+	/**
+	 * Creates a mutable copy of this comment.
+	 *
+	 * @return a new comment with the same text
+	 */
+	public MTLComment copy() {
+		return new MTLComment().setText(text);
+	}
+
+	/**
+	 * Writes the comment in the MTL format.
+	 *
+	 * @param writer the writer to write the comment to
+	 *
+	 * @throws IOException if an I/O error occurs
 	 */
 	@Override
-	public String toMTLString() {
-		return String.format("# %s", text);
+	public void writeTo(MTLWriter writer) throws IOException {
+		writer.append("# ").append(text);
+	}
+
+	/**
+	 * Computes the content fingerprint of this comment.
+	 *
+	 * @return the fingerprint of the text
+	 *
+	 * @see MTLFingerprint
+	 */
+	public long fingerprint() {
+		return MTLFingerprint.finish(MTLFingerprint.mix(MTLFingerprint.INITIAL, text));
+	}
+
+	/**
+	 * Returns the number of times this comment has been modified. The count only grows, so a library notices that one of
+	 * its comments changed, and that its cached fingerprint is stale, by comparing the counts.
+	 *
+	 * @return the modification count
+	 */
+	public long getModificationCount() {
+		return modifications;
+	}
+
+	/**
+	 * Compares the text of this comment with another comment.
+	 *
+	 * @param object the object to compare with
+	 *
+	 * @return {@code true} if the object is a comment with the same text, {@code false} otherwise
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (this == object)
+			return true;
+		if (Objects.isNull(object) || getClass() != object.getClass())
+			return false;
+		return Objects.equals(text, ((MTLComment) object).text);
+	}
+
+	/**
+	 * Returns a hash code of the text. Since a mutable comment changes its hash code when modified, only frozen comments
+	 * should be used as keys of hash-based collections.
+	 *
+	 * @return the hash code
+	 */
+	@Override
+	public int hashCode() {
+		return MTLFingerprint.hashCode(fingerprint());
 	}
 
 	@Override
@@ -73,4 +169,10 @@ public class MTLComment implements MTLElement {
 		return String.format("MTLComment [text=%s]", text);
 	}
 
+	private void checkNotFrozen() {
+		if (frozen)
+			throw new UnsupportedOperationException("Comment is frozen");
+		modifications++;
+	}
+
 }
@@ -1,8 +1,11 @@
 package com.kaba4cow.mtlfile.elements;
 
+import java.io.IOException;
 import java.util.Objects;
 
 import com.kaba4cow.mtlfile.MTLElement;
+import com.kaba4cow.mtlfile.MTLFingerprint;
+import com.kaba4cow.mtlfile.MTLWriter;
 
 /**
  * Represents a map in an MTL file.
@@ -10,18 +13,27 @@ import com.kaba4cow.mtlfile.MTLElement;
 public class MTLMap implements MTLElement {
 
 	private String file;
-	private Float scale;
-	private Float offset;
+	private float scale;
+	private boolean scaleSet;
+	private float offset;
+	private boolean offsetSet;
 	private boolean transform;
+	private boolean frozen;
+
+	int modifications;
 
 	/**
 	 * Creates a new MTL map.
 	 */
 	public MTLMap() {
 		this.file = null;
-		this.scale = null;
-		this.offset = null;
+		this.scale = 0.0f;
+		this.scaleSet = false;
+		this.offset = 0.0f;
+		this.offsetSet = false;
 		this.transform = false;
+		this.frozen = false;
+		this.modifications = 0;
 	}
 
 	/**
@@ -41,6 +53,7 @@ public class MTLMap implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMap setFile(String file) {
+		checkNotFrozen();
 		this.file = file;
 		return this;
 	}
@@ -62,7 +75,9 @@ public class MTLMap implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMap setScale(float scale) {
+		checkNotFrozen();
 		this.scale = scale;
+		this.scaleSet = true;
 		return this;
 	}
 
@@ -72,7 +87,9 @@ public class MTLMap implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMap clearScale() {
-		this.scale = null;
+		checkNotFrozen();
+		this.scale = 0.0f;
+		this.scaleSet = false;
 		return this;
 	}
 
@@ -82,7 +99,7 @@ public class MTLMap implements MTLElement {
 	 * @return {@code true} if the scale is set, {@code false} otherwise
 	 */
 	public boolean hasScale() {
-		return Objects.nonNull(scale);
+		return scaleSet;
 	}
 
 	/**
@@ -102,7 +119,9 @@ public class MTLMap implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMap setOffset(float offset) {
+		checkNotFrozen();
 		this.offset = offset;
+		this.offsetSet = true;
 		return this;
 	}
 
@@ -112,7 +131,9 @@ public class MTLMap implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMap clearOffset() {
-		this.offset = null;
+		checkNotFrozen();
+		this.offset = 0.0f;
+		this.offsetSet = false;
 		return this;
 	}
 
@@ -122,7 +143,7 @@ public class MTLMap implements MTLElement {
 	 * @return {@code true} if the offset is set, {@code false} otherwise
 	 */
 	public boolean hasOffset() {
-		return Objects.nonNull(offset);
+		return offsetSet;
 	}
 
 	/**
@@ -142,6 +163,7 @@ public class MTLMap implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMap setTransform(boolean transform) {
+		checkNotFrozen();
 		this.transform = transform;
 		return this;
 	}
@@ -152,6 +174,7 @@ public class MTLMap implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMap clearTransform() {
+		checkNotFrozen();
 		this.transform = false;
 		return this;
 	}
@@ -162,25 +185,154 @@ public class MTLMap implements MTLElement {
 	 * @return {@code true} if the transform is set, {@code false} otherwise
 	 */
 	public boolean hasTransform() {
-		return Objects.nonNull(transform);
+		return transform;
+	}
+
+	/**
+	 * Makes this map immutable. Any further attempt to modify it throws an {@link UnsupportedOperationException}.
+	 *
+	 * @return a reference to this object
+	 */
+	public MTLMap freeze() {
+		this.frozen = true;
+		return this;
+	}
+
+	/**
+	 * Checks if this map is frozen.
+	 *
+	 * @return {@code true} if the map is immutable, {@code false} otherwise
+	 */
+	public boolean isFrozen() {
+		return frozen;
 	}
 
 	/**
-	 * Converts the map to its MTL string representation.
+	 * Returns an immutable version of this map: this object if it is already frozen, or a frozen copy otherwise.
 	 *
-	 * @return the MTL string representation of this map
+	 * @return a frozen map
+	 */
+	public MTLMap snapshot() {
+		return isFrozen() ? this : copy().freeze();
+	}
+
+	/**
+	 * Creates a mutable copy of this map.
+	 *
+	 * @return a new map with the same file and options
+	 */
+	public MTLMap copy() {
+		return copyTo(new MTLMap());
+	}
+
+	/**
+	 * Writes the map options followed by the map file in the MTL format.
+	 *
+	 * @param writer the writer to write the map to
+	 *
+	 * @throws IOException if an I/O error occurs
 	 */
 	@Override
-	public String toMTLString() {
-		StringBuilder builder = new StringBuilder();
+	public void writeTo(MTLWriter writer) throws IOException {
 		if (hasScale())
-			builder.append("-s ").append(scale);
+			writer.append("-s ").append(scale).append(' ');
 		if (hasOffset())
-			builder.append("-o ").append(offset);
+			writer.append("-o ").append(offset).append(' ');
 		if (hasTransform())
-			builder.append("-t ");
-		builder.append(file);
-		return builder.toString();
+			writer.append("-t ");
+		writer.append(file);
+	}
+
+	/**
+	 * Computes the content fingerprint of this map.
+	 *
+	 * @return the fingerprint of the file and options
+	 *
+	 * @see MTLFingerprint
+	 */
+	public long fingerprint() {
+		return MTLFingerprint.finish(mixContent(MTLFingerprint.INITIAL));
+	}
+
+	/**
+	 * Compares the file and options of this map with another map of the same class. Options that are not set are equal
+	 * regardless of the value they were last set to.
+	 *
+	 * @param object the object to compare with
+	 *
+	 * @return {@code true} if the object is a map of the same class with the same file and options, {@code false}
+	 *         otherwise
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (this == object)
+			return true;
+		if (Objects.isNull(object) || getClass() != object.getClass())
+			return false;
+		MTLMap other = (MTLMap) object;
+		return Objects.equals(file, other.file) //
+				&& scaleSet == other.scaleSet && Float.floatToIntBits(scale) == Float.floatToIntBits(other.scale) //
+				&& offsetSet == other.offsetSet && Float.floatToIntBits(offset) == Float.floatToIntBits(other.offset) //
+				&& transform == other.transform;
+	}
+
+	/**
+	 * Returns a hash code of the file and options. Since a mutable map changes its hash code when modified, only frozen
+	 * maps should be used as keys of hash-based collections.
+	 *
+	 * @return the hash code
+	 */
+	@Override
+	public int hashCode() {
+		return MTLFingerprint.hashCode(fingerprint());
+	}
+
+	/**
+	 * Mixes the file and options of this map into a hash. Subclasses with options of their own mix them in after calling
+	 * this method.
+	 *
+	 * @param hash the hash
+	 *
+	 * @return the new hash
+	 *
+	 * @see MTLFingerprint#mix(long, long)
+	 */
+	protected long mixContent(long hash) {
+		hash = MTLFingerprint.mix(hash, file);
+		hash = MTLFingerprint.mix(hash, scaleSet);
+		hash = MTLFingerprint.mix(hash, scale);
+		hash = MTLFingerprint.mix(hash, offsetSet);
+		hash = MTLFingerprint.mix(hash, offset);
+		return MTLFingerprint.mix(hash, transform);
+	}
+
+	/**
+	 * Copies the file and options of this map to the specified map.
+	 *
+	 * @param <T>    the type of the target map
+	 * @param target the map to copy to
+	 * 
+	 * @return the target map
+	 */
+	protected <T extends MTLMap> T copyTo(T target) {
+		MTLMap map = target;
+		map.file = file;
+		map.scale = scale;
+		map.scaleSet = scaleSet;
+		map.offset = offset;
+		map.offsetSet = offsetSet;
+		map.transform = transform;
+		return target;
+	}
+
+	/**
+	 * Throws an {@link UnsupportedOperationException} if this map is frozen, otherwise records that it is about to be
+	 * modified. Every setter calls this method before changing a field.
+	 */
+	protected void checkNotFrozen() {
+		if (frozen)
+			throw new UnsupportedOperationException("Map is frozen");
+		modifications++;
 	}
 
 }
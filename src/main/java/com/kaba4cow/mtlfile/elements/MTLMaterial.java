@@ -1,9 +1,15 @@
 package com.kaba4cow.mtlfile.elements;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.BiConsumer;
 
 import com.kaba4cow.mtlfile.MTLElement;
+import com.kaba4cow.mtlfile.MTLFingerprint;
 import com.kaba4cow.mtlfile.MTLIllumination;
+import com.kaba4cow.mtlfile.MTLWriter;
 
 /**
  * Represents a material in an MTL library.
@@ -11,8 +17,10 @@ import com.kaba4cow.mtlfile.MTLIllumination;
 public class MTLMaterial implements MTLElement {
 
 	private String name;
-	private Float transparency;
-	private Float specularExponent;
+	private float transparency;
+	private boolean transparencySet;
+	private float specularExponent;
+	private boolean specularExponentSet;
 	private MTLIllumination illumination;
 	private MTLColor ambientColor;
 	private MTLColor diffuseColor;
@@ -22,14 +30,21 @@ public class MTLMaterial implements MTLElement {
 	private MTLMap specularMap;
 	private MTLMap transparencyMap;
 	private MTLBumpMap bumpMap;
+	private boolean frozen;
+	private int modifications;
+	private Fingerprint fingerprint;
+
+	private List<BiConsumer<MTLMaterial, String>> nameListeners;
 
 	/**
 	 * Creates a new MTL material.
 	 */
 	public MTLMaterial() {
 		this.name = null;
-		this.transparency = null;
-		this.specularExponent = null;
+		this.transparency = 0.0f;
+		this.transparencySet = false;
+		this.specularExponent = 0.0f;
+		this.specularExponentSet = false;
 		this.illumination = null;
 		this.ambientColor = null;
 		this.diffuseColor = null;
@@ -39,6 +54,10 @@ public class MTLMaterial implements MTLElement {
 		this.specularMap = null;
 		this.transparencyMap = null;
 		this.bumpMap = null;
+		this.frozen = false;
+		this.modifications = 0;
+		this.fingerprint = null;
+		this.nameListeners = null;
 	}
 
 	/**
@@ -58,7 +77,44 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial setName(String name) {
+		checkNotFrozen();
+		String previous = this.name;
 		this.name = name;
+		if (Objects.nonNull(nameListeners) && !Objects.equals(previous, name))
+			for (BiConsumer<MTLMaterial, String> listener : nameListeners)
+				listener.accept(this, previous);
+		return this;
+	}
+
+	/**
+	 * Adds a listener notified whenever the material name changes. The listener receives this material and its previous
+	 * name. Since the name of a frozen material never changes, listeners are not kept once it is frozen.
+	 *
+	 * @param listener the listener to add
+	 * 
+	 * @return a reference to this object
+	 */
+	public MTLMaterial addNameListener(BiConsumer<MTLMaterial, String> listener) {
+		Objects.requireNonNull(listener, "Listener must not be null");
+		if (frozen)
+			return this;
+		if (Objects.isNull(nameListeners))
+			nameListeners = new ArrayList<>(1);
+		nameListeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * Removes a listener previously added with {@link #addNameListener(BiConsumer)}. If the listener was added several
+	 * times, only one registration is removed.
+	 *
+	 * @param listener the listener to remove
+	 * 
+	 * @return a reference to this object
+	 */
+	public MTLMaterial removeNameListener(BiConsumer<MTLMaterial, String> listener) {
+		if (Objects.nonNull(nameListeners) && !frozen)
+			nameListeners.remove(listener);
 		return this;
 	}
 
@@ -79,7 +135,9 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial setTransparency(float transparency) {
+		checkNotFrozen();
 		this.transparency = transparency;
+		this.transparencySet = true;
 		return this;
 	}
 
@@ -89,7 +147,9 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial clearTransparency() {
-		this.transparency = null;
+		checkNotFrozen();
+		this.transparency = 0.0f;
+		this.transparencySet = false;
 		return this;
 	}
 
@@ -99,7 +159,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return {@code true} if the transparency is set, {@code false} otherwise
 	 */
 	public boolean hasTransparency() {
-		return Objects.nonNull(transparency);
+		return transparencySet;
 	}
 
 	/**
@@ -119,7 +179,9 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial setSpecularExponent(float specularExponent) {
+		checkNotFrozen();
 		this.specularExponent = specularExponent;
+		this.specularExponentSet = true;
 		return this;
 	}
 
@@ -129,7 +191,9 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial clearSpecularExponent() {
-		this.specularExponent = null;
+		checkNotFrozen();
+		this.specularExponent = 0.0f;
+		this.specularExponentSet = false;
 		return this;
 	}
 
@@ -139,7 +203,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return {@code true} if the specular exponent is set, {@code false} otherwise
 	 */
 	public boolean hasSpecularExponent() {
-		return Objects.nonNull(specularExponent);
+		return specularExponentSet;
 	}
 
 	/**
@@ -159,6 +223,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial setIllumination(MTLIllumination illumination) {
+		checkNotFrozen();
 		this.illumination = illumination;
 		return this;
 	}
@@ -169,6 +234,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial clearIllumination() {
+		checkNotFrozen();
 		this.illumination = null;
 		return this;
 	}
@@ -199,6 +265,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial setAmbientColor(MTLColor ambientColor) {
+		checkNotFrozen();
 		this.ambientColor = ambientColor;
 		return this;
 	}
@@ -209,6 +276,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial clearAmbientColor() {
+		checkNotFrozen();
 		this.ambientColor = null;
 		return this;
 	}
@@ -239,6 +307,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial setDiffuseColor(MTLColor diffuseColor) {
+		checkNotFrozen();
 		this.diffuseColor = diffuseColor;
 		return this;
 	}
@@ -249,6 +318,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial clearDiffuseColor() {
+		checkNotFrozen();
 		this.diffuseColor = null;
 		return this;
 	}
@@ -279,6 +349,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial setSpecularColor(MTLColor specularColor) {
+		checkNotFrozen();
 		this.specularColor = specularColor;
 		return this;
 	}
@@ -289,6 +360,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial clearSpecularColor() {
+		checkNotFrozen();
 		this.specularColor = null;
 		return this;
 	}
@@ -308,6 +380,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial clearColors() {
+		checkNotFrozen();
 		return clearAmbientColor().clearDiffuseColor().clearSpecularColor();
 	}
 
@@ -328,6 +401,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial setAmbientMap(MTLMap ambientMap) {
+		checkNotFrozen();
 		this.ambientMap = ambientMap;
 		return this;
 	}
@@ -338,6 +412,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial clearAmbientMap() {
+		checkNotFrozen();
 		this.ambientMap = null;
 		return this;
 	}
@@ -368,6 +443,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial setDiffuseMap(MTLMap diffuseMap) {
+		checkNotFrozen();
 		this.diffuseMap = diffuseMap;
 		return this;
 	}
@@ -378,6 +454,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial clearDiffuseMap() {
+		checkNotFrozen();
 		this.diffuseMap = null;
 		return this;
 	}
@@ -408,6 +485,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial setSpecularMap(MTLMap specularMap) {
+		checkNotFrozen();
 		this.specularMap = specularMap;
 		return this;
 	}
@@ -418,6 +496,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial clearSpecularMap() {
+		checkNotFrozen();
 		this.specularMap = null;
 		return this;
 	}
@@ -448,6 +527,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial setTransparencyMap(MTLMap transparencyMap) {
+		checkNotFrozen();
 		this.transparencyMap = transparencyMap;
 		return this;
 	}
@@ -458,6 +538,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial clearTransparencyMap() {
+		checkNotFrozen();
 		this.transparencyMap = null;
 		return this;
 	}
@@ -488,6 +569,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial setBumpMap(MTLBumpMap bumpMap) {
+		checkNotFrozen();
 		this.bumpMap = bumpMap;
 		return this;
 	}
@@ -498,6 +580,7 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial clearBumpMap() {
+		checkNotFrozen();
 		this.bumpMap = null;
 		return this;
 	}
@@ -517,46 +600,273 @@ public class MTLMaterial implements MTLElement {
 	 * @return a reference to this object
 	 */
 	public MTLMaterial clearMaps() {
+		checkNotFrozen();
 		return clearAmbientMap().clearDiffuseMap().clearSpecularMap().clearTransparencyMap().clearBumpMap();
 	}
 
 	/**
-	 * Converts the material to its MTL string representation.
+	 * Makes this material and its colors and maps immutable. Any further attempt to modify it throws an {@link UnsupportedOperationException}.
+	 * A frozen material returns its cached fingerprint without checking the modification counters, so a fingerprint cached
+	 * before is brought up to date first.
+	 *
+	 * @return a reference to this object
+	 */
+	public MTLMaterial freeze() {
+		if (frozen)
+			return this;
+		if (Objects.nonNull(fingerprint))
+			fingerprint();
+		this.frozen = true;
+		this.nameListeners = null;
+		freeze(ambientColor);
+		freeze(diffuseColor);
+		freeze(specularColor);
+		freeze(ambientMap);
+		freeze(diffuseMap);
+		freeze(specularMap);
+		freeze(transparencyMap);
+		freeze(bumpMap);
+		return this;
+	}
+
+	/**
+	 * Checks if this material is frozen.
+	 *
+	 * @return {@code true} if the material is immutable, {@code false} otherwise
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * Returns an immutable version of this material: this object if it is already frozen, or a frozen copy otherwise.
+	 *
+	 * @return a frozen material
+	 */
+	public MTLMaterial snapshot() {
+		return isFrozen() ? this : copy().freeze();
+	}
+
+	/**
+	 * Creates a mutable deep copy of this material. Name listeners are not copied.
+	 *
+	 * @return a new material with the same properties
+	 */
+	public MTLMaterial copy() {
+		MTLMaterial copy = new MTLMaterial();
+		copy.name = name;
+		copy.transparency = transparency;
+		copy.transparencySet = transparencySet;
+		copy.specularExponent = specularExponent;
+		copy.specularExponentSet = specularExponentSet;
+		copy.illumination = illumination;
+		copy.ambientColor = Objects.isNull(ambientColor) ? null : ambientColor.copy();
+		copy.diffuseColor = Objects.isNull(diffuseColor) ? null : diffuseColor.copy();
+		copy.specularColor = Objects.isNull(specularColor) ? null : specularColor.copy();
+		copy.ambientMap = Objects.isNull(ambientMap) ? null : ambientMap.copy();
+		copy.diffuseMap = Objects.isNull(diffuseMap) ? null : diffuseMap.copy();
+		copy.specularMap = Objects.isNull(specularMap) ? null : specularMap.copy();
+		copy.transparencyMap = Objects.isNull(transparencyMap) ? null : transparencyMap.copy();
+		copy.bumpMap = Objects.isNull(bumpMap) ? null : bumpMap.copy();
+		return copy;
+	}
+
+	/**
+	 * Returns the content fingerprint of this material: its name and every property, but not its name listeners. The
+	 * fingerprint is computed once and cached until this material or one of its colors or maps is modified, so calling this
+	 * method repeatedly is cheap.
+	 *
+	 * @return the fingerprint of the name and properties
+	 *
+	 * @see MTLFingerprint
+	 */
+	public long fingerprint() {
+		Fingerprint cached = fingerprint;
+		if (Objects.nonNull(cached) && (frozen
+				|| cached.modifications == modifications && cached.childModifications == childModifications()))
+			return cached.value;
+		long childModifications = childModifications();
+		long hash = MTLFingerprint.mix(MTLFingerprint.INITIAL, name);
+		hash = MTLFingerprint.mix(hash, transparencySet);
+		hash = MTLFingerprint.mix(hash, transparency);
+		hash = MTLFingerprint.mix(hash, specularExponentSet);
+		hash = MTLFingerprint.mix(hash, specularExponent);
+		hash = MTLFingerprint.mix(hash, Objects.isNull(illumination) ? -1L : illumination.ordinal());
+		hash = mixContent(hash, ambientColor);
+		hash = mixContent(hash, diffuseColor);
+		hash = mixContent(hash, specularColor);
+		hash = mixContent(hash, ambientMap);
+		hash = mixContent(hash, diffuseMap);
+		hash = mixContent(hash, specularMap);
+		hash = mixContent(hash, transparencyMap);
+		hash = mixContent(hash, bumpMap);
+		long value = MTLFingerprint.finish(hash);
+		fingerprint = new Fingerprint(value, modifications, childModifications);
+		return value;
+	}
+
+	/**
+	 * Returns the number of times this material or one of its colors or maps has been modified. The count only grows, so a
+	 * library notices that one of its materials changed, and that its cached fingerprint is stale, by comparing the counts.
 	 *
-	 * @return the MTL string representation of this material
+	 * @return the modification count
+	 */
+	public long getModificationCount() {
+		return modifications + childModifications();
+	}
+
+	/**
+	 * Compares the name and properties of this material with another material. Name listeners and whether the materials are
+	 * frozen are not compared. The cached {@link #fingerprint() fingerprints} are compared first, so materials that differ
+	 * are usually told apart without comparing their properties.
+	 *
+	 * @param object the object to compare with
+	 *
+	 * @return {@code true} if the object is a material with the same name and properties, {@code false} otherwise
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (this == object)
+			return true;
+		if (Objects.isNull(object) || getClass() != object.getClass())
+			return false;
+		MTLMaterial other = (MTLMaterial) object;
+		return fingerprint() == other.fingerprint() //
+				&& Objects.equals(name, other.name) //
+				&& transparencySet == other.transparencySet
+				&& Float.floatToIntBits(transparency) == Float.floatToIntBits(other.transparency) //
+				&& specularExponentSet == other.specularExponentSet
+				&& Float.floatToIntBits(specularExponent) == Float.floatToIntBits(other.specularExponent) //
+				&& illumination == other.illumination //
+				&& Objects.equals(ambientColor, other.ambientColor) //
+				&& Objects.equals(diffuseColor, other.diffuseColor) //
+				&& Objects.equals(specularColor, other.specularColor) //
+				&& Objects.equals(ambientMap, other.ambientMap) //
+				&& Objects.equals(diffuseMap, other.diffuseMap) //
+				&& Objects.equals(specularMap, other.specularMap) //
+				&& Objects.equals(transparencyMap, other.transparencyMap) //
+				&& Objects.equals(bumpMap, other.bumpMap);
+	}
+
+	/**
+	 * Returns a hash code derived from the {@link #fingerprint() fingerprint}. Since a mutable material changes its hash
+	 * code when it or one of its colors or maps is modified, only frozen materials should be used as keys of hash-based
+	 * collections.
+	 *
+	 * @return the hash code
+	 */
+	@Override
+	public int hashCode() {
+		return MTLFingerprint.hashCode(fingerprint());
+	}
+
+	/**
+	 * Writes the material statements in the MTL format, each of them terminated by a line feed.
+	 *
+	 * @param writer the writer to write the material to
+	 *
+	 * @throws IOException if an I/O error occurs
 	 */
 	@Override
-	public String toMTLString() {
+	public void writeTo(MTLWriter writer) throws IOException {
 		Objects.requireNonNull(name, "Name must not be null");
-		StringBuilder builder = new StringBuilder();
-		builder.append("newmtl ").append(name).append("\n");
+		writer.append("newmtl ").append(name).append('\n');
 
 		if (hasTransparency())
-			builder.append("d ").append(transparency).append("\n");
+			writer.append("d ").append(transparency).append('\n');
 		if (hasSpecularExponent())
-			builder.append("Ns ").append(specularExponent).append("\n");
+			writer.append("Ns ").append(specularExponent).append('\n');
 		if (hasIllumination())
-			builder.append("illum ").append(illumination.ordinal()).append("\n");
-
-		if (hasAmbientColor())
-			builder.append("Ka ").append(ambientColor.toMTLString()).append("\n");
-		if (hasDiffuseColor())
-			builder.append("Kd ").append(diffuseColor.toMTLString()).append("\n");
-		if (hasSpecularColor())
-			builder.append("Ks ").append(specularColor.toMTLString()).append("\n");
-
-		if (hasAmbientMap())
-			builder.append("map_Ka ").append(ambientMap.toMTLString()).append("\n");
-		if (hasDiffuseMap())
-			builder.append("map_Kd ").append(diffuseMap.toMTLString()).append("\n");
-		if (hasSpecularMap())
-			builder.append("map_Ks ").append(specularMap.toMTLString()).append("\n");
-		if (hasTransparencyMap())
-			builder.append("map_d ").append(transparencyMap.toMTLString()).append("\n");
-		if (hasBumpMap())
-			builder.append("map_Bump ").append(bumpMap.toMTLString()).append("\n");
-
-		return builder.toString();
+			writer.append("illum ").append(illumination.ordinal()).append('\n');
+
+		writeStatement(writer, "Ka ", ambientColor);
+		writeStatement(writer, "Kd ", diffuseColor);
+		writeStatement(writer, "Ks ", specularColor);
+
+		writeStatement(writer, "map_Ka ", ambientMap);
+		writeStatement(writer, "map_Kd ", diffuseMap);
+		writeStatement(writer, "map_Ks ", specularMap);
+		writeStatement(writer, "map_d ", transparencyMap);
+		writeStatement(writer, "map_Bump ", bumpMap);
+	}
+
+	private static void writeStatement(MTLWriter writer, String keyword, MTLElement element) throws IOException {
+		if (Objects.isNull(element))
+			return;
+		writer.append(keyword);
+		element.writeTo(writer);
+		writer.append('\n');
+	}
+
+	private static void freeze(MTLColor color) {
+		if (Objects.nonNull(color))
+			color.freeze();
+	}
+
+	private static void freeze(MTLMap map) {
+		if (Objects.nonNull(map))
+			map.freeze();
+	}
+
+	/**
+	 * Sums the modification counters of the colors and maps. The counters only grow, so the sum changes whenever one of them
+	 * is modified, which is how a cached fingerprint notices changes made through the colors and maps themselves.
+	 */
+	private long childModifications() {
+		long sum = 0L;
+		sum += modifications(ambientColor);
+		sum += modifications(diffuseColor);
+		sum += modifications(specularColor);
+		sum += modifications(ambientMap);
+		sum += modifications(diffuseMap);
+		sum += modifications(specularMap);
+		sum += modifications(transparencyMap);
+		sum += modifications(bumpMap);
+		return sum;
+	}
+
+	private static long modifications(MTLColor color) {
+		return Objects.isNull(color) ? 0L : color.modifications;
+	}
+
+	private static long modifications(MTLMap map) {
+		return Objects.isNull(map) ? 0L : map.modifications;
+	}
+
+	private static long mixContent(long hash, MTLColor color) {
+		if (Objects.isNull(color))
+			return MTLFingerprint.mix(hash, false);
+		return color.mixContent(MTLFingerprint.mix(hash, true));
+	}
+
+	private static long mixContent(long hash, MTLMap map) {
+		if (Objects.isNull(map))
+			return MTLFingerprint.mix(hash, false);
+		return map.mixContent(MTLFingerprint.mix(hash, true));
+	}
+
+	private void checkNotFrozen() {
+		if (frozen)
+			throw new UnsupportedOperationException("Material is frozen");
+		modifications++;
+	}
+
+	/**
+	 * A computed fingerprint with the modification counters it was computed at. The fields are final so that a frozen
+	 * material can share its cached fingerprint between threads without synchronization.
+	 */
+	private static final class Fingerprint {
+
+		private final long value;
+		private final int modifications;
+		private final long childModifications;
+
+		private Fingerprint(long value, int modifications, long childModifications) {
+			this.value = value;
+			this.modifications = modifications;
+			this.childModifications = childModifications;
+		}
+
 	}
 
 }
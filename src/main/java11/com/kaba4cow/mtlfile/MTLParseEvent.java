@@ -0,0 +1,92 @@
+package com.kaba4cow.mtlfile;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The flight recorder event of a parse by {@link MTLParser}. This class replaces the no-op one of the base release in
+ * the multi-release jar on Java 11 and later, and must only be used if {@link MTLFlightRecorder#isAvailable()} returns
+ * {@code true}.
+ */
+@Name("com.kaba4cow.mtlfile.Parse")
+@Label("MTL Parse")
+@Category("MTL")
+@Description("MTL data read by MTLParser")
+final class MTLParseEvent extends Event {
+
+	private static final EventType TYPE = EventType.getEventType(MTLParseEvent.class);
+
+	@Label("File")
+	@Description("The path of the file read, or null if the data did not come from a file")
+	String file;
+
+	@Label("Bytes")
+	@Description("The amount of data read, in characters if it was read from a Reader or a string")
+	@DataAmount
+	long bytes;
+
+	@Label("Lines")
+	int lines;
+
+	@Label("Materials")
+	int materials;
+
+	@Label("Comments")
+	int comments;
+
+	@Label("Lenient")
+	@Description("Whether the data was read in the lenient mode")
+	boolean lenient;
+
+	/**
+	 * Checks if this class records events, which the no-op one of the base release does not.
+	 *
+	 * @return {@code true}
+	 */
+	static boolean isRecorded() {
+		return true;
+	}
+
+	/**
+	 * Starts an event if it is enabled in a recording.
+	 *
+	 * @param file    the path of the file read, or {@code null}
+	 * @param lenient whether the data is read in the lenient mode
+	 *
+	 * @return the started event, or {@code null} if it is disabled
+	 */
+	static MTLParseEvent start(Path file, boolean lenient) {
+		if (!TYPE.isEnabled())
+			return null;
+		MTLParseEvent event = new MTLParseEvent();
+		event.file = Objects.isNull(file) ? null : file.toString();
+		event.lenient = lenient;
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Ends the event and commits it with the specified metrics if it lasted long enough to be recorded.
+	 *
+	 * @param metrics the metrics of the parse
+	 */
+	void finish(MTLParseMetrics metrics) {
+		end();
+		if (!shouldCommit())
+			return;
+		bytes = metrics.getBytes();
+		lines = metrics.getLines();
+		materials = metrics.getMaterials();
+		comments = metrics.getComments();
+		commit();
+	}
+
+}
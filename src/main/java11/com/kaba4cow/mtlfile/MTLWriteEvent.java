@@ -0,0 +1,64 @@
+package com.kaba4cow.mtlfile;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The flight recorder event of MTL data written through an {@link MTLWriter}. This class replaces the no-op one of the
+ * base release in the multi-release jar on Java 11 and later, and must only be used if
+ * {@link MTLFlightRecorder#isAvailable()} returns {@code true}.
+ */
+@Name("com.kaba4cow.mtlfile.Write")
+@Label("MTL Write")
+@Category("MTL")
+@Description("MTL data written by toMTLString, writeTo or an MTLWriter")
+final class MTLWriteEvent extends Event {
+
+	private static final EventType TYPE = EventType.getEventType(MTLWriteEvent.class);
+
+	@Label("Characters")
+	long chars;
+
+	@Label("Lines")
+	int lines;
+
+	@Label("Materials")
+	int materials;
+
+	@Label("Comments")
+	int comments;
+
+	/**
+	 * Starts an event if it is enabled in a recording.
+	 *
+	 * @return the started event, or {@code null} if it is disabled
+	 */
+	static MTLWriteEvent start() {
+		if (!TYPE.isEnabled())
+			return null;
+		MTLWriteEvent event = new MTLWriteEvent();
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Ends the event and commits it with the specified metrics if it lasted long enough to be recorded.
+	 *
+	 * @param metrics the metrics of the write
+	 */
+	void finish(MTLWriteMetrics metrics) {
+		end();
+		if (!shouldCommit())
+			return;
+		chars = metrics.getChars();
+		lines = metrics.getLines();
+		materials = metrics.getMaterials();
+		comments = metrics.getComments();
+		commit();
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.kaba4cow.mtlfile.cache;
+
+import java.nio.file.Path;
+
+import com.kaba4cow.mtlfile.compact.MTLCompactLibrary;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The flight recorder event of a library requested from {@link MTLLibraryCache} or {@link MTLDiskCache}. This class
+ * replaces the no-op one of the base release in the multi-release jar on Java 11 and later, and must only be used if
+ * {@link com.kaba4cow.mtlfile.MTLFlightRecorder#isAvailable()} returns {@code true}.
+ */
+@Name("com.kaba4cow.mtlfile.CacheLookup")
+@Label("MTL Cache Lookup")
+@Category("MTL")
+@Description("A library requested from an MTL library cache")
+final class MTLCacheEvent extends Event {
+
+	private static final EventType TYPE = EventType.getEventType(MTLCacheEvent.class);
+
+	@Label("Cache")
+	@Description("Either memory or disk")
+	String cache;
+
+	@Label("File")
+	String file;
+
+	@Label("Hit")
+	@Description("Whether the library was found in the cache")
+	boolean hit;
+
+	@Label("Materials")
+	int materials;
+
+	@Label("Estimated Size")
+	@Description("The estimated memory used by the library")
+	@DataAmount
+	long size;
+
+	/**
+	 * Starts an event if it is enabled in a recording.
+	 *
+	 * @param cache either {@code "memory"} or {@code "disk"}
+	 * @param file  the path of the requested MTL file
+	 *
+	 * @return the started event, or {@code null} if it is disabled
+	 */
+	static MTLCacheEvent start(String cache, Path file) {
+		if (!TYPE.isEnabled())
+			return null;
+		MTLCacheEvent event = new MTLCacheEvent();
+		event.cache = cache;
+		event.file = file.toString();
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Ends the event and commits it if it lasted long enough to be recorded.
+	 *
+	 * @param hit     whether the library was found in the cache
+	 * @param library the returned library
+	 */
+	void finish(boolean hit, MTLCompactLibrary library) {
+		end();
+		if (!shouldCommit())
+			return;
+		this.hit = hit;
+		this.materials = library.getMaterialCount();
+		this.size = library.getEstimatedSize();
+		commit();
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.kaba4cow.mtlfile.compact;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The flight recorder event of a library read or written by {@link MTLBinaryFormat}. This class replaces the no-op one
+ * of the base release in the multi-release jar on Java 11 and later, and must only be used if
+ * {@link com.kaba4cow.mtlfile.MTLFlightRecorder#isAvailable()} returns {@code true}.
+ */
+@Name("com.kaba4cow.mtlfile.BinaryFormat")
+@Label("MTL Binary Format")
+@Category("MTL")
+@Description("A library read or written in the MTL binary format")
+final class MTLBinaryFormatEvent extends Event {
+
+	private static final EventType TYPE = EventType.getEventType(MTLBinaryFormatEvent.class);
+
+	@Label("Operation")
+	String operation;
+
+	@Label("File")
+	@Description("The path of the file, or null if the data was not read from or written to a file")
+	String file;
+
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+
+	@Label("Materials")
+	int materials;
+
+	/**
+	 * Starts an event if it is enabled in a recording.
+	 *
+	 * @param operation either {@code "read"} or {@code "write"}
+	 * @param file      the path of the file, or {@code null}
+	 *
+	 * @return the started event, or {@code null} if it is disabled
+	 */
+	static MTLBinaryFormatEvent start(String operation, Path file) {
+		if (!TYPE.isEnabled())
+			return null;
+		MTLBinaryFormatEvent event = new MTLBinaryFormatEvent();
+		event.operation = operation;
+		event.file = Objects.isNull(file) ? null : file.toString();
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Ends the event and commits it if it lasted long enough to be recorded.
+	 *
+	 * @param bytes     the number of bytes read or written
+	 * @param materials the number of materials
+	 */
+	void finish(long bytes, int materials) {
+		end();
+		if (!shouldCommit())
+			return;
+		this.bytes = bytes;
+		this.materials = materials;
+		commit();
+	}
+
+}